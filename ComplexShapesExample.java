@@ -65,13 +65,13 @@ public class ComplexShapesExample {
         
         // 8. Capsule Shape
         GameObject capsuleObject = createGameObject("capsule",
-            ShapeFactory.createCapsule(new Vector2D(550, 350), new Vector2D(650, 380), 20));
+            ShapeFactory.createCapsuleShape(new Vector2D(550, 350), new Vector2D(650, 380), 20));
         scene.addGameObject(capsuleObject);
-        System.out.println("✓ Created capsule from circles and rectangle");
+        System.out.println("✓ Created capsule");
         
         // 9. Rounded Rectangle
         GameObject roundedRectObject = createGameObject("rounded_rect",
-            ShapeFactory.createRoundedRectangle(new Vector2D(150, 500), 120, 60, 15));
+            ShapeFactory.createRoundedRectangleShape(new Vector2D(150, 500), 120, 60, 15));
         scene.addGameObject(roundedRectObject);
         System.out.println("✓ Created rounded rectangle");
         
@@ -175,7 +175,7 @@ public class ComplexShapesExample {
         
         // Hollow circle
         GameObject hollowCircleObject = createGameObject("hollow_circle",
-            ShapeFactory.createHollowCircle(new Vector2D(250, 600), 30, 15));
+            ShapeFactory.createRing(new Vector2D(250, 600), 30, 15));
         scene.addGameObject(hollowCircleObject);
         System.out.println("✓ Created hollow circle");
         
@@ -187,7 +187,7 @@ public class ComplexShapesExample {
         
         // Terrain
         GameObject terrainObject = createGameObject("terrain",
-            ShapeFactory.createTerrain(new Vector2D(450, 600), new Vector2D(550, 600), 10, 25));
+            ShapeFactory.createHeightfield(new Vector2D(450, 600), 100, 10, 25));
         scene.addGameObject(terrainObject);
         System.out.println("✓ Created procedural terrain");
     }
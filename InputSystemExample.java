@@ -134,7 +134,7 @@ public class InputSystemExample {
     }
     
     private static GameObject createHoverButton() {
-        Geometry shape = ShapeFactory.createRoundedRectangle(new Vector2D(300, 350), 120, 40, 10);
+        Geometry shape = ShapeFactory.createRoundedRectangleShape(new Vector2D(300, 350), 120, 40, 10);
         GameObject button = new GameObject("hover_button", shape);
         
         TagComponent tag = new TagComponent("button", "ui");
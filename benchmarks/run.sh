@@ -0,0 +1,39 @@
+#!/bin/bash
+
+# Builds and runs the JMH benchmarks. Arguments go to JMH, e.g.
+#   benchmarks/run.sh -p first=CIRCLE -p separation=NEAR_MISS
+# Reports ops/s and, through the gc profiler, bytes allocated per operation.
+#
+# The JMH jars are taken from benchmarks/lib (or $JMH_LIB) and downloaded from Maven
+# Central the first time if they are missing.
+set -e
+cd "$(dirname "$0")/.."
+
+LIB=${JMH_LIB:-benchmarks/lib}
+OUT=benchmarks/build
+JMH_VERSION=1.37
+REPO=https://repo1.maven.org/maven2
+JARS="org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar
+org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar
+net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar
+org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+
+mkdir -p "$LIB"
+for jar in $JARS; do
+    if [ ! -f "$LIB/$(basename "$jar")" ]; then
+        echo "Downloading $(basename "$jar")..."
+        curl -fsSL -o "$LIB/$(basename "$jar")" "$REPO/$jar"
+    fi
+done
+CLASSPATH=$(ls "$LIB"/*.jar | tr '\n' ':')
+
+echo "Compiling engine..."
+rm -rf "$OUT" && mkdir -p "$OUT"
+javac -d "$OUT" $(find src -name '*.java')
+
+# The JMH annotation processor generates the benchmark stubs and META-INF/BenchmarkList
+echo "Compiling benchmarks..."
+javac -cp "$OUT:$CLASSPATH" -processorpath "$CLASSPATH" -d "$OUT" $(find benchmarks/src -name '*.java')
+
+echo "Running benchmarks..."
+java -cp "$OUT:$CLASSPATH" org.openjdk.jmh.Main -prof gc "$@"
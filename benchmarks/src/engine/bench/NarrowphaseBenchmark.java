@@ -0,0 +1,216 @@
+package engine.bench;
+
+import engine.collision.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CollisionDetector.checkCollision for every pair of shape kinds, each in three placements.
+// The second shape is moved along a fixed diagonal, away from the first, and the placements
+// are measured from where the two stop touching:
+// - OVERLAPPING: about halfway in
+// - NEAR_MISS: just past contact, inside the bounding boxes, so the exact test has to run
+// - FAR_APART: bounding boxes apart, the early-out
+// The full matrix is 16 x 16 x 3 runs; narrow it down with -p, e.g.
+// benchmarks/run.sh -p first=CIRCLE -p separation=NEAR_MISS
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class NarrowphaseBenchmark {
+    // Not along an axis, so no pair lines up edge to edge
+    private static final Vector2D DIRECTION = new Vector2D(1, 0.37).normalize();
+    private static final double NEAR_MISS_GAP = 0.5;
+    private static final double FAR_APART_GAP = 100;
+    private static final int SCAN_STEPS = 64;
+    
+    // All the shapes are around 20 units across and centered on the origin once built.
+    // MAPPED_TILEMAP is left out: it is a TILEMAP backed by a file.
+    public enum Shape {
+        CIRCLE {
+            Geometry create() { return ShapeFactory.createCircle(new Vector2D(0, 0), 10); }
+        },
+        RECTANGLE {
+            Geometry create() { return ShapeFactory.createRectangle(new Vector2D(0, 0), 24, 14); }
+        },
+        POLYGON {
+            Geometry create() { return ShapeFactory.createRegularPolygon(new Vector2D(0, 0), 11, 6); }
+        },
+        LINE {
+            Geometry create() { return new Line(new Vector2D(-12, -4), new Vector2D(12, 4)); }
+        },
+        CURVE {
+            Geometry create() {
+                return ShapeFactory.createBezierCurve(new Vector2D[] {
+                    new Vector2D(-12, 0), new Vector2D(-4, 12), new Vector2D(4, -12), new Vector2D(12, 0)
+                });
+            }
+        },
+        ELLIPSE {
+            Geometry create() { return ShapeFactory.createEllipse(new Vector2D(0, 0), 13, 7, 0.4); }
+        },
+        COMPOSITE {
+            Geometry create() { return ShapeFactory.createGear(new Vector2D(0, 0), 10, 6, 8, 3); }
+        },
+        FREEFORM {
+            Geometry create() { return ShapeFactory.createStar(new Vector2D(0, 0), 12, 5, 5); }
+        },
+        INSTANCE {
+            Geometry create() {
+                ShapeTemplate template = ShapeFactory.createAsteroidTemplate(10, 12, 0.4, 42);
+                return ShapeFactory.createInstance(template, new Vector2D(0, 0));
+            }
+        },
+        CAPSULE {
+            Geometry create() { return ShapeFactory.createCapsuleShape(new Vector2D(-8, 0), new Vector2D(8, 0), 5); }
+        },
+        ROUNDED_RECT {
+            Geometry create() { return ShapeFactory.createRoundedRectangleShape(new Vector2D(0, 0), 24, 14, 4); }
+        },
+        RING {
+            Geometry create() { return ShapeFactory.createRing(new Vector2D(0, 0), 11, 6); }
+        },
+        DISTANCE_FIELD {
+            Geometry create() { return ShapeFactory.createDistanceField(FREEFORM.create(), 1); }
+        },
+        BITMASK {
+            Geometry create() { return ShapeFactory.createBitmask(CIRCLE.create(), 1); }
+        },
+        TILEMAP {
+            Geometry create() {
+                return ShapeFactory.createTileMap(new Vector2D(0, 0), new String[] {"##..", "#..#", "####"}, 6);
+            }
+        },
+        HEIGHTFIELD {
+            Geometry create() {
+                // Fixed heights; ShapeFactory.createHeightfield is random
+                double[] heights = new double[13];
+                for (int i = 0; i < heights.length; i++) {
+                    heights[i] = 4 + 3 * Math.sin(i * 0.8);
+                }
+                return new HeightfieldGeometry(0, 0, 2, heights);
+            }
+        };
+        
+        abstract Geometry create();
+    }
+    
+    public enum Separation {
+        OVERLAPPING,
+        NEAR_MISS,
+        FAR_APART
+    }
+    
+    @Param
+    public Shape first;
+    
+    @Param
+    public Shape second;
+    
+    @Param
+    public Separation separation;
+    
+    private Geometry a;
+    private Geometry b;
+    private double offset;
+    
+    @Setup
+    public void setup() {
+        a = first.create();
+        b = second.create();
+        centerOnOrigin(a);
+        centerOnOrigin(b);
+        offset = 0;
+        
+        BoundingBox boundsA = a.getBoundingBox();
+        BoundingBox boundsB = b.getBoundingBox();
+        // Past this the bounding boxes no longer overlap along x
+        double apart = (boundsA.getWidth() + boundsB.getWidth()) / 2 / DIRECTION.getX() + 1;
+        
+        // The last touching offset from a coarse scan, refined by bisection. Hollow and open
+        // shapes can touch, stop and touch again, so bisection alone could stop too early.
+        int lastHit = -1;
+        int middleHit = -1;
+        for (int i = 0; i <= SCAN_STEPS; i++) {
+            if (collidesAt(apart * i / SCAN_STEPS)) {
+                lastHit = i;
+            }
+        }
+        double contact = 0;
+        if (lastHit >= 0) {
+            double touching = apart * lastHit / SCAN_STEPS;
+            double clear = apart * (lastHit + 1) / SCAN_STEPS;
+            for (int i = 0; i < 40; i++) {
+                double mid = (touching + clear) / 2;
+                if (collidesAt(mid)) {
+                    touching = mid;
+                } else {
+                    clear = mid;
+                }
+            }
+            contact = touching;
+            // A touching offset near the middle of the range
+            for (int i = 0; i <= lastHit; i++) {
+                if (collidesAt(apart * i / SCAN_STEPS)
+                    && (middleHit < 0 || Math.abs(i - lastHit / 2.0) < Math.abs(middleHit - lastHit / 2.0))) {
+                    middleHit = i;
+                }
+            }
+        }
+        
+        switch (separation) {
+            case OVERLAPPING:
+                moveTo(middleHit >= 0 ? apart * middleHit / SCAN_STEPS : 0);
+                break;
+            case NEAR_MISS:
+                moveTo(contact + NEAR_MISS_GAP);
+                break;
+            case FAR_APART:
+                moveTo(apart + FAR_APART_GAP);
+                break;
+        }
+        
+        // Pairs CollisionDetector has no test for never collide; they are still measured,
+        // since the time to reject them is what a scene pays for them
+        boolean expected = separation == Separation.OVERLAPPING;
+        if (lastHit < 0) {
+            System.err.println("Note: " + first + " / " + second + " never collide at any offset");
+        } else if (CollisionDetector.checkCollision(a, b).isColliding() != expected) {
+            System.err.println("Note: " + first + " / " + second + " " + separation + " does "
+                               + (expected ? "not " : "") + "collide; measuring it anyway");
+        }
+    }
+    
+    @Benchmark
+    public CollisionResult checkCollision() {
+        return CollisionDetector.checkCollision(a, b);
+    }
+    
+    private boolean collidesAt(double distance) {
+        moveTo(distance);
+        return CollisionDetector.checkCollision(a, b).isColliding();
+    }
+    
+    // Places b distance units from the origin along DIRECTION
+    private void moveTo(double distance) {
+        b.translate(DIRECTION.multiply(distance - offset));
+        offset = distance;
+    }
+    
+    private static void centerOnOrigin(Geometry geometry) {
+        BoundingBox bounds = geometry.getBoundingBox();
+        geometry.translate(new Vector2D(-(bounds.getMinX() + bounds.getMaxX()) / 2,
+                                        -(bounds.getMinY() + bounds.getMaxY()) / 2));
+    }
+}
\ No newline at end of file
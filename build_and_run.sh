@@ -2,7 +2,17 @@
 
 # Compile the engine
 echo "Compiling engine..."
-javac -d build -cp . src/engine/collision/*.java src/engine/*.java
+javac -d build -cp . src/engine/collision/*.java src/engine/input/*.java src/engine/jfr/*.java src/engine/jmx/*.java src/engine/*.java
+
+# Compile the optional SIMD batch kernels, which need the Vector API module; without them
+# (or without the module at run time) the engine uses its scalar loops
+echo "Compiling SIMD kernels..."
+SIMD_FLAGS=
+if javac --add-modules jdk.incubator.vector -d build -cp build src-simd/engine/collision/*.java 2>/dev/null; then
+    SIMD_FLAGS="--add-modules jdk.incubator.vector"
+else
+    echo "Vector API not available, using the scalar kernels"
+fi
 
 # Compile the example
 echo "Compiling example..."
@@ -10,4 +20,4 @@ javac -d build -cp build GameEngineExample.java
 
 # Run the example
 echo "Running example..."
-java -cp build GameEngineExample
\ No newline at end of file
+java $SIMD_FLAGS -cp build GameEngineExample
\ No newline at end of file
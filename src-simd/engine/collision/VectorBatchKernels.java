@@ -0,0 +1,153 @@
+package engine.collision;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// BatchKernels on the Vector API, kept in a source root of its own so that only this class
+// needs jdk.incubator.vector to compile. Only ever created by BatchKernels.get(), which
+// falls back to the scalar loops when the class or the module cannot be loaded. Whole
+// vectors are handled here and the leftover tail by the scalar loops; the arithmetic is the
+// same (no fused multiply-add), so results match the scalar version exactly.
+final class VectorBatchKernels extends BatchKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // Twice as many lanes as for doubles
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    // As many float lanes as SPECIES has double lanes, for widening float columns
+    private static final VectorSpecies<Float> HALF_FLOAT_SPECIES =
+        VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+    
+    VectorBatchKernels() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD support for doubles");
+        }
+    }
+    
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+    
+    @Override
+    public void integrate(double[] positionX, double[] positionY, double[] velocityX, double[] velocityY,
+                          int count, double deltaTime) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector px = DoubleVector.fromArray(SPECIES, positionX, i);
+            DoubleVector py = DoubleVector.fromArray(SPECIES, positionY, i);
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, velocityX, i);
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, velocityY, i);
+            px.add(vx.mul(deltaTime)).intoArray(positionX, i);
+            py.add(vy.mul(deltaTime)).intoArray(positionY, i);
+        }
+        integrate(positionX, positionY, velocityX, velocityY, bound, count, deltaTime);
+    }
+    
+    @Override
+    public int overlapCircles(double[] centerX, double[] centerY, double[] radius, int count,
+                              double x, double y, double r, int[] results) {
+        int bound = SPECIES.loopBound(count);
+        int hits = 0;
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> overlap = overlap(DoubleVector.fromArray(SPECIES, centerX, i),
+                                                 DoubleVector.fromArray(SPECIES, centerY, i),
+                                                 DoubleVector.fromArray(SPECIES, radius, i), x, y, r);
+            if (overlap.anyTrue()) {
+                hits = recordLanes(overlap.toLong(), i, hits, results);
+            }
+        }
+        return overlapCircles(centerX, centerY, radius, bound, count, x, y, r, hits, results);
+    }
+    
+    @Override
+    public int overlapBoxes(double[] minX, double[] minY, double[] maxX, double[] maxY, int count,
+                            double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        int bound = SPECIES.loopBound(count);
+        int hits = 0;
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> overlap = DoubleVector.fromArray(SPECIES, minX, i).compare(VectorOperators.LE, qMaxX)
+                .and(DoubleVector.fromArray(SPECIES, maxX, i).compare(VectorOperators.GE, qMinX))
+                .and(DoubleVector.fromArray(SPECIES, minY, i).compare(VectorOperators.LE, qMaxY))
+                .and(DoubleVector.fromArray(SPECIES, maxY, i).compare(VectorOperators.GE, qMinY));
+            if (overlap.anyTrue()) {
+                hits = recordLanes(overlap.toLong(), i, hits, results);
+            }
+        }
+        return overlapBoxes(minX, minY, maxX, maxY, bound, count, qMinX, qMinY, qMaxX, qMaxY, hits, results);
+    }
+    
+    @Override
+    public void integrate(float[] positionX, float[] positionY, float[] velocityX, float[] velocityY,
+                          int count, double deltaTime) {
+        float step = (float) deltaTime;
+        int bound = FLOAT_SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += FLOAT_SPECIES.length()) {
+            FloatVector px = FloatVector.fromArray(FLOAT_SPECIES, positionX, i);
+            FloatVector py = FloatVector.fromArray(FLOAT_SPECIES, positionY, i);
+            FloatVector vx = FloatVector.fromArray(FLOAT_SPECIES, velocityX, i);
+            FloatVector vy = FloatVector.fromArray(FLOAT_SPECIES, velocityY, i);
+            px.add(vx.mul(step)).intoArray(positionX, i);
+            py.add(vy.mul(step)).intoArray(positionY, i);
+        }
+        integrate(positionX, positionY, velocityX, velocityY, bound, count, step);
+    }
+    
+    @Override
+    public int overlapCircles(float[] centerX, float[] centerY, float[] radius, int count,
+                              double x, double y, double r, int[] results) {
+        int bound = SPECIES.loopBound(count);
+        int hits = 0;
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> overlap = overlap(widen(centerX, i), widen(centerY, i), widen(radius, i), x, y, r);
+            if (overlap.anyTrue()) {
+                hits = recordLanes(overlap.toLong(), i, hits, results);
+            }
+        }
+        return overlapCircles(centerX, centerY, radius, bound, count, x, y, r, hits, results);
+    }
+    
+    @Override
+    public int overlapBoxes(float[] minX, float[] minY, float[] maxX, float[] maxY, int count,
+                            double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        float x0 = NumericColumn.roundDown(qMinX), y0 = NumericColumn.roundDown(qMinY);
+        float x1 = NumericColumn.roundUp(qMaxX), y1 = NumericColumn.roundUp(qMaxY);
+        int bound = FLOAT_SPECIES.loopBound(count);
+        int hits = 0;
+        for (int i = 0; i < bound; i += FLOAT_SPECIES.length()) {
+            VectorMask<Float> overlap = FloatVector.fromArray(FLOAT_SPECIES, minX, i).compare(VectorOperators.LE, x1)
+                .and(FloatVector.fromArray(FLOAT_SPECIES, maxX, i).compare(VectorOperators.GE, x0))
+                .and(FloatVector.fromArray(FLOAT_SPECIES, minY, i).compare(VectorOperators.LE, y1))
+                .and(FloatVector.fromArray(FLOAT_SPECIES, maxY, i).compare(VectorOperators.GE, y0));
+            if (overlap.anyTrue()) {
+                hits = recordLanes(overlap.toLong(), i, hits, results);
+            }
+        }
+        return overlapBoxes(minX, minY, maxX, maxY, bound, count, x0, y0, x1, y1, hits, results);
+    }
+    
+    // Same steps as the scalar circle test
+    private static VectorMask<Double> overlap(DoubleVector centerX, DoubleVector centerY, DoubleVector radius,
+                                              double x, double y, double r) {
+        DoubleVector dx = DoubleVector.broadcast(SPECIES, x).sub(centerX);
+        DoubleVector dy = DoubleVector.broadcast(SPECIES, y).sub(centerY);
+        DoubleVector reach = radius.add(r);
+        return dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, reach.mul(reach));
+    }
+    
+    private static DoubleVector widen(float[] column, int index) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, column, index)
+                                         .convertShape(VectorOperators.F2D, SPECIES, 0);
+    }
+    
+    // Records the index of every set lane, in order
+    private static int recordLanes(long lanes, int base, int hits, int[] results) {
+        while (lanes != 0) {
+            hits = record(base + Long.numberOfTrailingZeros(lanes), hits, results);
+            lanes &= lanes - 1;
+        }
+        return hits;
+    }
+}
\ No newline at end of file
@@ -1,11 +1,28 @@
 package engine;
 
+import engine.jmx.CollisionMonitor;
+import engine.jmx.GameMonitor;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 public class Engine {
+    private static final String GAME_MBEAN = "engine:type=Game";
+    
     private static Engine instance;
-    private Game currentGame;
+    private volatile Game currentGame;
+    // Registered through registerMBeans; one collision MBean per scene of the current game.
+    // Both guarded by this, since scenes can be added on the update thread while another
+    // thread sets the game or registers the MBeans.
+    private boolean mbeansRegistered;
+    private Map<Scene, ObjectName> sceneMBeans;
     
     private Engine() {
         // Private constructor for singleton
+        this.sceneMBeans = new HashMap<>();
     }
     
     public static Engine getInstance() {
@@ -19,6 +36,7 @@ public class Engine {
     
     public void setCurrentGame(Game game) {
         this.currentGame = game;
+        refreshSceneMBeans();
     }
     
     public void startGame(String title) {
@@ -36,4 +54,88 @@ public class Engine {
     public Game createGame(String title) {
         return new Game(title);
     }
+    
+    // Monitoring
+    
+    // Registers engine:type=Game for the current game (whichever it is at the time) and
+    // engine:type=CollisionManager,scene=<name> for each of its scenes with the platform
+    // MBean server, so the game can be watched and tuned from JConsole or any JMX client
+    public synchronized void registerMBeans() {
+        if (mbeansRegistered) return;
+        
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new GameMonitor(this), new ObjectName(GAME_MBEAN));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the engine MBeans", e);
+        }
+        mbeansRegistered = true;
+        refreshSceneMBeans();
+    }
+    
+    public synchronized void unregisterMBeans() {
+        if (!mbeansRegistered) return;
+        
+        mbeansRegistered = false;
+        refreshSceneMBeans();
+        unregister(objectName(GAME_MBEAN));
+    }
+    
+    public synchronized boolean isMBeansRegistered() {
+        return mbeansRegistered;
+    }
+    
+    // Called by Game when scenes are added or removed
+    static void scenesChanged(Game game) {
+        if (instance != null && instance.currentGame == game) {
+            instance.refreshSceneMBeans();
+        }
+    }
+    
+    // Brings the collision MBeans in line with the current game's scenes
+    private synchronized void refreshSceneMBeans() {
+        Map<Scene, ObjectName> stale = new HashMap<>(sceneMBeans);
+        Game game = currentGame;
+        if (mbeansRegistered && game != null) {
+            for (Scene scene : game.getSceneSnapshot()) {
+                if (stale.remove(scene) == null) {
+                    registerSceneMBean(game, scene);
+                }
+            }
+        }
+        for (Map.Entry<Scene, ObjectName> entry : stale.entrySet()) {
+            sceneMBeans.remove(entry.getKey());
+            unregister(entry.getValue());
+        }
+    }
+    
+    private void registerSceneMBean(Game game, Scene scene) {
+        ObjectName name = objectName("engine:type=CollisionManager,scene=" + ObjectName.quote(scene.getName()));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            return; // another scene with the same name
+        }
+        try {
+            server.registerMBean(new CollisionMonitor(game, scene.getCollisionManager()), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the MBean for scene " + scene.getName(), e);
+        }
+        sceneMBeans.put(scene, name);
+    }
+    
+    private static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // Already gone
+        }
+    }
+    
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid MBean name: " + name, e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Waits for evenly spaced frame deadlines. Deadlines are absolute (start + n * period), so
+// a late wakeup does not push back the frames after it. Most of the wait is spent parked;
+// the last stretch before the deadline is spun, since parking can overshoot by the OS
+// timer granularity. Records how late each wakeup was, and counts the frames that reached
+// their deadline too late to wait at all.
+public class FramePacer {
+    private static final long DEFAULT_SPIN_NANOS = 1_000_000;
+    
+    private long periodNanos;
+    private long spinNanos;
+    private long nextDeadline;
+    
+    private long tickCount;
+    private long lateCount;
+    private long overrunCount;
+    // Wakeup lateness statistics (Welford's running mean and variance)
+    private long wakeupCount;
+    private double meanLateness;
+    private double latenessSquares;
+    private long maxLateness;
+    
+    public FramePacer(double targetFPS) {
+        setTargetFPS(targetFPS);
+        this.spinNanos = DEFAULT_SPIN_NANOS;
+    }
+    
+    public long getPeriodNanos() { return periodNanos; }
+    public long getSpinNanos() { return spinNanos; }
+    
+    public void setTargetFPS(double targetFPS) {
+        if (targetFPS <= 0) {
+            throw new IllegalArgumentException("Target FPS must be positive");
+        }
+        this.periodNanos = (long) (1_000_000_000.0 / targetFPS);
+    }
+    
+    // How long before each deadline to stop parking and spin instead
+    public void setSpinNanos(long spinNanos) {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("Spin time must not be negative");
+        }
+        this.spinNanos = spinNanos;
+    }
+    
+    // Starts the schedule: the first deadline is one period from now
+    public void start() {
+        nextDeadline = System.nanoTime() + periodNanos;
+        resetStatistics();
+    }
+    
+    // Blocks until the next deadline. Returns false if the thread was interrupted, with
+    // its interrupt flag still set.
+    public boolean awaitNextFrame() {
+        long deadline = nextDeadline;
+        long now = System.nanoTime();
+        boolean late = deadline - now <= 0;
+        while (deadline - now > spinNanos) {
+            LockSupport.parkNanos(deadline - now - spinNanos);
+            if (Thread.currentThread().isInterrupted()) return false;
+            now = System.nanoTime();
+        }
+        while (deadline - now > 0) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+        
+        tickCount++;
+        if (late) {
+            // Nothing to wait for: that lateness is the frame overrunning, not wakeup jitter
+            lateCount++;
+        } else {
+            record(now - deadline);
+        }
+        nextDeadline += periodNanos;
+        // A frame that ran past the following deadline as well restarts the schedule
+        // rather than letting the loop rush through the missed frames
+        if (now - nextDeadline >= 0) {
+            overrunCount++;
+            nextDeadline = now + periodNanos;
+        }
+        return true;
+    }
+    
+    private void record(long lateness) {
+        wakeupCount++;
+        double delta = lateness - meanLateness;
+        meanLateness += delta / wakeupCount;
+        latenessSquares += delta * (lateness - meanLateness);
+        maxLateness = Math.max(maxLateness, lateness);
+    }
+    
+    // Statistics
+    
+    public long getTickCount() { return tickCount; }
+    // Frames whose work ran past their deadline, so there was nothing to wait for
+    public long getLateCount() { return lateCount; }
+    // Frames whose work took longer than a whole period
+    public long getOverrunCount() { return overrunCount; }
+    // Time between a deadline and the actual wakeup, over the frames that waited for it
+    public double getMeanJitterNanos() { return meanLateness; }
+    public long getMaxJitterNanos() { return maxLateness; }
+    
+    public double getJitterStdDevNanos() {
+        return wakeupCount < 2 ? 0 : Math.sqrt(latenessSquares / (wakeupCount - 1));
+    }
+    
+    public void resetStatistics() {
+        tickCount = 0;
+        lateCount = 0;
+        overrunCount = 0;
+        wakeupCount = 0;
+        meanLateness = 0;
+        latenessSquares = 0;
+        maxLateness = 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("FramePacer{period=%.3fms, ticks=%d, jitter mean=%.1fus max=%.1fus sd=%.1fus, late=%d, overruns=%d}",
+                             periodNanos / 1e6, tickCount, meanLateness / 1e3, maxLateness / 1e3,
+                             getJitterStdDevNanos() / 1e3, lateCount, overrunCount);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package engine;
+
+import java.util.Arrays;
+
+// Always-on timing of the phases of Game.update. Each phase's time is summed over a frame
+// (a fixed-step frame can update the scene several times) and kept for the last
+// windowSize frames, from which the percentiles are read. Recording is a nanoTime call and
+// an array store per phase; the sorting happens only when a percentile is asked for.
+// Queries may come from another thread (e.g. JMX); they see the window as of the last
+// completed frame, give or take the frame being written.
+public class FrameProfiler {
+    private static final int DEFAULT_WINDOW = 600;
+    
+    public enum Phase {
+        FRAME,       // the whole of Game.update
+        INPUT,       // InputManager.update
+        SCENE,       // Scene.update, made up of the three phases below
+        COMPONENTS,  // component updates of every object
+        INTEGRATION, // moving objects and their colliders
+        COLLISIONS   // PhysicsComponent.updateCollisions of every object
+    }
+    
+    public enum Counter {
+        OBJECTS_UPDATED,
+        PAIRS_TESTED,
+        COLLISIONS_FOUND
+    }
+    
+    private static final Phase[] PHASES = Phase.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    
+    private final long[][] samples;
+    private final long[] frameStarts;
+    private long frameStart;
+    private final long[] frameTimes;
+    private final long[] frameCounts;
+    private final long[] lastCounts;
+    private final long[] totalCounts;
+    private volatile int next;
+    private volatile int sampleCount;
+    private volatile long frameCount;
+    
+    public FrameProfiler() {
+        this(DEFAULT_WINDOW);
+    }
+    
+    // windowSize is the number of recent frames the percentiles are taken over
+    public FrameProfiler(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.samples = new long[PHASES.length][windowSize];
+        this.frameStarts = new long[windowSize];
+        this.frameTimes = new long[PHASES.length];
+        this.frameCounts = new long[COUNTERS.length];
+        this.lastCounts = new long[COUNTERS.length];
+        this.totalCounts = new long[COUNTERS.length];
+    }
+    
+    public int getWindowSize() { return samples[0].length; }
+    public int getSampleCount() { return sampleCount; }
+    public long getFrameCount() { return frameCount; }
+    
+    // Recording
+    
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        Arrays.fill(frameTimes, 0);
+        Arrays.fill(frameCounts, 0);
+    }
+    
+    public void addTime(Phase phase, long nanos) {
+        frameTimes[phase.ordinal()] += nanos;
+    }
+    
+    public void count(Counter counter, long amount) {
+        frameCounts[counter.ordinal()] += amount;
+    }
+    
+    public void endFrame() {
+        int slot = next;
+        for (int i = 0; i < PHASES.length; i++) {
+            samples[i][slot] = frameTimes[i];
+        }
+        frameStarts[slot] = frameStart;
+        for (int i = 0; i < COUNTERS.length; i++) {
+            lastCounts[i] = frameCounts[i];
+            totalCounts[i] += frameCounts[i];
+        }
+        next = (slot + 1) % samples[0].length;
+        sampleCount = Math.min(sampleCount + 1, samples[0].length);
+        frameCount++;
+    }
+    
+    // Queries
+    
+    // Frames begun per second over the recent frames
+    public double getFramesPerSecond() {
+        int last = next;
+        int samplesTaken = sampleCount;
+        if (samplesTaken < 2) return 0;
+        
+        int window = frameStarts.length;
+        long newest = frameStarts[(last - 1 + window) % window];
+        long oldest = frameStarts[(last - samplesTaken + window) % window];
+        return newest <= oldest ? 0 : (samplesTaken - 1) * 1e9 / (newest - oldest);
+    }
+    
+    // Duration in nanoseconds that fraction (0 to 1) of the recent frames stayed within
+    public long getPercentile(Phase phase, double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        int samplesTaken = sampleCount;
+        if (samplesTaken == 0) return 0;
+        
+        long[] sorted = Arrays.copyOf(samples[phase.ordinal()], samplesTaken);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(fraction * samplesTaken) - 1;
+        return sorted[Math.max(rank, 0)];
+    }
+    
+    public long getP50(Phase phase) { return getPercentile(phase, 0.50); }
+    public long getP99(Phase phase) { return getPercentile(phase, 0.99); }
+    
+    public long getMax(Phase phase) {
+        long max = 0;
+        int samplesTaken = sampleCount;
+        long[] phaseSamples = samples[phase.ordinal()];
+        for (int i = 0; i < samplesTaken; i++) {
+            max = Math.max(max, phaseSamples[i]);
+        }
+        return max;
+    }
+    
+    public double getMean(Phase phase) {
+        int samplesTaken = sampleCount;
+        if (samplesTaken == 0) return 0;
+        
+        long sum = 0;
+        long[] phaseSamples = samples[phase.ordinal()];
+        for (int i = 0; i < samplesTaken; i++) {
+            sum += phaseSamples[i];
+        }
+        return (double) sum / samplesTaken;
+    }
+    
+    // Count for the last completed frame
+    public long getLastCount(Counter counter) {
+        return lastCounts[counter.ordinal()];
+    }
+    
+    // Count since the profiler was created or reset
+    public long getTotalCount(Counter counter) {
+        return totalCounts[counter.ordinal()];
+    }
+    
+    public void reset() {
+        for (long[] phaseSamples : samples) {
+            Arrays.fill(phaseSamples, 0);
+        }
+        Arrays.fill(lastCounts, 0);
+        Arrays.fill(totalCounts, 0);
+        next = 0;
+        sampleCount = 0;
+        frameCount = 0;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FrameProfiler{frames=").append(frameCount);
+        for (Phase phase : PHASES) {
+            sb.append(String.format(", %s p50=%.1fus p99=%.1fus max=%.1fus", phase.name().toLowerCase(),
+                                    getP50(phase) / 1e3, getP99(phase) / 1e3, getMax(phase) / 1e3));
+        }
+        for (Counter counter : COUNTERS) {
+            sb.append(", ").append(counter.name().toLowerCase()).append('=').append(getLastCount(counter));
+        }
+        return sb.append('}').toString();
+    }
+}
\ No newline at end of file
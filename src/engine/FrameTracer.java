@@ -0,0 +1,297 @@
+package engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Opt-in timeline of the update thread for finding the frames that profiles average away.
+// Spans (Game.update, input, Scene.update and its phases, every component update) go into
+// a ring buffer allocated up front, overwriting the oldest once it is full, and can be
+// written out as a Chrome trace-event file for chrome://tracing or Perfetto. With a slow
+// frame threshold set, the trace is written on its own whenever a frame runs over: the
+// buffer is copied and the file written on a background thread, so the dump does not
+// stretch the frames after the slow one. Record and call writeChromeTrace from the update
+// thread (see Game.runOnUpdate).
+public class FrameTracer {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int MAX_DEPTH = 32;
+    private static final double DEFAULT_DUMP_SECONDS = 5;
+    
+    // "Name.update" per component class, without building the string on every update
+    private static final ClassValue<String> UPDATE_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName() + ".update";
+        }
+    };
+    
+    // Completed spans, oldest first from next once the buffer has wrapped
+    private final String[] names;
+    private final long[] starts;
+    private final long[] durations;
+    private final int[] depths;
+    private int next;
+    private int size;
+    
+    // Spans that have begun but not ended
+    private final String[] openNames = new String[MAX_DEPTH];
+    private final long[] openStarts = new long[MAX_DEPTH];
+    private int depth;
+    
+    private long slowFrameNanos;
+    private Path dumpDirectory;
+    private double dumpSeconds;
+    private long lastDump;
+    private long frameNumber;
+    private volatile int dumpCount;
+    
+    // The copy a slow frame dump is written from, allocated on the first dump and reused;
+    // a dump is skipped while the previous one is still being written
+    private String[] dumpNames;
+    private long[] dumpStarts;
+    private long[] dumpDurations;
+    private int[] dumpDepths;
+    private volatile boolean dumping;
+    private ExecutorService dumpWriter;
+    
+    public FrameTracer() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    // capacity is the number of spans kept
+    public FrameTracer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.names = new String[capacity];
+        this.starts = new long[capacity];
+        this.durations = new long[capacity];
+        this.depths = new int[capacity];
+        this.dumpSeconds = DEFAULT_DUMP_SECONDS;
+    }
+    
+    public int getCapacity() { return names.length; }
+    public int getSpanCount() { return size; }
+    public long getSlowFrameNanos() { return slowFrameNanos; }
+    public double getDumpSeconds() { return dumpSeconds; }
+    public int getDumpCount() { return dumpCount; }
+    
+    // Writes the last dumpSeconds of spans to directory/trace-<frame>.json after any frame
+    // longer than thresholdNanos; 0 turns it off. At most one file per dumpSeconds, so a
+    // run of slow frames does not write a file per frame.
+    public void setSlowFrameDump(long thresholdNanos, Path directory, double dumpSeconds) {
+        if (thresholdNanos < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        if (thresholdNanos > 0 && directory == null) {
+            throw new IllegalArgumentException("A directory is needed to write traces to");
+        }
+        if (dumpSeconds <= 0) {
+            throw new IllegalArgumentException("Dump length must be positive");
+        }
+        this.slowFrameNanos = thresholdNanos;
+        this.dumpDirectory = directory;
+        this.dumpSeconds = dumpSeconds;
+        // Started here rather than on the first slow frame, which would pay for it
+        if (thresholdNanos > 0 && dumpWriter == null) {
+            dumpWriter = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "FrameTracer dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    // Recording
+    
+    public void begin(String name) {
+        if (depth < MAX_DEPTH) {
+            openNames[depth] = name;
+            openStarts[depth] = System.nanoTime();
+        }
+        depth++;
+    }
+    
+    public void beginUpdate(Component component) {
+        begin(UPDATE_NAMES.get(component.getClass()));
+    }
+    
+    public void end() {
+        if (depth == 0) {
+            throw new IllegalStateException("end() without begin()");
+        }
+        depth--;
+        if (depth < MAX_DEPTH) {
+            long start = openStarts[depth];
+            record(openNames[depth], start, System.nanoTime() - start, depth);
+        }
+    }
+    
+    private void record(String name, long start, long duration, int spanDepth) {
+        names[next] = name;
+        starts[next] = start;
+        durations[next] = duration;
+        depths[next] = spanDepth;
+        next = (next + 1) % names.length;
+        size = Math.min(size + 1, names.length);
+    }
+    
+    // Called by Game after each frame's outermost span
+    void frameEnded(long frameNanos) {
+        frameNumber++;
+        if (slowFrameNanos <= 0 || frameNanos <= slowFrameNanos) return;
+        
+        long now = System.nanoTime();
+        if (lastDump != 0 && now - lastDump < (long) (dumpSeconds * 1e9)) return;
+        if (dumping) return;
+        
+        lastDump = now;
+        dumping = true;
+        int count = copyForDump();
+        dumpWriter.execute(new DumpTask(dumpDirectory, frameNumber, count, dumpSeconds));
+    }
+    
+    // Writes the dump arrays. A class rather than a lambda, and the file named here: the
+    // first lambda or string concatenation a JVM runs costs a hitch of its own.
+    private class DumpTask implements Runnable {
+        private final Path directory;
+        private final long frame;
+        private final int count;
+        private final double seconds;
+        
+        DumpTask(Path directory, long frame, int count, double seconds) {
+            this.directory = directory;
+            this.frame = frame;
+            this.count = count;
+            this.seconds = seconds;
+        }
+        
+        @Override
+        public void run() {
+            Path file = directory.resolve("trace-" + frame + ".json");
+            try {
+                Files.createDirectories(directory);
+                try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                    writeSpans(writer, dumpNames, dumpStarts, dumpDurations, dumpDepths, 0, count, seconds);
+                }
+                dumpCount++;
+            } catch (IOException e) {
+                System.err.println("Could not write frame trace " + file + ": " + e.getMessage());
+            } finally {
+                dumping = false;
+            }
+        }
+    }
+    
+    // Copies the buffer, oldest first, into the dump arrays and returns the span count
+    private int copyForDump() {
+        int capacity = names.length;
+        if (dumpNames == null) {
+            dumpNames = new String[capacity];
+            dumpStarts = new long[capacity];
+            dumpDurations = new long[capacity];
+            dumpDepths = new int[capacity];
+        }
+        int first = (next - size + capacity) % capacity;
+        int head = Math.min(size, capacity - first);
+        System.arraycopy(names, first, dumpNames, 0, head);
+        System.arraycopy(starts, first, dumpStarts, 0, head);
+        System.arraycopy(durations, first, dumpDurations, 0, head);
+        System.arraycopy(depths, first, dumpDepths, 0, head);
+        System.arraycopy(names, 0, dumpNames, head, size - head);
+        System.arraycopy(starts, 0, dumpStarts, head, size - head);
+        System.arraycopy(durations, 0, dumpDurations, head, size - head);
+        System.arraycopy(depths, 0, dumpDepths, head, size - head);
+        return size;
+    }
+    
+    public void clear() {
+        next = 0;
+        size = 0;
+        depth = 0;
+    }
+    
+    // Export
+    
+    // Writes every span in the buffer
+    public void writeChromeTrace(Path file) throws IOException {
+        writeChromeTrace(file, Double.POSITIVE_INFINITY);
+    }
+    
+    // Writes the spans that ended within the last seconds before the newest one
+    public void writeChromeTrace(Path file, double seconds) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writeChromeTrace(writer, seconds);
+        }
+    }
+    
+    public void writeChromeTrace(Writer writer, double seconds) throws IOException {
+        int first = (next - size + names.length) % names.length;
+        writeSpans(writer, names, starts, durations, depths, first, size, seconds);
+    }
+    
+    // Writes count spans of the given ring, oldest at first
+    private static void writeSpans(Writer writer, String[] names, long[] starts, long[] durations, int[] depths,
+                                   int first, int count, double seconds) throws IOException {
+        long newestEnd = Long.MIN_VALUE;
+        long origin = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % names.length;
+            newestEnd = Math.max(newestEnd, starts[slot] + durations[slot]);
+            origin = Math.min(origin, starts[slot]);
+        }
+        long cutoff = seconds == Double.POSITIVE_INFINITY ? Long.MIN_VALUE : newestEnd - (long) (seconds * 1e9);
+        
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"update\"}}");
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % names.length;
+            if (starts[slot] + durations[slot] < cutoff) continue;
+            
+            writer.write(",\n{\"name\":\"");
+            writeEscaped(writer, names[slot]);
+            writer.write("\",\"cat\":\"engine\",\"ph\":\"X\",\"ts\":");
+            writeMicros(writer, starts[slot] - origin);
+            writer.write(",\"dur\":");
+            writeMicros(writer, durations[slot]);
+            writer.write(",\"pid\":1,\"tid\":1,\"args\":{\"depth\":");
+            writer.write(Integer.toString(depths[slot]));
+            writer.write("}}");
+        }
+        writer.write("\n]}\n");
+    }
+    
+    // Nanoseconds as microseconds with three decimals, e.g. 1234567 as 1234.567
+    private static void writeMicros(Writer writer, long nanos) throws IOException {
+        if (nanos < 0) {
+            writer.write('-');
+            nanos = -nanos;
+        }
+        writer.write(Long.toString(nanos / 1000));
+        writer.write('.');
+        int fraction = (int) (nanos % 1000);
+        writer.write('0' + fraction / 100);
+        writer.write('0' + fraction / 10 % 10);
+        writer.write('0' + fraction % 10);
+    }
+    
+    private static void writeEscaped(Writer writer, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write("\\u00");
+                writer.write(Character.forDigit(c >> 4, 16));
+                writer.write(Character.forDigit(c & 0xf, 16));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+}
\ No newline at end of file
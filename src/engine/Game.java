@@ -2,16 +2,37 @@ package engine;
 
 import engine.collision.*;
 import engine.input.InputManager;
+import engine.jfr.FrameEvent;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Game {
     private String title;
     private List<Scene> scenes;
-    private Scene currentScene;
-    private boolean running;
+    // Read by other threads too (e.g. JMX)
+    private volatile Scene currentScene;
+    private volatile boolean running;
     private double targetFPS;
     private InputManager inputManager;
+    private FramePacer framePacer;
+    private FrameProfiler profiler;
+    private FrameTracer tracer;
+    private Queue<Runnable> pendingTasks;
+    
+    // Copies for other threads, which must not walk the lists the update thread changes: the
+    // scenes as of the last addScene or removeScene, the object count as of the last update
+    private volatile List<Scene> sceneSnapshot;
+    private volatile int gameObjectCountSnapshot;
+    
+    // Fixed-timestep mode: frame time is collected in the accumulator and the scene is
+    // stepped in whole fixed steps, so results do not depend on frame timing. A step of 0
+    // passes the frame time straight through instead.
+    private double fixedTimeStep;
+    private int maxStepsPerFrame;
+    private double accumulator;
+    private double interpolationAlpha;
     
     public Game(String title) {
         this.title = title;
@@ -19,6 +40,13 @@ public class Game {
         this.running = false;
         this.targetFPS = 60.0;
         this.inputManager = InputManager.getInstance();
+        this.framePacer = new FramePacer(targetFPS);
+        this.profiler = new FrameProfiler();
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+        this.sceneSnapshot = List.of();
+        this.fixedTimeStep = 0;
+        this.maxStepsPerFrame = 5;
+        this.interpolationAlpha = 1.0;
     }
     
     public String getTitle() { return title; }
@@ -26,14 +54,53 @@ public class Game {
     public Scene getCurrentScene() { return currentScene; }
     public boolean isRunning() { return running; }
     public double getTargetFPS() { return targetFPS; }
+    // Frame timing of gameLoop, including the measured tick jitter
+    public FramePacer getFramePacer() { return framePacer; }
+    // Per-phase timings and counters of recent frames
+    public FrameProfiler getProfiler() { return profiler; }
+    public FrameTracer getTracer() { return tracer; }
+    public List<Scene> getSceneSnapshot() { return sceneSnapshot; }
+    public int getGameObjectCountSnapshot() { return gameObjectCountSnapshot; }
+    
+    // Records a timeline of every frame into tracer; null (the default) turns tracing off
+    public void setTracer(FrameTracer tracer) { this.tracer = tracer; }
+    
+    public double getFixedTimeStep() { return fixedTimeStep; }
+    public int getMaxStepsPerFrame() { return maxStepsPerFrame; }
+    // How far the current frame is between the last two fixed steps, from 0 to 1; pass it
+    // to GameObject.getInterpolatedPosition when drawing. Always 1 without a fixed step.
+    public double getInterpolationAlpha() { return interpolationAlpha; }
     
-    public void setTargetFPS(double targetFPS) { this.targetFPS = targetFPS; }
+    public void setTargetFPS(double targetFPS) {
+        framePacer.setTargetFPS(targetFPS);
+        this.targetFPS = targetFPS;
+    }
+    
+    public void setFixedTimeStep(double fixedTimeStep) {
+        if (fixedTimeStep < 0) {
+            throw new IllegalArgumentException("Fixed time step must not be negative");
+        }
+        this.fixedTimeStep = fixedTimeStep;
+        this.accumulator = 0;
+        this.interpolationAlpha = 1.0;
+    }
+    
+    // Caps the steps taken to catch up after a slow frame (e.g. a GC pause); time beyond
+    // that is dropped, so the game slows down instead of taking one huge step
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("At least one step per frame is needed");
+        }
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
     
     public void addScene(Scene scene) {
         scenes.add(scene);
         if (currentScene == null) {
             currentScene = scene;
         }
+        publishSnapshots();
+        Engine.scenesChanged(this);
     }
     
     public void removeScene(Scene scene) {
@@ -41,6 +108,13 @@ public class Game {
         if (currentScene == scene) {
             currentScene = scenes.isEmpty() ? null : scenes.get(0);
         }
+        publishSnapshots();
+        Engine.scenesChanged(this);
+    }
+    
+    private void publishSnapshots() {
+        sceneSnapshot = List.copyOf(scenes);
+        gameObjectCountSnapshot = getTotalGameObjectCount();
     }
     
     public Scene getScene(String name) {
@@ -77,14 +151,78 @@ public class Game {
         System.out.println("Game '" + title + "' stopped!");
     }
     
+    // Runs task on the thread updating the game, before the next update; right away if the
+    // game is not running. For changes made from other threads, e.g. through JMX.
+    public void runOnUpdate(Runnable task) {
+        if (running) {
+            pendingTasks.add(task);
+        } else {
+            task.run();
+        }
+    }
+    
     public void update(double deltaTime) {
-        if (!running || currentScene == null) return;
+        if (!running) return;
+        
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+        if (currentScene == null) return;
+        
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        FrameTracer frameTracer = tracer;
+        if (frameTracer != null) frameTracer.begin("Game.update");
+        long start = System.nanoTime();
+        profiler.beginFrame();
         
         // Update input system
+        if (frameTracer != null) frameTracer.begin("InputManager.update");
         inputManager.update();
+        if (frameTracer != null) frameTracer.end();
+        profiler.addTime(FrameProfiler.Phase.INPUT, System.nanoTime() - start);
         
         // Update scene
-        currentScene.update(deltaTime);
+        int sceneUpdates = 1;
+        if (fixedTimeStep <= 0) {
+            currentScene.update(deltaTime, profiler, frameTracer);
+        } else {
+            sceneUpdates = stepFixed(deltaTime, frameTracer);
+        }
+        
+        long frameTime = System.nanoTime() - start;
+        profiler.addTime(FrameProfiler.Phase.FRAME, frameTime);
+        profiler.endFrame();
+        gameObjectCountSnapshot = getTotalGameObjectCount();
+        if (frameTracer != null) {
+            frameTracer.end();
+            frameTracer.frameEnded(frameTime);
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.frameNumber = profiler.getFrameCount();
+            event.scene = currentScene.getName();
+            event.sceneUpdates = sceneUpdates;
+            event.commit();
+        }
+    }
+    
+    // Returns the number of steps taken
+    private int stepFixed(double deltaTime, FrameTracer frameTracer) {
+        accumulator += deltaTime;
+        int steps = 0;
+        while (accumulator >= fixedTimeStep && steps < maxStepsPerFrame) {
+            currentScene.update(fixedTimeStep, profiler, frameTracer);
+            accumulator -= fixedTimeStep;
+            steps++;
+        }
+        if (accumulator >= fixedTimeStep) {
+            accumulator %= fixedTimeStep;
+        }
+        interpolationAlpha = accumulator / fixedTimeStep;
+        return steps;
     }
     
     public void gameLoop() {
@@ -92,8 +230,8 @@ public class Game {
             start();
         }
         
-        final long targetTime = (long) (1_000_000_000.0 / targetFPS);
         long lastTime = System.nanoTime();
+        framePacer.start();
         
         while (running) {
             long currentTime = System.nanoTime();
@@ -102,16 +240,8 @@ public class Game {
             
             update(deltaTime);
             
-            long elapsedTime = System.nanoTime() - currentTime;
-            long sleepTime = targetTime - elapsedTime;
-            
-            if (sleepTime > 0) {
-                try {
-                    Thread.sleep(sleepTime / 1_000_000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+            if (!framePacer.awaitNextFrame()) {
+                break;
             }
         }
     }
@@ -5,17 +5,37 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class GameObject {
+    // Whether a class overrides update, so Scene.update knows to call it
+    private static final ClassValue<Boolean> OVERRIDES_UPDATE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("update", double.class).getDeclaringClass() != GameObject.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+    
     private String id;
-    private Vector2D position;
-    private Vector2D velocity;
+    // Position and velocity live in the scene's TransformStore while the object is in a
+    // scene, and in the fields below while it is not
+    private TransformStore transforms;
+    private int slot;
+    private double x, y, velocityX, velocityY, previousX, previousY;
+    private final TransformVector position;
+    private final TransformVector velocity;
     private boolean active;
     private Geometry collider;
     private List<Component> components;
+    // Set while Scene.update runs an overriding update; the tracer to run the components with
+    private boolean sceneStep;
+    private FrameTracer sceneTracer;
     
     public GameObject(String id) {
         this.id = id;
-        this.position = new Vector2D(0, 0);
-        this.velocity = new Vector2D(0, 0);
+        this.position = new TransformVector(this, false);
+        this.velocity = new TransformVector(this, true);
         this.active = true;
         this.components = new ArrayList<>();
     }
@@ -26,21 +46,47 @@ public class GameObject {
     }
     
     public String getId() { return id; }
-    public Vector2D getPosition() { return position; }
-    public Vector2D getVelocity() { return velocity; }
+    // Live views that follow the object as it moves; copy them to keep a snapshot
+    public TransformVector getPosition() { return position; }
+    public TransformVector getVelocity() { return velocity; }
     public boolean isActive() { return active; }
+    // The collider follows the object by moving its own vectors in place (see
+    // Geometry.translateInPlace), so copy its center or vertices to keep them
     public Geometry getCollider() { return collider; }
     public List<Component> getComponents() { return new ArrayList<>(components); }
     
+    // Position at the start of the last update
+    public Vector2D getPreviousPosition() {
+        return new Vector2D(previousX(), previousY());
+    }
+    
+    // Position blended between the last two updates, for drawing between fixed steps;
+    // alpha is Game.getInterpolationAlpha()
+    public Vector2D getInterpolatedPosition(double alpha) {
+        double previousX = previousX();
+        double previousY = previousY();
+        return new Vector2D(previousX + (positionX() - previousX) * alpha,
+                            previousY + (positionY() - previousY) * alpha);
+    }
+    
     public void setPosition(Vector2D position) { 
-        this.position = position;
+        setPosition(position.getX(), position.getY());
+    }
+    
+    public void setPosition(double x, double y) {
+        storePosition(x, y);
         if (collider != null) {
             updateColliderPosition();
         }
     }
     
-    public void setVelocity(Vector2D velocity) { this.velocity = velocity; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setVelocity(Vector2D velocity) { this.velocity.set(velocity); }
+    public void setActive(boolean active) { 
+        this.active = active;
+        if (transforms != null) {
+            transforms.setActive(slot, active);
+        }
+    }
     public void setCollider(Geometry collider) { 
         this.collider = collider;
         updateColliderPosition();
@@ -70,21 +116,130 @@ public class GameObject {
         return getComponent(type) != null;
     }
     
+    // Runs the components, then moves the object by its velocity. Scene.update runs the
+    // components of every object first, then moves them all in one pass, so every component
+    // sees the positions as of the start of the update.
+    //
+    // Overriding update is deprecated; add behaviour with a Component. An override still
+    // runs in Scene.update's component pass, where super.update only runs the components
+    // and leaves the move to the scene.
     public void update(double deltaTime) {
         if (!active) return;
-        
-        for (Component component : components) {
-            component.update(deltaTime);
+        if (sceneStep) {
+            updateComponents(deltaTime, sceneTracer);
+            return;
         }
         
-        position = position.add(velocity.multiply(deltaTime));
+        if (transforms != null) {
+            transforms.savePosition(slot);
+        } else {
+            previousX = x;
+            previousY = y;
+        }
+        updateComponents(deltaTime);
+        if (transforms != null) {
+            transforms.integrate(slot, deltaTime);
+        } else {
+            x += velocityX * deltaTime;
+            y += velocityY * deltaTime;
+        }
         updateColliderPosition();
     }
     
-    private void updateColliderPosition() {
+    // The steps of update, for Scene to integrate all of its objects in one pass between them
+    
+    void updateInScene(double deltaTime, FrameTracer tracer) {
+        if (!OVERRIDES_UPDATE.get(getClass())) {
+            updateComponents(deltaTime, tracer);
+            return;
+        }
+        sceneStep = true;
+        sceneTracer = tracer;
+        try {
+            update(deltaTime);
+        } finally {
+            sceneStep = false;
+            sceneTracer = null;
+        }
+    }
+    
+    void updateComponents(double deltaTime) {
+        updateComponents(deltaTime, null);
+    }
+    
+    // Traces each component update as its own span when a tracer is given
+    void updateComponents(double deltaTime, FrameTracer tracer) {
+        if (!active) return;
+        
+        for (Component component : components) {
+            if (tracer != null) {
+                tracer.beginUpdate(component);
+                component.update(deltaTime);
+                tracer.end();
+            } else {
+                component.update(deltaTime);
+            }
+        }
+    }
+    
+    void updateColliderPosition() {
         if (collider != null) {
-            Vector2D centerOffset = position.subtract(collider.getCenter());
-            collider.translate(centerOffset);
+            double dx = positionX() - collider.getCenter().getX();
+            double dy = positionY() - collider.getCenter().getY();
+            if (dx != 0 || dy != 0) {
+                collider.translateInPlace(dx, dy);
+            }
+        }
+    }
+    
+    // Transform storage
+    
+    TransformStore getTransforms() { return transforms; }
+    
+    void setSlot(int slot) { this.slot = slot; }
+    
+    double positionX() { return transforms != null ? transforms.positionX(slot) : x; }
+    double positionY() { return transforms != null ? transforms.positionY(slot) : y; }
+    double velocityX() { return transforms != null ? transforms.velocityX(slot) : velocityX; }
+    double velocityY() { return transforms != null ? transforms.velocityY(slot) : velocityY; }
+    double previousX() { return transforms != null ? transforms.previousX(slot) : previousX; }
+    double previousY() { return transforms != null ? transforms.previousY(slot) : previousY; }
+    
+    void storePosition(double x, double y) {
+        if (transforms != null) {
+            transforms.setPosition(slot, x, y);
+        } else {
+            this.x = x;
+            this.y = y;
+        }
+    }
+    
+    void storeVelocity(double x, double y) {
+        if (transforms != null) {
+            transforms.setVelocity(slot, x, y);
+        } else {
+            velocityX = x;
+            velocityY = y;
+        }
+    }
+    
+    // Moves the object's position and velocity into another store, or back into the object
+    // itself when store is null
+    void moveTo(TransformStore store) {
+        if (store == transforms) return;
+        double px = positionX(), py = positionY();
+        double vx = velocityX(), vy = velocityY();
+        if (transforms != null) {
+            transforms.remove(slot);
+        }
+        transforms = store;
+        if (store != null) {
+            store.add(this, px, py, vx, vy, active);
+        } else {
+            x = previousX = px;
+            y = previousY = py;
+            velocityX = vx;
+            velocityY = vy;
         }
     }
     
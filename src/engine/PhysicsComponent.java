@@ -12,6 +12,10 @@ public class PhysicsComponent extends Component {
     private Vector2D gravity;
     private boolean isStatic;
     
+    // Scratch vectors so updates and collision responses do not allocate
+    private final Vector2D normal = new Vector2D();
+    private final Vector2D relativeVelocity = new Vector2D();
+    
     public PhysicsComponent() {
         this.mass = 1.0;
         this.friction = 0.1;
@@ -39,18 +43,16 @@ public class PhysicsComponent extends Component {
     public void update(double deltaTime) {
         if (gameObject == null || isStatic) return;
         
-        Vector2D currentVelocity = gameObject.getVelocity();
+        // The object's velocity is updated in place
+        TransformVector currentVelocity = gameObject.getVelocity();
         
         if (useGravity) {
-            Vector2D gravityForce = gravity.multiply(mass);
-            Vector2D acceleration = gravityForce.multiply(1.0 / mass);
-            currentVelocity = currentVelocity.add(acceleration.multiply(deltaTime));
+            // Gravity force is gravity * mass, so the acceleration is gravity itself
+            currentVelocity.scaleAddLocal(gravity, deltaTime);
         }
         
-        Vector2D frictionForce = currentVelocity.multiply(-friction);
-        currentVelocity = currentVelocity.add(frictionForce.multiply(deltaTime));
-        
-        gameObject.setVelocity(currentVelocity);
+        // Friction force is -friction * velocity
+        currentVelocity.multiplyLocal(1 - friction * deltaTime);
     }
     
     public void updateCollisions(Scene scene) {
@@ -73,19 +75,22 @@ public class PhysicsComponent extends Component {
         
         Vector2D penetration = collision.getPenetrationVector();
         if (penetration != null && (penetration.getX() != 0 || penetration.getY() != 0)) {
-            gameObject.setPosition(gameObject.getPosition().add(penetration));
+            TransformVector position = gameObject.getPosition();
+            gameObject.setPosition(position.getX() + penetration.getX(), position.getY() + penetration.getY());
         }
         
+        // The result's vector is shared, so normalize a copy
+        normal.set(collision.getPenetrationVector()).normalizeLocal();
+        
         if (otherPhysics == null || otherPhysics.isStatic()) {
-            Vector2D velocity = gameObject.getVelocity();
-            Vector2D normal = collision.getPenetrationVector().normalize();
+            TransformVector velocity = gameObject.getVelocity();
             
             double dotProduct = velocity.dot(normal);
-            Vector2D reflection = normal.multiply(-2 * dotProduct * restitution);
-            gameObject.setVelocity(velocity.add(reflection));
+            velocity.scaleAddLocal(normal, -2 * dotProduct * restitution);
         } else {
-            Vector2D relativeVelocity = gameObject.getVelocity().subtract(other.getVelocity());
-            Vector2D normal = collision.getPenetrationVector().normalize();
+            TransformVector velocity = gameObject.getVelocity();
+            TransformVector otherVelocity = other.getVelocity();
+            relativeVelocity.set(velocity.getX() - otherVelocity.getX(), velocity.getY() - otherVelocity.getY());
             double velocityAlongNormal = relativeVelocity.dot(normal);
             
             if (velocityAlongNormal > 0) return;
@@ -94,11 +99,11 @@ public class PhysicsComponent extends Component {
             double j = -(1 + e) * velocityAlongNormal;
             j /= 1/mass + 1/otherPhysics.getMass();
             
-            Vector2D impulse = normal.multiply(j);
-            gameObject.setVelocity(gameObject.getVelocity().add(impulse.multiply(1/mass)));
+            // Impulse is normal * j
+            gameObject.getVelocity().scaleAddLocal(normal, j / mass);
             
             if (!otherPhysics.isStatic()) {
-                other.setVelocity(other.getVelocity().subtract(impulse.multiply(1/otherPhysics.getMass())));
+                other.getVelocity().scaleAddLocal(normal, -j / otherPhysics.getMass());
             }
         }
     }
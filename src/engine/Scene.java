@@ -1,6 +1,7 @@
 package engine;
 
 import engine.collision.*;
+import engine.jfr.SceneUpdateEvent;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,24 +9,36 @@ public class Scene {
     private String name;
     private List<GameObject> gameObjects;
     private CollisionManager collisionManager;
+    private TransformStore transforms;
     private boolean active;
+    // Collision tests made by getCollisionsWith during the current update, for the profiler
+    private long pairsTested;
+    private long collisionsFound;
     
     public Scene(String name) {
+        this(name, Precision.DOUBLE);
+    }
+    
+    // Precision.FLOAT stores the positions and velocities of the scene's objects as floats
+    public Scene(String name, Precision precision) {
         this.name = name;
         this.gameObjects = new ArrayList<>();
         this.collisionManager = new CollisionManager(CollisionManager.SpatialIndexingMethod.QUADTREE);
+        this.transforms = new TransformStore(precision);
         this.active = true;
     }
     
     public String getName() { return name; }
     public List<GameObject> getGameObjects() { return new ArrayList<>(gameObjects); }
     public CollisionManager getCollisionManager() { return collisionManager; }
+    public TransformStore getTransforms() { return transforms; }
     public boolean isActive() { return active; }
     
     public void setActive(boolean active) { this.active = active; }
     
     public void addGameObject(GameObject gameObject) {
         gameObjects.add(gameObject);
+        gameObject.moveTo(transforms);
         if (gameObject.getCollider() != null) {
             collisionManager.addObject(gameObject.getCollider());
         }
@@ -33,11 +46,19 @@ public class Scene {
     
     public void removeGameObject(GameObject gameObject) {
         gameObjects.remove(gameObject);
+        detach(gameObject);
         if (gameObject.getCollider() != null) {
             collisionManager.removeObject(gameObject.getCollider());
         }
     }
     
+    // Moves the position and velocity of an object leaving the scene back into the object
+    private void detach(GameObject gameObject) {
+        if (gameObject.getTransforms() == transforms) {
+            gameObject.moveTo(null);
+        }
+    }
+    
     public GameObject findGameObjectById(String id) {
         for (GameObject gameObject : gameObjects) {
             if (gameObject.getId().equals(id)) {
@@ -65,18 +86,56 @@ public class Scene {
     public List<GameObject> getCollisionsWith(GameObject gameObject) {
         List<GameObject> collidingObjects = new ArrayList<>();
         for (GameObject other : gameObjects) {
-            if (other != gameObject && gameObject.collidesWith(other)) {
-                collidingObjects.add(other);
+            if (other != gameObject) {
+                pairsTested++;
+                if (gameObject.collidesWith(other)) {
+                    collidingObjects.add(other);
+                }
             }
         }
+        collisionsFound += collidingObjects.size();
         return collidingObjects;
     }
     
     public void update(double deltaTime) {
+        update(deltaTime, null, null);
+    }
+    
+    // Records the time of each phase and the collision counts into profiler, and a span per
+    // phase and per component update into tracer, for those that are given
+    void update(double deltaTime, FrameProfiler profiler, FrameTracer tracer) {
         if (!active) return;
         
+        SceneUpdateEvent event = new SceneUpdateEvent();
+        event.begin();
+        if (tracer != null) {
+            tracer.begin("Scene.update");
+            tracer.begin("Components");
+        }
+        long start = System.nanoTime();
+        pairsTested = 0;
+        collisionsFound = 0;
+        
+        // Same steps as GameObject.update, but every object's components run before any of
+        // them moves, and the positions are integrated together in one pass over the store
+        transforms.savePositions();
+        for (GameObject gameObject : gameObjects) {
+            gameObject.updateInScene(deltaTime, tracer);
+        }
+        long componentsEnd = System.nanoTime();
+        if (tracer != null) {
+            tracer.end();
+            tracer.begin("Integration");
+        }
+        
+        transforms.integrate(deltaTime);
         for (GameObject gameObject : gameObjects) {
-            gameObject.update(deltaTime);
+            gameObject.updateColliderPosition();
+        }
+        long integrationEnd = System.nanoTime();
+        if (tracer != null) {
+            tracer.end();
+            tracer.begin("Collisions");
         }
         
         for (GameObject gameObject : gameObjects) {
@@ -85,9 +144,35 @@ public class Scene {
                 physics.updateCollisions(this);
             }
         }
+        long end = System.nanoTime();
+        if (tracer != null) {
+            tracer.end();
+            tracer.end();
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.scene = name;
+            event.objectCount = gameObjects.size();
+            event.pairsTested = pairsTested;
+            event.collisionsFound = collisionsFound;
+            event.commit();
+        }
+        if (profiler != null) {
+            profiler.addTime(FrameProfiler.Phase.COMPONENTS, componentsEnd - start);
+            profiler.addTime(FrameProfiler.Phase.INTEGRATION, integrationEnd - componentsEnd);
+            profiler.addTime(FrameProfiler.Phase.COLLISIONS, end - integrationEnd);
+            profiler.addTime(FrameProfiler.Phase.SCENE, end - start);
+            profiler.count(FrameProfiler.Counter.OBJECTS_UPDATED, transforms.getActiveCount());
+            profiler.count(FrameProfiler.Counter.PAIRS_TESTED, pairsTested);
+            profiler.count(FrameProfiler.Counter.COLLISIONS_FOUND, collisionsFound);
+        }
     }
     
     public void clear() {
+        for (GameObject gameObject : gameObjects) {
+            detach(gameObject);
+        }
         gameObjects.clear();
         collisionManager.clear();
     }
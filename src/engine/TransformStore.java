@@ -0,0 +1,185 @@
+package engine;
+
+import engine.collision.BatchKernels;
+import engine.collision.NumericColumn;
+import engine.collision.Precision;
+import java.util.Arrays;
+
+// Positions and velocities of game objects kept in parallel columns indexed by slot, so
+// integrating a whole scene is one linear pass over primitive arrays. Active objects are
+// packed into the first getActiveCount() slots and removal moves another slot into the
+// hole, so that pass has no gaps and no branches. Slots change as objects come and go;
+// each GameObject tracks its own.
+public class TransformStore {
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private final NumericColumn positionX;
+    private final NumericColumn positionY;
+    private final NumericColumn velocityX;
+    private final NumericColumn velocityY;
+    // Positions as of the start of the last update, for render interpolation
+    private final NumericColumn previousX;
+    private final NumericColumn previousY;
+    private GameObject[] owners;
+    private int count;
+    private int activeCount;
+    
+    public TransformStore() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public TransformStore(Precision precision) {
+        this(DEFAULT_CAPACITY, precision);
+    }
+    
+    public TransformStore(int capacity) {
+        this(capacity, Precision.DOUBLE);
+    }
+    
+    // Precision.FLOAT halves the store's footprint; values are rounded as they are written
+    public TransformStore(int capacity, Precision precision) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        positionX = new NumericColumn(precision, capacity);
+        positionY = new NumericColumn(precision, capacity);
+        velocityX = new NumericColumn(precision, capacity);
+        velocityY = new NumericColumn(precision, capacity);
+        previousX = new NumericColumn(precision, capacity);
+        previousY = new NumericColumn(precision, capacity);
+        owners = new GameObject[capacity];
+    }
+    
+    public int size() { return count; }
+    public int getActiveCount() { return activeCount; }
+    
+    public Precision getPrecision() { return positionX.getPrecision(); }
+    
+    // The columns, for systems that process every object at once. Only the first size()
+    // entries are in use.
+    public NumericColumn getPositionX() { return positionX; }
+    public NumericColumn getPositionY() { return positionY; }
+    public NumericColumn getVelocityX() { return velocityX; }
+    public NumericColumn getVelocityY() { return velocityY; }
+    
+    public GameObject getOwner(int slot) {
+        return owners[slot];
+    }
+    
+    // Per-slot access for GameObject's views
+    
+    double positionX(int slot) { return positionX.get(slot); }
+    double positionY(int slot) { return positionY.get(slot); }
+    double velocityX(int slot) { return velocityX.get(slot); }
+    double velocityY(int slot) { return velocityY.get(slot); }
+    
+    void setPosition(int slot, double x, double y) {
+        positionX.set(slot, x);
+        positionY.set(slot, y);
+    }
+    
+    void setVelocity(int slot, double x, double y) {
+        velocityX.set(slot, x);
+        velocityY.set(slot, y);
+    }
+    
+    double previousX(int slot) { return previousX.get(slot); }
+    double previousY(int slot) { return previousY.get(slot); }
+    
+    // Membership
+    
+    // Appends the object; its slot is kept up to date through GameObject.setSlot
+    void add(GameObject owner, double px, double py, double vx, double vy, boolean active) {
+        if (count == owners.length) {
+            grow();
+        }
+        int slot = count++;
+        setPosition(slot, px, py);
+        setVelocity(slot, vx, vy);
+        previousX.set(slot, px);
+        previousY.set(slot, py);
+        owners[slot] = owner;
+        owner.setSlot(slot);
+        if (active) {
+            setActive(slot, true);
+        }
+    }
+    
+    void remove(int slot) {
+        if (slot < activeCount) {
+            slot = setActive(slot, false);
+        }
+        count--;
+        swap(slot, count);
+        owners[count] = null;
+    }
+    
+    // Moves the slot across the active boundary when needed and returns where it ended up
+    int setActive(int slot, boolean active) {
+        if (active && slot >= activeCount) {
+            swap(slot, activeCount);
+            return activeCount++;
+        }
+        if (!active && slot < activeCount) {
+            activeCount--;
+            swap(slot, activeCount);
+            return activeCount;
+        }
+        return slot;
+    }
+    
+    private void swap(int a, int b) {
+        if (a == b) return;
+        positionX.swap(a, b);
+        positionY.swap(a, b);
+        velocityX.swap(a, b);
+        velocityY.swap(a, b);
+        previousX.swap(a, b);
+        previousY.swap(a, b);
+        GameObject owner = owners[a];
+        owners[a] = owners[b];
+        owners[b] = owner;
+        owners[a].setSlot(a);
+        owners[b].setSlot(b);
+    }
+    
+    private void grow() {
+        int capacity = owners.length * 2;
+        positionX.grow(capacity);
+        positionY.grow(capacity);
+        velocityX.grow(capacity);
+        velocityY.grow(capacity);
+        previousX.grow(capacity);
+        previousY.grow(capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+    
+    // Integration
+    
+    // Remembers the current positions as the previous ones; called at the start of each update
+    public void savePositions() {
+        previousX.copyFrom(positionX, count);
+        previousY.copyFrom(positionY, count);
+    }
+    
+    void savePosition(int slot) {
+        previousX.set(slot, positionX.get(slot));
+        previousY.set(slot, positionY.get(slot));
+    }
+    
+    // Moves every active object by its velocity, with SIMD when it is available
+    public void integrate(double deltaTime) {
+        if (getPrecision() == Precision.FLOAT) {
+            BatchKernels.get().integrate(positionX.floats(), positionY.floats(), velocityX.floats(), velocityY.floats(),
+                                         activeCount, deltaTime);
+        } else {
+            BatchKernels.get().integrate(positionX.doubles(), positionY.doubles(), velocityX.doubles(), velocityY.doubles(),
+                                         activeCount, deltaTime);
+        }
+    }
+    
+    void integrate(int slot, double deltaTime) {
+        setPosition(slot, positionX.get(slot) + velocityX.get(slot) * deltaTime,
+                    positionY.get(slot) + velocityY.get(slot) * deltaTime);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package engine;
+
+import engine.collision.Vector2D;
+
+// A game object's position or velocity, read and written wherever the object keeps them: its
+// scene's TransformStore, or the object itself outside a scene. It follows the object as it
+// moves and is updated in place like Vector2D's *Local methods; toVector takes a snapshot.
+public final class TransformVector {
+    private final GameObject owner;
+    private final boolean velocity;
+    
+    TransformVector(GameObject owner, boolean velocity) {
+        this.owner = owner;
+        this.velocity = velocity;
+    }
+    
+    public double getX() { return velocity ? owner.velocityX() : owner.positionX(); }
+    public double getY() { return velocity ? owner.velocityY() : owner.positionY(); }
+    
+    public void setX(double x) { set(x, getY()); }
+    public void setY(double y) { set(getX(), y); }
+    
+    // In-place operations, returning this for chaining
+    
+    public TransformVector set(double x, double y) {
+        if (velocity) {
+            owner.storeVelocity(x, y);
+        } else {
+            owner.storePosition(x, y);
+        }
+        return this;
+    }
+    
+    public TransformVector set(Vector2D other) {
+        return set(other.getX(), other.getY());
+    }
+    
+    public TransformVector addLocal(Vector2D other) {
+        return set(getX() + other.getX(), getY() + other.getY());
+    }
+    
+    public TransformVector subtractLocal(Vector2D other) {
+        return set(getX() - other.getX(), getY() - other.getY());
+    }
+    
+    public TransformVector multiplyLocal(double scalar) {
+        return set(getX() * scalar, getY() * scalar);
+    }
+    
+    // this += other * scalar
+    public TransformVector scaleAddLocal(Vector2D other, double scalar) {
+        return set(getX() + other.getX() * scalar, getY() + other.getY() * scalar);
+    }
+    
+    public TransformVector normalizeLocal() {
+        double mag = magnitude();
+        if (mag == 0) return set(0, 0);
+        return set(getX() / mag, getY() / mag);
+    }
+    
+    // Operations returning a new Vector2D
+    
+    public Vector2D toVector() {
+        return new Vector2D(getX(), getY());
+    }
+    
+    public Vector2D add(Vector2D other) {
+        return new Vector2D(getX() + other.getX(), getY() + other.getY());
+    }
+    
+    public Vector2D subtract(Vector2D other) {
+        return new Vector2D(getX() - other.getX(), getY() - other.getY());
+    }
+    
+    public Vector2D multiply(double scalar) {
+        return new Vector2D(getX() * scalar, getY() * scalar);
+    }
+    
+    public double dot(Vector2D other) {
+        return getX() * other.getX() + getY() * other.getY();
+    }
+    
+    public double magnitude() {
+        double x = getX();
+        double y = getY();
+        return Math.sqrt(x * x + y * y);
+    }
+    
+    public double distanceTo(Vector2D other) {
+        double dx = getX() - other.getX();
+        double dy = getY() - other.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    // Equal to a Vector2D or TransformVector with the same coordinates, compared as
+    // Vector2D.equals compares them. Vector2D.equals does not know this class, so compare
+    // from this side (or through toVector). The hash follows the coordinates as the object
+    // moves, so these make poor map keys.
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        double x, y;
+        if (obj instanceof Vector2D) {
+            x = ((Vector2D) obj).getX();
+            y = ((Vector2D) obj).getY();
+        } else if (obj instanceof TransformVector) {
+            x = ((TransformVector) obj).getX();
+            y = ((TransformVector) obj).getY();
+        } else {
+            return false;
+        }
+        return Double.compare(x, getX()) == 0 && Double.compare(y, getY()) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(getX()) + Double.hashCode(getY());
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("(%.2f, %.2f)", getX(), getY());
+    }
+}
\ No newline at end of file
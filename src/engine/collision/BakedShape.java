@@ -0,0 +1,39 @@
+package engine.collision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BakedShape {
+    private List<Polygon> pieces;
+    private double tolerance;
+    private double errorBound;
+    
+    BakedShape(List<Polygon> pieces, double tolerance, double errorBound) {
+        this.pieces = pieces;
+        this.tolerance = tolerance;
+        this.errorBound = errorBound;
+    }
+    
+    public List<Polygon> getPieces() { return new ArrayList<>(pieces); }
+    public int getPieceCount() { return pieces.size(); }
+    public double getTolerance() { return tolerance; }
+    
+    // Upper bound on how far the baked outline strays from the source outline
+    public double getErrorBound() { return errorBound; }
+    
+    public int getVertexCount() {
+        int count = 0;
+        for (Polygon piece : pieces) {
+            count += piece.getVertices().length;
+        }
+        return count;
+    }
+    
+    public CompositeShape toCompositeShape() {
+        CompositeShape composite = new CompositeShape(true);
+        for (Polygon piece : pieces) {
+            composite.addShape(piece);
+        }
+        return composite;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package engine.collision;
+
+// Loops over primitive columns for large batches of objects: integration, and one box or
+// circle against many for ColliderArena, for double and float columns. get() returns a SIMD
+// implementation (src-simd/, built on jdk.incubator.vector) when it has been compiled and
+// the JVM runs with --add-modules jdk.incubator.vector, and these scalar loops otherwise.
+// Both give identical results.
+public class BatchKernels {
+    private static final BatchKernels INSTANCE = load();
+    
+    BatchKernels() {
+    }
+    
+    public static BatchKernels get() {
+        return INSTANCE;
+    }
+    
+    // -Dengine.simd=false keeps the scalar loops, e.g. to compare the two
+    private static BatchKernels load() {
+        if (!"false".equals(System.getProperty("engine.simd"))) {
+            try {
+                return (BatchKernels) Class.forName("engine.collision.VectorBatchKernels")
+                                           .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Vector API not available
+            }
+        }
+        return new BatchKernels();
+    }
+    
+    public boolean isVectorized() {
+        return false;
+    }
+    
+    // position += velocity * deltaTime for the first count entries
+    public void integrate(double[] positionX, double[] positionY, double[] velocityX, double[] velocityY,
+                          int count, double deltaTime) {
+        integrate(positionX, positionY, velocityX, velocityY, 0, count, deltaTime);
+    }
+    
+    final void integrate(double[] positionX, double[] positionY, double[] velocityX, double[] velocityY,
+                         int from, int to, double deltaTime) {
+        for (int i = from; i < to; i++) {
+            positionX[i] += velocityX[i] * deltaTime;
+            positionY[i] += velocityY[i] * deltaTime;
+        }
+    }
+    
+    // Indices below count of the circles overlapping (or touching) the circle (x, y, r).
+    // Returns the number of hits; only the first results.length are written.
+    public int overlapCircles(double[] centerX, double[] centerY, double[] radius, int count,
+                              double x, double y, double r, int[] results) {
+        return overlapCircles(centerX, centerY, radius, 0, count, x, y, r, 0, results);
+    }
+    
+    final int overlapCircles(double[] centerX, double[] centerY, double[] radius, int from, int to,
+                             double x, double y, double r, int hits, int[] results) {
+        for (int i = from; i < to; i++) {
+            double dx = x - centerX[i];
+            double dy = y - centerY[i];
+            double reach = r + radius[i];
+            if (dx * dx + dy * dy <= reach * reach) {
+                hits = record(i, hits, results);
+            }
+        }
+        return hits;
+    }
+    
+    // Indices below count of the boxes overlapping (or touching) the query box, counted like
+    // overlapCircles
+    public int overlapBoxes(double[] minX, double[] minY, double[] maxX, double[] maxY, int count,
+                            double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        return overlapBoxes(minX, minY, maxX, maxY, 0, count, qMinX, qMinY, qMaxX, qMaxY, 0, results);
+    }
+    
+    final int overlapBoxes(double[] minX, double[] minY, double[] maxX, double[] maxY, int from, int to,
+                           double qMinX, double qMinY, double qMaxX, double qMaxY, int hits, int[] results) {
+        for (int i = from; i < to; i++) {
+            if (minX[i] <= qMaxX && maxX[i] >= qMinX && minY[i] <= qMaxY && maxY[i] >= qMinY) {
+                hits = record(i, hits, results);
+            }
+        }
+        return hits;
+    }
+    
+    // Float columns (Precision.FLOAT). Integration and the box test are done in float, with
+    // the query box rounded outwards like the bounds stored in float columns. The circle test
+    // widens the columns to double, so it gives exactly the answer of a double test on the
+    // stored values.
+    
+    public void integrate(float[] positionX, float[] positionY, float[] velocityX, float[] velocityY,
+                          int count, double deltaTime) {
+        integrate(positionX, positionY, velocityX, velocityY, 0, count, (float) deltaTime);
+    }
+    
+    final void integrate(float[] positionX, float[] positionY, float[] velocityX, float[] velocityY,
+                         int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            positionX[i] += velocityX[i] * deltaTime;
+            positionY[i] += velocityY[i] * deltaTime;
+        }
+    }
+    
+    public int overlapCircles(float[] centerX, float[] centerY, float[] radius, int count,
+                              double x, double y, double r, int[] results) {
+        return overlapCircles(centerX, centerY, radius, 0, count, x, y, r, 0, results);
+    }
+    
+    final int overlapCircles(float[] centerX, float[] centerY, float[] radius, int from, int to,
+                             double x, double y, double r, int hits, int[] results) {
+        for (int i = from; i < to; i++) {
+            double dx = x - centerX[i];
+            double dy = y - centerY[i];
+            double reach = r + radius[i];
+            if (dx * dx + dy * dy <= reach * reach) {
+                hits = record(i, hits, results);
+            }
+        }
+        return hits;
+    }
+    
+    public int overlapBoxes(float[] minX, float[] minY, float[] maxX, float[] maxY, int count,
+                            double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        float x0 = NumericColumn.roundDown(qMinX), y0 = NumericColumn.roundDown(qMinY);
+        float x1 = NumericColumn.roundUp(qMaxX), y1 = NumericColumn.roundUp(qMaxY);
+        return overlapBoxes(minX, minY, maxX, maxY, 0, count, x0, y0, x1, y1, 0, results);
+    }
+    
+    final int overlapBoxes(float[] minX, float[] minY, float[] maxX, float[] maxY, int from, int to,
+                           float qMinX, float qMinY, float qMaxX, float qMaxY, int hits, int[] results) {
+        for (int i = from; i < to; i++) {
+            if (minX[i] <= qMaxX && maxX[i] >= qMinX && minY[i] <= qMaxY && maxY[i] >= qMinY) {
+                hits = record(i, hits, results);
+            }
+        }
+        return hits;
+    }
+    
+    static int record(int index, int hits, int[] results) {
+        if (hits < results.length) {
+            results[hits] = index;
+        }
+        return hits + 1;
+    }
+}
\ No newline at end of file
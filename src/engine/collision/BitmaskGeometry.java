@@ -0,0 +1,309 @@
+package engine.collision;
+
+// Pixel-accurate collider. Each row of the mask is packed into 64-bit words, so two masks
+// are compared a word at a time with shifts and ANDs, and containment is one bit lookup.
+// Pixel (column, row) covers the square of side pixelSize at origin + (column, row) * pixelSize.
+public class BitmaskGeometry implements Geometry {
+    // Mask offsets this close to a whole number of pixels count as aligned, so rounding in
+    // the origins does not make masks that only touch overlap
+    private static final double GRID_TOLERANCE = 1e-9;
+    
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+    private final double pixelSize;
+    private Vector2D origin;
+    
+    // Occupied pixel range, recomputed lazily after edits
+    private boolean occupancyDirty;
+    private int minColumn;
+    private int minRow;
+    private int maxColumn;
+    private int maxRow;
+    
+    public BitmaskGeometry(Vector2D origin, int width, int height, double pixelSize) {
+        if (width <= 0 || height <= 0 || pixelSize <= 0) {
+            throw new IllegalArgumentException("Bitmask size and pixel size must be positive");
+        }
+        this.origin = origin;
+        this.width = width;
+        this.height = height;
+        this.pixelSize = pixelSize;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+        this.occupancyDirty = true;
+    }
+    
+    // mask[row][column]; rows must all have the same length
+    public BitmaskGeometry(Vector2D origin, boolean[][] mask, double pixelSize) {
+        this(origin, mask.length == 0 ? 0 : mask[0].length, mask.length, pixelSize);
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                if (mask[row][column]) {
+                    bits[row * wordsPerRow + (column >>> 6)] |= 1L << column;
+                }
+            }
+        }
+    }
+    
+    // Rasterizes a shape by testing each pixel center
+    public static BitmaskGeometry fromGeometry(Geometry source, double pixelSize) {
+        BoundingBox bounds = source.getBoundingBox();
+        int width = Math.max(1, (int) Math.ceil(bounds.getWidth() / pixelSize));
+        int height = Math.max(1, (int) Math.ceil(bounds.getHeight() / pixelSize));
+        BitmaskGeometry mask = new BitmaskGeometry(new Vector2D(bounds.getMinX(), bounds.getMinY()), width, height, pixelSize);
+        
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                Vector2D center = new Vector2D(bounds.getMinX() + (column + 0.5) * pixelSize,
+                                               bounds.getMinY() + (row + 0.5) * pixelSize);
+                if (source.containsPoint(center)) {
+                    mask.setPixel(column, row, true);
+                }
+            }
+        }
+        return mask;
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public double getPixelSize() { return pixelSize; }
+    public Vector2D getOrigin() { return origin; }
+    
+    public boolean isSet(int column, int row) {
+        if (column < 0 || row < 0 || column >= width || row >= height) return false;
+        return (bits[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+    }
+    
+    public void setPixel(int column, int row, boolean solid) {
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            throw new IllegalArgumentException("Pixel out of range: " + column + ", " + row);
+        }
+        int index = row * wordsPerRow + (column >>> 6);
+        if (solid) {
+            bits[index] |= 1L << column;
+        } else {
+            bits[index] &= ~(1L << column);
+        }
+        occupancyDirty = true;
+    }
+    
+    public int getPixelCount() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    private void updateOccupancy() {
+        if (!occupancyDirty) return;
+        
+        minColumn = width;
+        minRow = height;
+        maxColumn = -1;
+        maxRow = -1;
+        for (int row = 0; row < height; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = bits[row * wordsPerRow + w];
+                if (word == 0) continue;
+                minRow = Math.min(minRow, row);
+                maxRow = row;
+                minColumn = Math.min(minColumn, (w << 6) + Long.numberOfTrailingZeros(word));
+                maxColumn = Math.max(maxColumn, (w << 6) + 63 - Long.numberOfLeadingZeros(word));
+            }
+        }
+        occupancyDirty = false;
+    }
+    
+    // 64 bits of a row starting at an arbitrary column; columns outside the mask read as empty
+    private long extract(int row, int column) {
+        if (row < 0 || row >= height) return 0;
+        int word = Math.floorDiv(column, 64);
+        int shift = Math.floorMod(column, 64);
+        long low = word(row, word) >>> shift;
+        if (shift == 0) return low;
+        return low | (word(row, word + 1) << (64 - shift));
+    }
+    
+    private long word(int row, int index) {
+        return index < 0 || index >= wordsPerRow ? 0 : bits[row * wordsPerRow + index];
+    }
+    
+    // True if any pixel in [firstColumn, lastColumn] of the row is set
+    private boolean anyInSpan(int row, int firstColumn, int lastColumn) {
+        int base = row * wordsPerRow;
+        for (int w = firstColumn >>> 6; w <= lastColumn >>> 6; w++) {
+            int low = Math.max(firstColumn, w << 6) - (w << 6);
+            int high = Math.min(lastColumn, (w << 6) + 63) - (w << 6);
+            long span = (-1L >>> (63 - high)) & (-1L << low);
+            if ((bits[base + w] & span) != 0) return true;
+        }
+        return false;
+    }
+    
+    private int columnAt(double x) {
+        return (int) Math.floor((x - origin.getX()) / pixelSize);
+    }
+    
+    private int rowAt(double y) {
+        return (int) Math.floor((y - origin.getY()) / pixelSize);
+    }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (!getBoundingBox().intersects(other.getBoundingBox())) return false;
+        
+        switch (other.getType()) {
+            case BITMASK:
+                return intersectsMask((BitmaskGeometry) other);
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) other;
+                return intersectsBox(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            case CIRCLE:
+                return intersectsCircle((Circle) other);
+            case LINE:
+                Line line = (Line) other;
+                return GridTraversal.traceSegment(origin.getX(), origin.getY(), pixelSize, width, height,
+                    line.getStart().getX(), line.getStart().getY(), line.getEnd().getX(), line.getEnd().getY(),
+                    this::isSet, null) >= 0;
+            default:
+                return intersectsPixels(other);
+        }
+    }
+    
+    private boolean intersectsMask(BitmaskGeometry other) {
+        if (other.pixelSize != pixelSize) return intersectsPixels(other);
+        updateOccupancy();
+        other.updateOccupancy();
+        
+        // Other's pixel (c, r) lands on our pixel (c + dx, r + dy). Off our pixel grid it also
+        // straddles the next column (spillX) or row (spillY), which are tested with it.
+        double offsetX = (other.origin.getX() - origin.getX()) / pixelSize;
+        double offsetY = (other.origin.getY() - origin.getY()) / pixelSize;
+        int dx = (int) Math.floor(offsetX + GRID_TOLERANCE);
+        int dy = (int) Math.floor(offsetY + GRID_TOLERANCE);
+        boolean spillX = offsetX - dx > GRID_TOLERANCE;
+        boolean spillY = offsetY - dy > GRID_TOLERANCE;
+        int firstRow = Math.max(minRow, other.minRow + dy);
+        int lastRow = Math.min(maxRow, other.maxRow + dy + (spillY ? 1 : 0));
+        int firstColumn = Math.max(minColumn, other.minColumn + dx);
+        int lastColumn = Math.min(maxColumn, other.maxColumn + dx + (spillX ? 1 : 0));
+        if (firstRow > lastRow || firstColumn > lastColumn) return false;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int base = row * wordsPerRow;
+            for (int w = firstColumn >>> 6; w <= lastColumn >>> 6; w++) {
+                long mine = bits[base + w];
+                if (mine == 0) continue;
+                
+                int column = (w << 6) - dx;
+                long theirs = other.extract(row - dy, column);
+                if (spillX) theirs |= other.extract(row - dy, column - 1);
+                if (spillY) {
+                    theirs |= other.extract(row - dy - 1, column);
+                    if (spillX) theirs |= other.extract(row - dy - 1, column - 1);
+                }
+                if ((mine & theirs) != 0) return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean intersectsBox(double left, double top, double right, double bottom) {
+        int firstColumn = Math.max(0, columnAt(left));
+        int lastColumn = Math.min(width - 1, columnAt(right));
+        int firstRow = Math.max(0, rowAt(top));
+        int lastRow = Math.min(height - 1, rowAt(bottom));
+        if (firstColumn > lastColumn) return false;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (anyInSpan(row, firstColumn, lastColumn)) return true;
+        }
+        return false;
+    }
+    
+    // Each pixel row is checked against the widest chord of the circle within that row
+    private boolean intersectsCircle(Circle circle) {
+        double cx = circle.getCenter().getX();
+        double cy = circle.getCenter().getY();
+        double radius = circle.getRadius();
+        int firstRow = Math.max(0, rowAt(cy - radius));
+        int lastRow = Math.min(height - 1, rowAt(cy + radius));
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            double top = origin.getY() + row * pixelSize;
+            double nearestY = Math.max(top, Math.min(cy, top + pixelSize));
+            double dy = cy - nearestY;
+            if (dy * dy > radius * radius) continue;
+            
+            double halfChord = Math.sqrt(radius * radius - dy * dy);
+            int firstColumn = Math.max(0, columnAt(cx - halfChord));
+            int lastColumn = Math.min(width - 1, columnAt(cx + halfChord));
+            if (firstColumn <= lastColumn && anyInSpan(row, firstColumn, lastColumn)) return true;
+        }
+        return false;
+    }
+    
+    // Anything else: test the centers of our set pixels under its bounds
+    private boolean intersectsPixels(Geometry other) {
+        BoundingBox box = other.getBoundingBox();
+        int firstColumn = Math.max(0, columnAt(box.getMinX()));
+        int lastColumn = Math.min(width - 1, columnAt(box.getMaxX()));
+        int firstRow = Math.max(0, rowAt(box.getMinY()));
+        int lastRow = Math.min(height - 1, rowAt(box.getMaxY()));
+        if (firstColumn > lastColumn) return false;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int w = firstColumn >>> 6; w <= lastColumn >>> 6; w++) {
+                long word = bits[row * wordsPerRow + w];
+                while (word != 0) {
+                    int column = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (column < firstColumn || column > lastColumn) continue;
+                    
+                    Vector2D center = new Vector2D(origin.getX() + (column + 0.5) * pixelSize,
+                                                   origin.getY() + (row + 0.5) * pixelSize);
+                    if (other.containsPoint(center)) return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        return isSet(columnAt(point.getX()), rowAt(point.getY()));
+    }
+    
+    // Tight box around the set pixels so the broadphase only sees the occupied area
+    @Override
+    public BoundingBox getBoundingBox() {
+        updateOccupancy();
+        if (maxRow < 0) {
+            return new BoundingBox(origin.getX(), origin.getY(), origin.getX(), origin.getY());
+        }
+        return new BoundingBox(
+            origin.getX() + minColumn * pixelSize,
+            origin.getY() + minRow * pixelSize,
+            origin.getX() + (maxColumn + 1) * pixelSize,
+            origin.getY() + (maxRow + 1) * pixelSize
+        );
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return new Vector2D(origin.getX() + width * pixelSize / 2, origin.getY() + height * pixelSize / 2);
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        origin = origin.add(offset);
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.BITMASK;
+    }
+}
\ No newline at end of file
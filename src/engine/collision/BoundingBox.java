@@ -17,6 +17,7 @@ public class BoundingBox {
     
     public double getWidth() { return maxX - minX; }
     public double getHeight() { return maxY - minY; }
+    public Vector2D getCenter() { return new Vector2D((minX + maxX) / 2, (minY + maxY) / 2); }
     
     public boolean intersects(BoundingBox other) {
         return !(maxX < other.minX || minX > other.maxX || 
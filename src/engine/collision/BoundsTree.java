@@ -0,0 +1,144 @@
+package engine.collision;
+
+// Flat, array-backed bounding volume hierarchy over a fixed set of boxes.
+// Every leaf holds one item; nodes split at the centroid median of their longest axis.
+// Queries keep no state in the tree, so a built tree can be queried from any number of
+// threads, or from inside another query.
+class BoundsTree {
+    private final double[] minX;
+    private final double[] minY;
+    private final double[] maxX;
+    private final double[] maxY;
+    // Inner nodes store child indices; leaves store -1 in left and the item index in right
+    private final int[] left;
+    private final int[] right;
+    private int nodeCount;
+    
+    BoundsTree(BoundingBox[] bounds) {
+        int itemCount = bounds.length;
+        int capacity = Math.max(1, 2 * itemCount - 1);
+        this.minX = new double[capacity];
+        this.minY = new double[capacity];
+        this.maxX = new double[capacity];
+        this.maxY = new double[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.nodeCount = 0;
+        
+        if (itemCount > 0) {
+            int[] order = new int[itemCount];
+            double[] centerX = new double[itemCount];
+            double[] centerY = new double[itemCount];
+            for (int i = 0; i < itemCount; i++) {
+                order[i] = i;
+                centerX[i] = (bounds[i].getMinX() + bounds[i].getMaxX()) / 2;
+                centerY[i] = (bounds[i].getMinY() + bounds[i].getMaxY()) / 2;
+            }
+            build(bounds, order, centerX, centerY, 0, itemCount);
+        }
+    }
+    
+    private int build(BoundingBox[] bounds, int[] order, double[] centerX, double[] centerY, int from, int to) {
+        int node = nodeCount++;
+        
+        if (to - from == 1) {
+            BoundingBox box = bounds[order[from]];
+            minX[node] = box.getMinX();
+            minY[node] = box.getMinY();
+            maxX[node] = box.getMaxX();
+            maxY[node] = box.getMaxY();
+            left[node] = -1;
+            right[node] = order[from];
+            return node;
+        }
+        
+        double cMinX = Double.POSITIVE_INFINITY, cMinY = Double.POSITIVE_INFINITY;
+        double cMaxX = Double.NEGATIVE_INFINITY, cMaxY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            cMinX = Math.min(cMinX, centerX[order[i]]);
+            cMinY = Math.min(cMinY, centerY[order[i]]);
+            cMaxX = Math.max(cMaxX, centerX[order[i]]);
+            cMaxY = Math.max(cMaxY, centerY[order[i]]);
+        }
+        double[] keys = (cMaxX - cMinX) >= (cMaxY - cMinY) ? centerX : centerY;
+        
+        int mid = (from + to) >>> 1;
+        select(order, keys, from, to - 1, mid);
+        
+        int leftChild = build(bounds, order, centerX, centerY, from, mid);
+        int rightChild = build(bounds, order, centerX, centerY, mid, to);
+        left[node] = leftChild;
+        right[node] = rightChild;
+        minX[node] = Math.min(minX[leftChild], minX[rightChild]);
+        minY[node] = Math.min(minY[leftChild], minY[rightChild]);
+        maxX[node] = Math.max(maxX[leftChild], maxX[rightChild]);
+        maxY[node] = Math.max(maxY[leftChild], maxY[rightChild]);
+        return node;
+    }
+    
+    // Quickselect: partially orders order[lo..hi] so that position k holds the k-th smallest key
+    private static void select(int[] order, double[] keys, int lo, int hi, int k) {
+        while (lo < hi) {
+            double pivot = keys[order[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    boolean isEmpty() {
+        return nodeCount == 0;
+    }
+    
+    double getMinX() { return minX[0]; }
+    double getMinY() { return minY[0]; }
+    double getMaxX() { return maxX[0]; }
+    double getMaxY() { return maxY[0]; }
+    
+    // Writes the indices of all items whose box overlaps the query box into results and
+    // returns how many were written; results must hold at least one slot per item
+    int query(double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        if (nodeCount == 0) return 0;
+        return query(0, qMinX, qMinY, qMaxX, qMaxY, results, 0);
+    }
+    
+    // The median splits keep the tree balanced, so the recursion is only log2(items) deep
+    private int query(int node, double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results, int count) {
+        if (maxX[node] < qMinX || minX[node] > qMaxX ||
+            maxY[node] < qMinY || minY[node] > qMaxY) {
+            return count;
+        }
+        if (left[node] < 0) {
+            results[count] = right[node];
+            return count + 1;
+        }
+        count = query(left[node], qMinX, qMinY, qMaxX, qMaxY, results, count);
+        return query(right[node], qMinX, qMinY, qMaxX, qMaxY, results, count);
+    }
+    
+    void translate(double dx, double dy) {
+        for (int i = 0; i < nodeCount; i++) {
+            minX[i] += dx;
+            minY[i] += dy;
+            maxX[i] += dx;
+            maxY[i] += dy;
+        }
+    }
+}
\ No newline at end of file
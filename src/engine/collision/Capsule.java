@@ -0,0 +1,92 @@
+package engine.collision;
+
+// A segment swept by a radius. Tests reduce to a segment distance against the other
+// shape's core, so a capsule costs about the same as a circle.
+public class Capsule implements Geometry {
+    private Vector2D start;
+    private Vector2D end;
+    private double radius;
+    
+    public Capsule(Vector2D start, Vector2D end, double radius) {
+        this.start = start;
+        this.end = end;
+        this.radius = radius;
+    }
+    
+    public Vector2D getStart() { return start; }
+    public Vector2D getEnd() { return end; }
+    public double getRadius() { return radius; }
+    
+    public void setStart(Vector2D start) { this.start = start; }
+    public void setEnd(Vector2D end) { this.end = end; }
+    public void setRadius(double radius) { this.radius = radius; }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (other.getType() == GeometryType.CIRCLE) {
+            Circle circle = (Circle) other;
+            Vector2D center = circle.getCenter();
+            return ShapeDistance.pointSegment(center.getX(), center.getY(), start.getX(), start.getY(),
+                                              end.getX(), end.getY(), null) <= radius + circle.getRadius();
+        } else if (other.getType() == GeometryType.POLYGON) {
+            return ShapeDistance.polygonDistance(ShapeDistance.core(this), (Polygon) other) <= radius;
+        } else if (other.getType() == GeometryType.RING) {
+            return other.intersects(this);
+        }
+        
+        double[] core = ShapeDistance.core(other);
+        if (core != null) {
+            return ShapeDistance.distance(ShapeDistance.core(this), core, null) <= radius + core[5];
+        }
+        
+        if (!getBoundingBox().intersects(other.getBoundingBox())) return false;
+        return other.intersects(toPolygon(8));
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        return ShapeDistance.pointSegment(point.getX(), point.getY(), start.getX(), start.getY(),
+                                          end.getX(), end.getY(), null) <= radius;
+    }
+    
+    // Outline with each cap split into the given number of segments
+    public Polygon toPolygon(int segmentsPerCap) {
+        Vector2D direction = end.subtract(start);
+        double angle = direction.magnitude() == 0 ? 0 : Math.atan2(direction.getY(), direction.getX());
+        
+        Vector2D[] vertices = new Vector2D[(segmentsPerCap + 1) * 2];
+        for (int i = 0; i <= segmentsPerCap; i++) {
+            double a = angle - Math.PI / 2 + Math.PI * i / segmentsPerCap;
+            vertices[i] = new Vector2D(end.getX() + radius * Math.cos(a), end.getY() + radius * Math.sin(a));
+            vertices[segmentsPerCap + 1 + i] = new Vector2D(start.getX() - radius * Math.cos(a),
+                                                            start.getY() - radius * Math.sin(a));
+        }
+        return new Polygon(vertices);
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(
+            Math.min(start.getX(), end.getX()) - radius,
+            Math.min(start.getY(), end.getY()) - radius,
+            Math.max(start.getX(), end.getX()) + radius,
+            Math.max(start.getY(), end.getY()) + radius
+        );
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return start.add(end).multiply(0.5);
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        start = start.add(offset);
+        end = end.add(offset);
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.CAPSULE;
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package engine.collision;
 
 public class Circle implements Geometry {
     private Vector2D center;
+    private boolean ownsCenter; // whether center is a copy of our own, safe to move in place
     private double radius;
     
     public Circle(Vector2D center, double radius) {
@@ -12,7 +13,10 @@ public class Circle implements Geometry {
     public Vector2D getCenter() { return center; }
     public double getRadius() { return radius; }
     
-    public void setCenter(Vector2D center) { this.center = center; }
+    public void setCenter(Vector2D center) {
+        this.center = center;
+        ownsCenter = false;
+    }
     public void setRadius(double radius) { this.radius = radius; }
     
     @Override
@@ -25,6 +29,8 @@ public class Circle implements Geometry {
             return intersectsPolygon((Polygon) other);
         } else if (other.getType() == GeometryType.LINE) {
             return intersectsLine((Line) other);
+        } else if (other.getType().handlesBasicShapes()) {
+            return other.intersects(this);
         }
         return false;
     }
@@ -105,6 +111,16 @@ public class Circle implements Geometry {
         center = center.add(offset);
     }
     
+    // The caller's center is copied on the first move and moved in place from then on
+    @Override
+    public void translateInPlace(double dx, double dy) {
+        if (!ownsCenter) {
+            center = new Vector2D(center.getX(), center.getY());
+            ownsCenter = true;
+        }
+        center.set(center.getX() + dx, center.getY() + dy);
+    }
+    
     @Override
     public GeometryType getType() {
         return GeometryType.CIRCLE;
@@ -0,0 +1,622 @@
+package engine.collision;
+
+import java.util.Arrays;
+
+// Store for large numbers of static circles, rectangles and polygons. Colliders live in
+// parallel primitive arrays (struct of arrays) instead of one object each, and callers
+// refer to them by int handle. The broadphase is a uniform grid packed into two int
+// arrays, rebuilt lazily after edits; circle and box queries run the narrowphase straight
+// off the arrays. Queries spanning much of the grid skip it and scan the bounds columns
+// with BatchKernels instead. The circles are also packed into columns of their own, so a
+// circle can be tested against every circle collider in one batch (queryCircles).
+public class ColliderArena {
+    private static final byte FREE = 0;
+    private static final byte CIRCLE = 1;
+    private static final byte RECTANGLE = 2;
+    private static final byte POLYGON = 3;
+    // Colliders covering more grid cells than this are tested on every query instead
+    private static final int MAX_CELLS_PER_COLLIDER = 16;
+    // Queries covering at least one grid cell per this many colliders scan every collider's
+    // bounds instead of walking the cells
+    private static final int SCAN_COLLIDERS_PER_CELL = 8;
+    
+    private byte[] kinds;
+    private final NumericColumn minX;
+    private final NumericColumn minY;
+    private final NumericColumn maxX;
+    private final NumericColumn maxY;
+    // Circle center and radius
+    private final NumericColumn centerX;
+    private final NumericColumn centerY;
+    private final NumericColumn radius;
+    // Polygon vertices are ranges of the shared vertex pool
+    private int[] firstVertex;
+    private int[] vertexCount;
+    private final NumericColumn vertexX;
+    private final NumericColumn vertexY;
+    private int vertexTop;
+    
+    private int capacity;
+    private int top;
+    private int size;
+    private int[] freeHandles;
+    private int freeCount;
+    
+    // Packed grid: the colliders of cell c are cellItems[cellStart[c] .. cellStart[c + 1])
+    private final double cellSizeHint;
+    private boolean gridDirty;
+    private double gridMinX;
+    private double gridMinY;
+    private double cellSize;
+    private int gridColumns;
+    private int gridRows;
+    private int[] cellStart;
+    private int[] cellItems;
+    private int[] oversized;
+    private int oversizedCount;
+    
+    // Circle colliders packed densely, rebuilt with the grid: entry i is handle circleHandles[i]
+    private final NumericColumn circleX;
+    private final NumericColumn circleY;
+    private final NumericColumn circleRadius;
+    private int[] circleHandles;
+    private int circleCount;
+    
+    // Queries mark visited colliders so ones spanning several cells are reported once
+    private int[] visited;
+    private int visitStamp;
+    private int[] scanHits;
+    
+    public ColliderArena(double cellSize) {
+        this(cellSize, Precision.DOUBLE);
+    }
+    
+    // At Precision.FLOAT the collider data takes half the memory; shapes are rounded to
+    // float as they are added and bounds are rounded outwards
+    public ColliderArena(double cellSize, Precision precision) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeHint = cellSize;
+        this.capacity = 16;
+        this.kinds = new byte[capacity];
+        this.minX = new NumericColumn(precision, capacity);
+        this.minY = new NumericColumn(precision, capacity);
+        this.maxX = new NumericColumn(precision, capacity);
+        this.maxY = new NumericColumn(precision, capacity);
+        this.centerX = new NumericColumn(precision, capacity);
+        this.centerY = new NumericColumn(precision, capacity);
+        this.radius = new NumericColumn(precision, capacity);
+        this.firstVertex = new int[capacity];
+        this.vertexCount = new int[capacity];
+        this.visited = new int[capacity];
+        this.scanHits = new int[capacity];
+        this.freeHandles = new int[16];
+        this.vertexX = new NumericColumn(precision, 64);
+        this.vertexY = new NumericColumn(precision, 64);
+        this.circleX = new NumericColumn(precision, capacity);
+        this.circleY = new NumericColumn(precision, capacity);
+        this.circleRadius = new NumericColumn(precision, capacity);
+        this.circleHandles = new int[capacity];
+        this.gridDirty = true;
+    }
+    
+    // Adding and removing
+    
+    public int addCircle(double x, double y, double r) {
+        int handle = allocate(CIRCLE);
+        centerX.set(handle, x);
+        centerY.set(handle, y);
+        radius.set(handle, r);
+        // Bounds of the circle as stored, which may have been rounded
+        x = centerX.get(handle);
+        y = centerY.get(handle);
+        r = radius.get(handle);
+        setBounds(handle, x - r, y - r, x + r, y + r);
+        return handle;
+    }
+    
+    public int addRectangle(double x, double y, double width, double height) {
+        int handle = allocate(RECTANGLE);
+        setBounds(handle, x - width / 2, y - height / 2, x + width / 2, y + height / 2);
+        return handle;
+    }
+    
+    public int addPolygon(Vector2D[] vertices) {
+        if (vertices.length < 3) {
+            throw new IllegalArgumentException("Polygon needs at least three vertices");
+        }
+        if (vertexTop + vertices.length > vertexX.capacity()) {
+            int grown = Math.max(vertexX.capacity() * 2, vertexTop + vertices.length);
+            vertexX.grow(grown);
+            vertexY.grow(grown);
+        }
+        
+        int handle = allocate(POLYGON);
+        firstVertex[handle] = vertexTop;
+        vertexCount[handle] = vertices.length;
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+        for (Vector2D vertex : vertices) {
+            vertexX.set(vertexTop, vertex.getX());
+            vertexY.set(vertexTop, vertex.getY());
+            x0 = Math.min(x0, vertexX.get(vertexTop));
+            y0 = Math.min(y0, vertexY.get(vertexTop));
+            x1 = Math.max(x1, vertexX.get(vertexTop));
+            y1 = Math.max(y1, vertexY.get(vertexTop));
+            vertexTop++;
+        }
+        setBounds(handle, x0, y0, x1, y1);
+        return handle;
+    }
+    
+    // Copies a circle, rectangle or polygon into the arena
+    public int add(Geometry shape) {
+        switch (shape.getType()) {
+            case CIRCLE:
+                Circle circle = (Circle) shape;
+                return addCircle(circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius());
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) shape;
+                return addRectangle(rect.getCenter().getX(), rect.getCenter().getY(), rect.getWidth(), rect.getHeight());
+            case POLYGON:
+                return addPolygon(((Polygon) shape).getVertices());
+            default:
+                throw new IllegalArgumentException("Arena only stores circles, rectangles and polygons: " + shape.getType());
+        }
+    }
+    
+    // The handle may be handed out again by a later add. Vertices of removed polygons
+    // stay in the pool; the arena is meant for colliders that rarely go away.
+    public void remove(int handle) {
+        checkHandle(handle);
+        kinds[handle] = FREE;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+        size--;
+        gridDirty = true;
+    }
+    
+    public void clear() {
+        Arrays.fill(kinds, 0, top, FREE);
+        top = 0;
+        size = 0;
+        freeCount = 0;
+        vertexTop = 0;
+        gridDirty = true;
+    }
+    
+    private int allocate(byte kind) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (top == capacity) {
+                grow();
+            }
+            handle = top++;
+        }
+        kinds[handle] = kind;
+        size++;
+        gridDirty = true;
+        return handle;
+    }
+    
+    private void grow() {
+        capacity *= 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        minX.grow(capacity);
+        minY.grow(capacity);
+        maxX.grow(capacity);
+        maxY.grow(capacity);
+        centerX.grow(capacity);
+        centerY.grow(capacity);
+        radius.grow(capacity);
+        firstVertex = Arrays.copyOf(firstVertex, capacity);
+        vertexCount = Arrays.copyOf(vertexCount, capacity);
+        visited = Arrays.copyOf(visited, capacity);
+        scanHits = new int[capacity];
+        circleX.grow(capacity);
+        circleY.grow(capacity);
+        circleRadius.grow(capacity);
+        circleHandles = Arrays.copyOf(circleHandles, capacity);
+    }
+    
+    private void setBounds(int handle, double x0, double y0, double x1, double y1) {
+        minX.setLower(handle, x0);
+        minY.setLower(handle, y0);
+        maxX.setUpper(handle, x1);
+        maxY.setUpper(handle, y1);
+    }
+    
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= top || kinds[handle] == FREE) {
+            throw new IllegalArgumentException("Invalid collider handle: " + handle);
+        }
+    }
+    
+    // Access
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < top && kinds[handle] != FREE;
+    }
+    
+    public GeometryType getType(int handle) {
+        checkHandle(handle);
+        switch (kinds[handle]) {
+            case CIRCLE: return GeometryType.CIRCLE;
+            case RECTANGLE: return GeometryType.RECTANGLE;
+            default: return GeometryType.POLYGON;
+        }
+    }
+    
+    public BoundingBox getBoundingBox(int handle) {
+        checkHandle(handle);
+        return new BoundingBox(minX.get(handle), minY.get(handle), maxX.get(handle), maxY.get(handle));
+    }
+    
+    // Builds a standalone shape object for a collider, e.g. for contact resolution
+    public Geometry toGeometry(int handle) {
+        checkHandle(handle);
+        switch (kinds[handle]) {
+            case CIRCLE:
+                return new Circle(new Vector2D(centerX.get(handle), centerY.get(handle)), radius.get(handle));
+            case RECTANGLE:
+                double x0 = minX.get(handle), y0 = minY.get(handle);
+                double x1 = maxX.get(handle), y1 = maxY.get(handle);
+                return new Rectangle(new Vector2D((x0 + x1) / 2, (y0 + y1) / 2), x1 - x0, y1 - y0);
+            default:
+                Vector2D[] vertices = new Vector2D[vertexCount[handle]];
+                int first = firstVertex[handle];
+                for (int i = 0; i < vertices.length; i++) {
+                    vertices[i] = new Vector2D(vertexX.get(first + i), vertexY.get(first + i));
+                }
+                return new Polygon(vertices);
+        }
+    }
+    
+    // Broadphase
+    
+    private void buildGrid() {
+        if (!gridDirty) return;
+        gridDirty = false;
+        
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < top; i++) {
+            if (kinds[i] == FREE) continue;
+            x0 = Math.min(x0, minX.get(i));
+            y0 = Math.min(y0, minY.get(i));
+            x1 = Math.max(x1, maxX.get(i));
+            y1 = Math.max(y1, maxY.get(i));
+        }
+        if (size == 0) {
+            x0 = y0 = x1 = y1 = 0;
+        }
+        
+        // Keep the cell count in proportion to the collider count
+        cellSize = cellSizeHint;
+        double maxCells = 4.0 * size + 1024;
+        double cells = Math.ceil((x1 - x0) / cellSize + 1) * Math.ceil((y1 - y0) / cellSize + 1);
+        if (cells > maxCells) {
+            cellSize *= Math.sqrt(cells / maxCells) * 1.01;
+        }
+        gridMinX = x0;
+        gridMinY = y0;
+        gridColumns = (int) Math.floor((x1 - x0) / cellSize) + 1;
+        gridRows = (int) Math.floor((y1 - y0) / cellSize) + 1;
+        
+        // Counting sort of colliders into cells
+        cellStart = new int[gridColumns * gridRows + 1];
+        oversized = new int[16];
+        oversizedCount = 0;
+        for (int i = 0; i < top; i++) {
+            if (kinds[i] == FREE) continue;
+            int c0 = columnAt(minX.get(i)), c1 = columnAt(maxX.get(i));
+            int r0 = rowAt(minY.get(i)), r1 = rowAt(maxY.get(i));
+            if ((long) (c1 - c0 + 1) * (r1 - r0 + 1) > MAX_CELLS_PER_COLLIDER) {
+                if (oversizedCount == oversized.length) {
+                    oversized = Arrays.copyOf(oversized, oversizedCount * 2);
+                }
+                oversized[oversizedCount++] = i;
+                continue;
+            }
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * gridColumns + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < gridColumns * gridRows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        
+        cellItems = new int[cellStart[gridColumns * gridRows]];
+        int[] fill = Arrays.copyOf(cellStart, gridColumns * gridRows);
+        for (int i = 0; i < top; i++) {
+            if (kinds[i] == FREE) continue;
+            int c0 = columnAt(minX.get(i)), c1 = columnAt(maxX.get(i));
+            int r0 = rowAt(minY.get(i)), r1 = rowAt(maxY.get(i));
+            if ((long) (c1 - c0 + 1) * (r1 - r0 + 1) > MAX_CELLS_PER_COLLIDER) continue;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[fill[r * gridColumns + c]++] = i;
+                }
+            }
+        }
+        
+        circleCount = 0;
+        for (int i = 0; i < top; i++) {
+            if (kinds[i] != CIRCLE) continue;
+            circleX.set(circleCount, centerX.get(i));
+            circleY.set(circleCount, centerY.get(i));
+            circleRadius.set(circleCount, radius.get(i));
+            circleHandles[circleCount++] = i;
+        }
+    }
+    
+    private int columnAt(double x) {
+        return Math.max(0, Math.min(gridColumns - 1, (int) Math.floor((x - gridMinX) / cellSize)));
+    }
+    
+    private int rowAt(double y) {
+        return Math.max(0, Math.min(gridRows - 1, (int) Math.floor((y - gridMinY) / cellSize)));
+    }
+    
+    // Handles of all colliders whose bounds overlap the box. Returns the number of hits;
+    // only the first results.length are written.
+    public int queryBounds(double qMinX, double qMinY, double qMaxX, double qMaxY, int[] results) {
+        return query(qMinX, qMinY, qMaxX, qMaxY, false, null, results);
+    }
+    
+    // Handles of all colliders that overlap the shape, counted like queryBounds
+    public int query(Geometry shape, int[] results) {
+        BoundingBox box = shape.getBoundingBox();
+        return query(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), false, shape, results);
+    }
+    
+    // Handles of all colliders containing the point, counted like queryBounds
+    public int queryPoint(double x, double y, int[] results) {
+        return query(x, y, x, y, true, null, results);
+    }
+    
+    // Handles of the circle colliders overlapping the circle (x, y, r), counted like
+    // queryBounds; the other kinds are left out. Wide queries, e.g. a player against every
+    // bullet, test all the packed circles with BatchKernels.overlapCircles instead of
+    // walking the grid. Both give the same answer as intersects with a Circle.
+    public int queryCircles(double x, double y, double r, int[] results) {
+        buildGrid();
+        if (circleCount == 0) return 0;
+        
+        int c0 = columnAt(x - r), c1 = columnAt(x + r);
+        int r0 = rowAt(y - r), r1 = rowAt(y + r);
+        if ((long) (c1 - c0 + 1) * (r1 - r0 + 1) * SCAN_COLLIDERS_PER_CELL >= circleCount) {
+            BatchKernels kernels = BatchKernels.get();
+            int hits;
+            if (circleX.getPrecision() == Precision.FLOAT) {
+                hits = kernels.overlapCircles(circleX.floats(), circleY.floats(), circleRadius.floats(), circleCount,
+                                              x, y, r, scanHits);
+            } else {
+                hits = kernels.overlapCircles(circleX.doubles(), circleY.doubles(), circleRadius.doubles(), circleCount,
+                                              x, y, r, scanHits);
+            }
+            // scanHits holds one slot per collider, so every hit was written
+            for (int k = 0; k < hits; k++) {
+                BatchKernels.record(circleHandles[scanHits[k]], k, results);
+            }
+            return hits;
+        }
+        
+        if (++visitStamp == 0) {
+            Arrays.fill(visited, 0);
+            visitStamp = 1;
+        }
+        int count = 0;
+        for (int i = 0; i < oversizedCount; i++) {
+            count = visitCircle(oversized[i], x, y, r, results, count);
+        }
+        if (x + r < gridMinX || y + r < gridMinY ||
+            x - r > gridMinX + gridColumns * cellSize || y - r > gridMinY + gridRows * cellSize) {
+            return count;
+        }
+        for (int row = r0; row <= r1; row++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = row * gridColumns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    count = visitCircle(cellItems[k], x, y, r, results, count);
+                }
+            }
+        }
+        return count;
+    }
+    
+    private int visitCircle(int handle, double x, double y, double r, int[] results, int count) {
+        if (visited[handle] == visitStamp) return count;
+        visited[handle] = visitStamp;
+        if (kinds[handle] != CIRCLE || !intersectsCircle(handle, x, y, r)) return count;
+        return BatchKernels.record(handle, count, results);
+    }
+    
+    // Candidates from the grid are checked against the box, then against the point or
+    // shape when one is given
+    private int query(double qMinX, double qMinY, double qMaxX, double qMaxY, boolean point,
+                      Geometry shape, int[] results) {
+        buildGrid();
+        if (size == 0) return 0;
+        if (++visitStamp == 0) {
+            Arrays.fill(visited, 0);
+            visitStamp = 1;
+        }
+        
+        int c0 = columnAt(qMinX), c1 = columnAt(qMaxX);
+        int r0 = rowAt(qMinY), r1 = rowAt(qMaxY);
+        if ((long) (c1 - c0 + 1) * (r1 - r0 + 1) * SCAN_COLLIDERS_PER_CELL >= top) {
+            return scan(qMinX, qMinY, qMaxX, qMaxY, point, shape, results);
+        }
+        
+        int count = 0;
+        for (int i = 0; i < oversizedCount; i++) {
+            count = visit(oversized[i], qMinX, qMinY, qMaxX, qMaxY, point, shape, results, count);
+        }
+        if (qMaxX < gridMinX || qMaxY < gridMinY ||
+            qMinX > gridMinX + gridColumns * cellSize || qMinY > gridMinY + gridRows * cellSize) {
+            return count;
+        }
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * gridColumns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    count = visit(cellItems[k], qMinX, qMinY, qMaxX, qMaxY, point, shape, results, count);
+                }
+            }
+        }
+        return count;
+    }
+    
+    // Candidates are the colliders whose bounds overlap the box in one pass over the bounds
+    // columns; removed colliders keep their old bounds, so they are skipped here
+    private int scan(double qMinX, double qMinY, double qMaxX, double qMaxY, boolean point,
+                     Geometry shape, int[] results) {
+        BatchKernels kernels = BatchKernels.get();
+        int hits;
+        if (minX.getPrecision() == Precision.FLOAT) {
+            hits = kernels.overlapBoxes(minX.floats(), minY.floats(), maxX.floats(), maxY.floats(), top,
+                                        qMinX, qMinY, qMaxX, qMaxY, scanHits);
+        } else {
+            hits = kernels.overlapBoxes(minX.doubles(), minY.doubles(), maxX.doubles(), maxY.doubles(), top,
+                                        qMinX, qMinY, qMaxX, qMaxY, scanHits);
+        }
+        
+        int count = 0;
+        for (int k = 0; k < hits; k++) {
+            if (kinds[scanHits[k]] != FREE) {
+                count = visit(scanHits[k], qMinX, qMinY, qMaxX, qMaxY, point, shape, results, count);
+            }
+        }
+        return count;
+    }
+    
+    private int visit(int handle, double qMinX, double qMinY, double qMaxX, double qMaxY, boolean point,
+                      Geometry shape, int[] results, int count) {
+        if (visited[handle] == visitStamp) return count;
+        visited[handle] = visitStamp;
+        if (maxX.get(handle) < qMinX || minX.get(handle) > qMaxX ||
+            maxY.get(handle) < qMinY || minY.get(handle) > qMaxY) {
+            return count;
+        }
+        if (point && !intersectsCircle(handle, qMinX, qMinY, 0)) return count;
+        if (shape != null && !intersects(handle, shape)) return count;
+        if (count < results.length) {
+            results[count] = handle;
+        }
+        return count + 1;
+    }
+    
+    // Narrowphase
+    
+    public boolean intersects(int handle, Geometry shape) {
+        checkHandle(handle);
+        switch (shape.getType()) {
+            case CIRCLE:
+                Circle circle = (Circle) shape;
+                return intersectsCircle(handle, circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius());
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) shape;
+                return intersectsBox(handle, rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            default:
+                return shape.intersects(toGeometry(handle));
+        }
+    }
+    
+    private boolean intersectsCircle(int handle, double x, double y, double r) {
+        switch (kinds[handle]) {
+            case CIRCLE:
+                double dx = x - centerX.get(handle);
+                double dy = y - centerY.get(handle);
+                double reach = r + radius.get(handle);
+                return dx * dx + dy * dy <= reach * reach;
+            case RECTANGLE:
+                double nearX = x - Math.max(minX.get(handle), Math.min(x, maxX.get(handle)));
+                double nearY = y - Math.max(minY.get(handle), Math.min(y, maxY.get(handle)));
+                return nearX * nearX + nearY * nearY <= r * r;
+            default:
+                if (polygonContains(handle, x, y)) return true;
+                int first = firstVertex[handle];
+                int n = vertexCount[handle];
+                for (int i = 0, j = n - 1; i < n; j = i++) {
+                    if (ShapeDistance.pointSegment(x, y, vertexX.get(first + j), vertexY.get(first + j),
+                                                   vertexX.get(first + i), vertexY.get(first + i), null) <= r) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+    
+    private boolean intersectsBox(int handle, double left, double top, double right, double bottom) {
+        switch (kinds[handle]) {
+            case CIRCLE:
+                double nearX = centerX.get(handle) - Math.max(left, Math.min(centerX.get(handle), right));
+                double nearY = centerY.get(handle) - Math.max(top, Math.min(centerY.get(handle), bottom));
+                return nearX * nearX + nearY * nearY <= radius.get(handle) * radius.get(handle);
+            case RECTANGLE:
+                return !(maxX.get(handle) < left || minX.get(handle) > right ||
+                         maxY.get(handle) < top || minY.get(handle) > bottom);
+            default:
+                if (polygonContains(handle, (left + right) / 2, (top + bottom) / 2)) return true;
+                int first = firstVertex[handle];
+                int n = vertexCount[handle];
+                for (int i = 0, j = n - 1; i < n; j = i++) {
+                    if (segmentTouchesBox(vertexX.get(first + j), vertexY.get(first + j),
+                                          vertexX.get(first + i), vertexY.get(first + i), left, top, right, bottom)) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+    
+    // Even-odd crossing test, as in Polygon.containsPoint
+    private boolean polygonContains(int handle, double x, double y) {
+        boolean inside = false;
+        int first = firstVertex[handle];
+        int n = vertexCount[handle];
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = vertexX.get(first + i), yi = vertexY.get(first + i);
+            double xj = vertexX.get(first + j), yj = vertexY.get(first + j);
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+    
+    // Slab test of the segment against the box
+    private static boolean segmentTouchesBox(double x1, double y1, double x2, double y2,
+                                             double left, double top, double right, double bottom) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double tEnter = 0, tExit = 1;
+        if (dx == 0) {
+            if (x1 < left || x1 > right) return false;
+        } else {
+            double a = (left - x1) / dx, b = (right - x1) / dx;
+            tEnter = Math.max(tEnter, Math.min(a, b));
+            tExit = Math.min(tExit, Math.max(a, b));
+        }
+        if (dy == 0) {
+            if (y1 < top || y1 > bottom) return false;
+        } else {
+            double a = (top - y1) / dy, b = (bottom - y1) / dy;
+            tEnter = Math.max(tEnter, Math.min(a, b));
+            tExit = Math.min(tExit, Math.max(a, b));
+        }
+        return tEnter <= tExit;
+    }
+}
\ No newline at end of file
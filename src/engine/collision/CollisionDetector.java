@@ -5,6 +5,12 @@ import java.util.List;
 public class CollisionDetector {
     
     public static CollisionResult checkCollision(Geometry geom1, Geometry geom2) {
+        // Hulls of the complex shapes reject most pairs whose boxes overlap but which
+        // are still apart, before any detailed test runs
+        if (separatedByHull(geom1, geom2)) {
+            return new CollisionResult(false);
+        }
+        
         // Handle basic shape combinations
         if (geom1.getType() == GeometryType.CIRCLE && geom2.getType() == GeometryType.CIRCLE) {
             return checkCircleCircle((Circle) geom1, (Circle) geom2);
@@ -15,6 +21,24 @@ public class CollisionDetector {
             Circle circle = geom1.getType() == GeometryType.CIRCLE ? (Circle) geom1 : (Circle) geom2;
             Rectangle rect = geom1.getType() == GeometryType.RECTANGLE ? (Rectangle) geom1 : (Rectangle) geom2;
             return checkCircleRectangle(circle, rect);
+        } else if (geom1.getType() == GeometryType.INSTANCE || geom2.getType() == GeometryType.INSTANCE) {
+            return checkInstanceGeometry(geom1, geom2);
+        } else if (geom1.getType() == GeometryType.TILEMAP || geom2.getType() == GeometryType.TILEMAP) {
+            return checkTileMapGeometry(geom1, geom2);
+        } else if (geom1.getType() == GeometryType.MAPPED_TILEMAP || geom2.getType() == GeometryType.MAPPED_TILEMAP) {
+            return checkMappedTileMapGeometry(geom1, geom2);
+        } else if (geom1.getType() == GeometryType.HEIGHTFIELD || geom2.getType() == GeometryType.HEIGHTFIELD) {
+            return checkHeightfieldGeometry(geom1, geom2);
+        } else if (geom1.getType() == GeometryType.BITMASK || geom2.getType() == GeometryType.BITMASK) {
+            BitmaskGeometry mask = geom1.getType() == GeometryType.BITMASK ? (BitmaskGeometry) geom1 : (BitmaskGeometry) geom2;
+            Geometry other = geom1.getType() == GeometryType.BITMASK ? geom2 : geom1;
+            return checkBitmaskGeometry(mask, other);
+        } else if (geom1.getType() == GeometryType.DISTANCE_FIELD || geom2.getType() == GeometryType.DISTANCE_FIELD) {
+            return checkDistanceFieldGeometry(geom1, geom2);
+        } else if (geom1.getType() == GeometryType.RING || geom2.getType() == GeometryType.RING) {
+            return checkRingGeometry(geom1, geom2);
+        } else if (isRounded(geom1) || isRounded(geom2)) {
+            return checkRoundedGeometry(geom1, geom2);
         } else if (geom1.getType() == GeometryType.LINE || geom2.getType() == GeometryType.LINE) {
             Line line = geom1.getType() == GeometryType.LINE ? (Line) geom1 : (Line) geom2;
             Geometry other = geom1.getType() == GeometryType.LINE ? geom2 : geom1;
@@ -53,9 +77,17 @@ public class CollisionDetector {
         return new CollisionResult(geom1.intersects(geom2));
     }
     
+    private static boolean separatedByHull(Geometry geom1, Geometry geom2) {
+        ConvexHull hull1 = ConvexHull.hullOf(geom1);
+        ConvexHull hull2 = ConvexHull.hullOf(geom2);
+        return (hull1 != null && hull1.separates(geom2)) || (hull2 != null && hull2.separates(geom1));
+    }
+    
     private static CollisionResult checkCircleCircle(Circle c1, Circle c2) {
-        Vector2D centerDiff = c2.getCenter().subtract(c1.getCenter());
-        double distance = centerDiff.magnitude();
+        // Misses are decided on plain doubles; only hits build the result's vectors
+        double dx = c2.getCenter().getX() - c1.getCenter().getX();
+        double dy = c2.getCenter().getY() - c1.getCenter().getY();
+        double distance = Math.sqrt(dx * dx + dy * dy);
         double radiusSum = c1.getRadius() + c2.getRadius();
         
         boolean colliding = distance <= radiusSum;
@@ -65,9 +97,8 @@ public class CollisionDetector {
             return new CollisionResult(true, new Vector2D(1, 0), radiusSum, c1.getCenter());
         }
         
-        Vector2D normal = centerDiff.normalize();
-        Vector2D penetrationVector = normal.multiply(radiusSum - distance);
-        Vector2D contactPoint = c1.getCenter().add(normal.multiply(c1.getRadius()));
+        Vector2D penetrationVector = new Vector2D(dx, dy).multiplyLocal((radiusSum - distance) / distance);
+        Vector2D contactPoint = new Vector2D(dx, dy).multiplyLocal(c1.getRadius() / distance).addLocal(c1.getCenter());
         
         return new CollisionResult(true, penetrationVector, radiusSum - distance, contactPoint);
     }
@@ -107,12 +138,14 @@ public class CollisionDetector {
         double closestX = Math.max(rect.getLeft(), Math.min(circleCenter.getX(), rect.getRight()));
         double closestY = Math.max(rect.getTop(), Math.min(circleCenter.getY(), rect.getBottom()));
         
-        Vector2D closestPoint = new Vector2D(closestX, closestY);
-        double distance = circleCenter.distanceTo(closestPoint);
+        double offsetX = circleCenter.getX() - closestX;
+        double offsetY = circleCenter.getY() - closestY;
+        double distance = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
         
         boolean colliding = distance <= circle.getRadius();
         if (!colliding) return new CollisionResult(false);
         
+        Vector2D closestPoint = new Vector2D(closestX, closestY);
         Vector2D normal;
         if (distance == 0) {
             double distLeft = Math.abs(circleCenter.getX() - rect.getLeft());
@@ -127,11 +160,11 @@ public class CollisionDetector {
                 normal = new Vector2D(0, minDist == distTop ? -1 : 1);
             }
         } else {
-            normal = circleCenter.subtract(closestPoint).normalize();
+            normal = circleCenter.subtract(closestPoint).normalizeLocal();
         }
         
         double penetrationDepth = circle.getRadius() - distance;
-        Vector2D penetrationVector = normal.multiply(penetrationDepth);
+        Vector2D penetrationVector = normal.multiplyLocal(penetrationDepth);
         
         return new CollisionResult(true, penetrationVector, penetrationDepth, closestPoint);
     }
@@ -154,7 +187,7 @@ public class CollisionDetector {
         
         Vector2D lineCenter = line.getCenter();
         Vector2D circleCenter = circle.getCenter();
-        Vector2D normal = circleCenter.subtract(lineCenter).normalize();
+        Vector2D normal = circleCenter.subtract(lineCenter).normalizeLocal();
         
         return new CollisionResult(true, normal, 0, lineCenter);
     }
@@ -172,18 +205,208 @@ public class CollisionDetector {
         
         Vector2D center1 = polygon.getCenter();
         Vector2D center2 = geom.getCenter();
-        Vector2D normal = center2.subtract(center1).normalize();
+        Vector2D normal = center2.subtract(center1).normalizeLocal();
         
         return new CollisionResult(true, normal, 0, center1);
     }
     
+    private static CollisionResult checkTileMapGeometry(Geometry geom1, Geometry geom2) {
+        TileMapGeometry tileMap = geom1.getType() == GeometryType.TILEMAP ? (TileMapGeometry) geom1 : (TileMapGeometry) geom2;
+        Geometry other = tileMap == geom1 ? geom2 : geom1;
+        
+        CollisionResult result = tileMap.collide(other);
+        
+        // The map reports normals towards the other shape
+        if (tileMap == geom2 && result.isColliding()) {
+            return new CollisionResult(true, result.getPenetrationVector().multiply(-1),
+                                       result.getPenetrationDepth(), result.getContactPoint());
+        }
+        return result;
+    }
+    
+    private static CollisionResult checkMappedTileMapGeometry(Geometry geom1, Geometry geom2) {
+        MappedTileMap tileMap = geom1.getType() == GeometryType.MAPPED_TILEMAP ? (MappedTileMap) geom1 : (MappedTileMap) geom2;
+        Geometry other = tileMap == geom1 ? geom2 : geom1;
+        
+        CollisionResult result = tileMap.collide(other);
+        
+        // The map reports normals towards the other shape
+        if (tileMap == geom2 && result.isColliding()) {
+            return new CollisionResult(true, result.getPenetrationVector().multiply(-1),
+                                       result.getPenetrationDepth(), result.getContactPoint());
+        }
+        return result;
+    }
+    
+    private static CollisionResult checkHeightfieldGeometry(Geometry geom1, Geometry geom2) {
+        HeightfieldGeometry terrain = geom1.getType() == GeometryType.HEIGHTFIELD ? (HeightfieldGeometry) geom1 : (HeightfieldGeometry) geom2;
+        Geometry other = terrain == geom1 ? geom2 : geom1;
+        
+        CollisionResult result = terrain.collide(other);
+        
+        // The terrain reports normals towards the other shape
+        if (terrain == geom2 && result.isColliding()) {
+            return new CollisionResult(true, result.getPenetrationVector().multiply(-1),
+                                       result.getPenetrationDepth(), result.getContactPoint());
+        }
+        return result;
+    }
+    
+    private static CollisionResult checkBitmaskGeometry(BitmaskGeometry mask, Geometry geom) {
+        boolean colliding = mask.intersects(geom);
+        if (!colliding) return new CollisionResult(false);
+        
+        Vector2D center1 = mask.getCenter();
+        Vector2D center2 = geom.getCenter();
+        Vector2D normal = center2.subtract(center1).normalizeLocal();
+        
+        return new CollisionResult(true, normal, 0, center1);
+    }
+    
+    private static CollisionResult checkDistanceFieldGeometry(Geometry geom1, Geometry geom2) {
+        DistanceFieldGeometry field = geom1.getType() == GeometryType.DISTANCE_FIELD ?
+            (DistanceFieldGeometry) geom1 : (DistanceFieldGeometry) geom2;
+        Geometry other = field == geom1 ? geom2 : geom1;
+        
+        CollisionResult result;
+        if (other.getType() == GeometryType.CIRCLE) {
+            result = field.collideCircle((Circle) other);
+        } else {
+            boolean colliding = field.intersects(other);
+            if (!colliding) return new CollisionResult(false);
+            
+            // Depth of the other shape's center below the surface, if it got that far
+            Vector2D otherCenter = other.getCenter();
+            double depth = Math.max(0, -field.distance(otherCenter));
+            Vector2D normal = field.normal(otherCenter);
+            result = new CollisionResult(true, normal.multiply(depth), depth, otherCenter);
+        }
+        
+        // Normals above point from the field towards the other shape
+        if (field == geom2 && result.isColliding()) {
+            return new CollisionResult(true, result.getPenetrationVector().multiply(-1),
+                                       result.getPenetrationDepth(), result.getContactPoint());
+        }
+        return result;
+    }
+    
+    private static boolean isRounded(Geometry geom) {
+        return geom.getType() == GeometryType.CAPSULE || geom.getType() == GeometryType.ROUNDED_RECT;
+    }
+    
+    // Capsules and rounded rectangles against anything with a segment or box core:
+    // closest points between the cores give the normal, the radii give the depth
+    private static CollisionResult checkRoundedGeometry(Geometry geom1, Geometry geom2) {
+        double[] core1 = ShapeDistance.core(geom1);
+        double[] core2 = ShapeDistance.core(geom2);
+        if (core1 == null || core2 == null) {
+            Geometry rounded = isRounded(geom1) ? geom1 : geom2;
+            Geometry other = rounded == geom1 ? geom2 : geom1;
+            boolean colliding = rounded.intersects(other);
+            if (!colliding) return new CollisionResult(false);
+            
+            Vector2D normal = geom2.getCenter().subtract(geom1.getCenter()).normalizeLocal();
+            return new CollisionResult(true, normal, 0, rounded.getCenter());
+        }
+        
+        double[] closest = new double[4];
+        double distance = ShapeDistance.distance(core1, core2, closest);
+        double depth = core1[5] + core2[5] - distance;
+        if (depth < 0) return new CollisionResult(false);
+        
+        Vector2D normal;
+        if (distance > 0) {
+            normal = new Vector2D((closest[2] - closest[0]) / distance, (closest[3] - closest[1]) / distance);
+        } else {
+            // Cores overlap: push out along the axis where their bounds overlap least
+            double overlapX = Math.min(Math.max(core1[1], core1[3]), Math.max(core2[1], core2[3])) -
+                              Math.max(Math.min(core1[1], core1[3]), Math.min(core2[1], core2[3]));
+            double overlapY = Math.min(Math.max(core1[2], core1[4]), Math.max(core2[2], core2[4])) -
+                              Math.max(Math.min(core1[2], core1[4]), Math.min(core2[2], core2[4]));
+            Vector2D centerDiff = geom2.getCenter().subtract(geom1.getCenter());
+            if (overlapX < overlapY) {
+                normal = new Vector2D(centerDiff.getX() < 0 ? -1 : 1, 0);
+                depth += overlapX;
+            } else {
+                normal = new Vector2D(0, centerDiff.getY() < 0 ? -1 : 1);
+                depth += overlapY;
+            }
+        }
+        
+        Vector2D contactPoint = new Vector2D(closest[0], closest[1]).add(normal.multiply(core1[5]));
+        return new CollisionResult(true, normal.multiply(depth), depth, contactPoint);
+    }
+    
+    // The other shape is pushed out through whichever ring edge is closer
+    private static CollisionResult checkRingGeometry(Geometry geom1, Geometry geom2) {
+        Ring ring = geom1.getType() == GeometryType.RING ? (Ring) geom1 : (Ring) geom2;
+        Geometry other = ring == geom1 ? geom2 : geom1;
+        
+        boolean colliding = ring.intersects(other);
+        if (!colliding) return new CollisionResult(false);
+        
+        Vector2D center = ring.getCenter();
+        double[] core = ShapeDistance.core(other);
+        Vector2D normal;
+        double penetrationDepth;
+        if (core != null) {
+            double[] closest = new double[2];
+            double nearest = ShapeDistance.pointDistance(core, center.getX(), center.getY(), closest);
+            double farthest = ShapeDistance.farthestDistance(core, center.getX(), center.getY());
+            double outward = ring.getOuterRadius() + core[5] - nearest;
+            double inward = farthest + core[5] - ring.getInnerRadius();
+            
+            if (outward <= inward) {
+                Vector2D toNearest = new Vector2D(closest[0], closest[1]).subtract(center);
+                normal = toNearest.magnitude() == 0 ? new Vector2D(1, 0) : toNearest.normalize();
+                penetrationDepth = outward;
+            } else {
+                Vector2D toOther = other.getCenter().subtract(center);
+                normal = toOther.magnitude() == 0 ? new Vector2D(-1, 0) : toOther.normalize().multiply(-1);
+                penetrationDepth = inward;
+            }
+        } else {
+            normal = other.getCenter().subtract(center).normalizeLocal();
+            penetrationDepth = 0;
+        }
+        
+        // Normals above point from the ring towards the other shape
+        if (ring == geom2) {
+            normal = normal.multiply(-1);
+        }
+        return new CollisionResult(true, normal.multiply(penetrationDepth), penetrationDepth, center);
+    }
+    
+    private static CollisionResult checkInstanceGeometry(Geometry geom1, Geometry geom2) {
+        ShapeInstance instance = geom1.getType() == GeometryType.INSTANCE ? (ShapeInstance) geom1 : (ShapeInstance) geom2;
+        Geometry other = instance == geom1 ? geom2 : geom1;
+        
+        CollisionResult result;
+        if (other.getType() == GeometryType.CIRCLE) {
+            result = instance.collideCircle((Circle) other);
+        } else {
+            boolean colliding = instance.intersects(other);
+            if (!colliding) return new CollisionResult(false);
+            
+            Vector2D normal = other.getCenter().subtract(instance.getCenter()).normalizeLocal();
+            result = new CollisionResult(true, normal, 0, instance.getCenter());
+        }
+        
+        // Normals above point from the instance towards the other shape
+        if (instance == geom2 && result.isColliding()) {
+            return new CollisionResult(true, result.getPenetrationVector().multiply(-1),
+                                       result.getPenetrationDepth(), result.getContactPoint());
+        }
+        return result;
+    }
+    
     private static CollisionResult checkEllipseGeometry(Ellipse ellipse, Geometry geom) {
         boolean colliding = ellipse.intersects(geom);
         if (!colliding) return new CollisionResult(false);
         
         Vector2D center1 = ellipse.getCenter();
         Vector2D center2 = geom.getCenter();
-        Vector2D normal = center2.subtract(center1).normalize();
+        Vector2D normal = center2.subtract(center1).normalizeLocal();
         
         // Calculate penetration depth more accurately for ellipses
         double penetrationDepth = 0;
@@ -204,7 +427,7 @@ public class CollisionDetector {
         
         Vector2D center1 = curve.getCenter();
         Vector2D center2 = geom.getCenter();
-        Vector2D normal = center2.subtract(center1).normalize();
+        Vector2D normal = center2.subtract(center1).normalizeLocal();
         
         // Find closest point on curve to other geometry's center
         Vector2D closestPoint = findClosestPointOnCurve(curve, center2);
@@ -219,23 +442,7 @@ public class CollisionDetector {
     }
     
     private static CollisionResult checkCompositeGeometry(CompositeShape composite, Geometry geom) {
-        boolean colliding = composite.intersects(geom);
-        if (!colliding) return new CollisionResult(false);
-        
-        Vector2D center1 = composite.getCenter();
-        Vector2D center2 = geom.getCenter();
-        Vector2D normal = center2.subtract(center1).normalize();
-        
-        // Find the most significant collision among composite shapes
-        double maxPenetration = 0;
-        for (Geometry shape : composite.getShapes()) {
-            CollisionResult result = checkCollision(shape, geom);
-            if (result.isColliding()) {
-                maxPenetration = Math.max(maxPenetration, result.getPenetrationDepth());
-            }
-        }
-        
-        return new CollisionResult(true, normal, maxPenetration, center1);
+        return composite.collide(geom);
     }
     
     private static CollisionResult checkFreeFormGeometry(FreeForm freeForm, Geometry geom) {
@@ -244,7 +451,7 @@ public class CollisionDetector {
         
         Vector2D center1 = freeForm.getCenter();
         Vector2D center2 = geom.getCenter();
-        Vector2D normal = center2.subtract(center1).normalize();
+        Vector2D normal = center2.subtract(center1).normalizeLocal();
         
         // For freeform, use approximate penetration depth
         double penetrationDepth = 2.0; // Default approximation
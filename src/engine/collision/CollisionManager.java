@@ -1,5 +1,7 @@
 package engine.collision;
 
+import engine.jfr.BroadphaseRebuildEvent;
+import engine.jfr.NarrowphaseEvent;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,6 +10,13 @@ public class CollisionManager {
     private SpatialIndexingMethod indexingMethod;
     private Object spatialIndex;
     
+    // Pair statistics of checkAllCollisions: the last pass and totals since the last reset
+    private long checkCount;
+    private long lastPairsTested;
+    private int lastCollisionsFound;
+    private long totalPairsTested;
+    private long totalCollisionsFound;
+    
     public enum SpatialIndexingMethod {
         NONE,
         QUADTREE,
@@ -74,14 +83,44 @@ public class CollisionManager {
     }
     
     public List<CollisionResult> checkAllCollisions() {
+        NarrowphaseEvent event = new NarrowphaseEvent();
+        event.begin();
+        List<CollisionResult> collisions = findCollisions();
+        event.end();
+        
+        checkCount++;
+        lastCollisionsFound = collisions.size();
+        totalPairsTested += lastPairsTested;
+        totalCollisionsFound += lastCollisionsFound;
+        
+        if (event.shouldCommit()) {
+            event.indexingMethod = indexingMethod.name();
+            event.objectCount = objects.size();
+            event.pairsTested = lastPairsTested;
+            event.collisionCount = collisions.size();
+            event.commit();
+        }
+        return collisions;
+    }
+    
+    private List<CollisionResult> findCollisions() {
         switch (indexingMethod) {
             case QUADTREE:
-                return ((QuadTree) spatialIndex).checkCollisions();
+                QuadTree quadTree = (QuadTree) spatialIndex;
+                List<CollisionResult> treeCollisions = quadTree.checkCollisions();
+                lastPairsTested = quadTree.getLastPairsTested();
+                return treeCollisions;
             case SPATIAL_HASH:
-                if (spatialIndex != null) {
-                    ((SpatialHashGrid) spatialIndex).update();
+                SpatialHashGrid grid = (SpatialHashGrid) spatialIndex;
+                if (grid != null) {
+                    BroadphaseRebuildEvent event = new BroadphaseRebuildEvent();
+                    event.begin();
+                    grid.update();
+                    commitRebuild(event);
                 }
-                return ((SpatialHashGrid) spatialIndex).checkAllCollisions();
+                List<CollisionResult> gridCollisions = grid.checkAllCollisions();
+                lastPairsTested = grid.getLastPairsTested();
+                return gridCollisions;
             default:
                 return checkCollisionsBruteForce();
         }
@@ -89,6 +128,8 @@ public class CollisionManager {
     
     private List<CollisionResult> checkCollisionsBruteForce() {
         List<CollisionResult> collisions = new ArrayList<>();
+        int n = objects.size();
+        lastPairsTested = (long) n * (n - 1) / 2;
         
         for (int i = 0; i < objects.size(); i++) {
             for (int j = i + 1; j < objects.size(); j++) {
@@ -140,6 +181,8 @@ public class CollisionManager {
             this.indexingMethod = method;
             initializeSpatialIndex();
             
+            BroadphaseRebuildEvent event = new BroadphaseRebuildEvent();
+            event.begin();
             for (Geometry geom : objects) {
                 switch (method) {
                     case QUADTREE:
@@ -150,9 +193,35 @@ public class CollisionManager {
                         break;
                 }
             }
+            if (spatialIndex != null) {
+                commitRebuild(event);
+            }
+        }
+    }
+    
+    private void commitRebuild(BroadphaseRebuildEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.indexingMethod = indexingMethod.name();
+            event.objectCount = objects.size();
+            event.commit();
         }
     }
     
+    public long getCheckCount() { return checkCount; }
+    public long getLastPairsTested() { return lastPairsTested; }
+    public int getLastCollisionsFound() { return lastCollisionsFound; }
+    public long getTotalPairsTested() { return totalPairsTested; }
+    public long getTotalCollisionsFound() { return totalCollisionsFound; }
+    
+    public void resetStatistics() {
+        checkCount = 0;
+        lastPairsTested = 0;
+        lastCollisionsFound = 0;
+        totalPairsTested = 0;
+        totalCollisionsFound = 0;
+    }
+    
     public int getObjectCount() {
         return objects.size();
     }
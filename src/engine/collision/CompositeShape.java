@@ -8,6 +8,11 @@ public class CompositeShape implements Geometry {
     private Vector2D center;
     private boolean unionMode; // true for union, false for intersection
     
+    // Child hierarchy, union bounds and hull, rebuilt lazily after the child list changes
+    private BoundsTree boundsTree;
+    private BoundingBox bounds;
+    private ConvexHull convexHull;
+    
     public CompositeShape() {
         this.shapes = new ArrayList<>();
         this.center = new Vector2D(0, 0);
@@ -33,18 +38,63 @@ public class CompositeShape implements Geometry {
     public void addShape(Geometry shape) {
         shapes.add(shape);
         updateCenter();
+        invalidateBounds();
     }
     
     public void removeShape(Geometry shape) {
         shapes.remove(shape);
         updateCenter();
+        invalidateBounds();
     }
     
     public void removeShape(int index) {
         if (index >= 0 && index < shapes.size()) {
             shapes.remove(index);
             updateCenter();
+            invalidateBounds();
+        }
+    }
+    
+    // Call after moving or reshaping a child directly rather than through this composite
+    public void invalidateBounds() {
+        boundsTree = null;
+        bounds = null;
+        convexHull = null;
+    }
+    
+    // Hull around all children; curves among them widen it by their tolerance
+    public ConvexHull getConvexHull() {
+        if (convexHull == null) {
+            List<Vector2D> points = new ArrayList<>();
+            double margin = 0;
+            for (Geometry shape : shapes) {
+                ConvexHull.addOutline(shape, points);
+                ConvexHull childHull = ConvexHull.hullOf(shape);
+                if (childHull != null) {
+                    margin = Math.max(margin, childHull.getMargin());
+                }
+            }
+            convexHull = new ConvexHull(points, margin);
+        }
+        return convexHull;
+    }
+    
+    private BoundsTree getBoundsTree() {
+        if (boundsTree == null) {
+            BoundingBox[] childBounds = new BoundingBox[shapes.size()];
+            for (int i = 0; i < childBounds.length; i++) {
+                childBounds[i] = shapes.get(i).getBoundingBox();
+            }
+            boundsTree = new BoundsTree(childBounds);
         }
+        return boundsTree;
+    }
+    
+    // Indices of the children whose bounds overlap the given box, written to candidates.
+    // Each query brings its own array: children can be shared, and a child's test can
+    // come back into this composite.
+    private int queryChildren(BoundingBox box, int[] candidates) {
+        return getBoundsTree().query(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), candidates);
     }
     
     public List<Geometry> getShapes() {
@@ -75,31 +125,73 @@ public class CompositeShape implements Geometry {
     
     @Override
     public boolean intersects(Geometry other) {
+        if (shapes.isEmpty()) return false;
+        
+        BoundingBox otherBounds = other.getBoundingBox();
+        if (!getBoundingBox().intersects(otherBounds)) return false;
+        
         if (unionMode) {
             // Union mode: intersect if any shape intersects
-            for (Geometry shape : shapes) {
-                if (shape.intersects(other)) {
+            int[] candidates = new int[shapes.size()];
+            int count = queryChildren(otherBounds, candidates);
+            for (int i = 0; i < count; i++) {
+                if (shapes.get(candidates[i]).intersects(other)) {
                     return true;
                 }
             }
             return false;
         } else {
             // Intersection mode: intersect only if all shapes intersect
+            if (queryChildren(otherBounds, new int[shapes.size()]) < shapes.size()) return false;
             for (Geometry shape : shapes) {
                 if (!shape.intersects(other)) {
                     return false;
                 }
             }
-            return !shapes.isEmpty();
+            return true;
+        }
+    }
+    
+    // Single pass for CollisionDetector: runs the full check on each candidate child once
+    // and keeps the deepest penetration
+    CollisionResult collide(Geometry other) {
+        if (shapes.isEmpty()) return new CollisionResult(false);
+        
+        BoundingBox otherBounds = other.getBoundingBox();
+        if (!getBoundingBox().intersects(otherBounds)) return new CollisionResult(false);
+        
+        int[] candidates = new int[shapes.size()];
+        int count = queryChildren(otherBounds, candidates);
+        if (!unionMode && count < shapes.size()) return new CollisionResult(false);
+        
+        boolean colliding = false;
+        double maxPenetration = 0;
+        for (int i = 0; i < count; i++) {
+            CollisionResult result = CollisionDetector.checkCollision(shapes.get(candidates[i]), other);
+            if (result.isColliding()) {
+                colliding = true;
+                maxPenetration = Math.max(maxPenetration, result.getPenetrationDepth());
+            } else if (!unionMode) {
+                return new CollisionResult(false);
+            }
         }
+        if (!colliding) return new CollisionResult(false);
+        
+        Vector2D normal = other.getCenter().subtract(center).normalize();
+        return new CollisionResult(true, normal, maxPenetration, center);
     }
     
     @Override
     public boolean containsPoint(Vector2D point) {
+        if (shapes.isEmpty()) return false;
+        if (!getBoundingBox().containsPoint(point)) return false;
+        
         if (unionMode) {
             // Union mode: contains point if any shape contains it
-            for (Geometry shape : shapes) {
-                if (shape.containsPoint(point)) {
+            int[] candidates = new int[shapes.size()];
+            int count = getBoundsTree().query(point.getX(), point.getY(), point.getX(), point.getY(), candidates);
+            for (int i = 0; i < count; i++) {
+                if (shapes.get(candidates[i]).containsPoint(point)) {
                     return true;
                 }
             }
@@ -111,7 +203,7 @@ public class CompositeShape implements Geometry {
                     return false;
                 }
             }
-            return !shapes.isEmpty();
+            return true;
         }
     }
     
@@ -121,9 +213,9 @@ public class CompositeShape implements Geometry {
             return new BoundingBox(0, 0, 0, 0);
         }
         
-        BoundingBox bounds = shapes.get(0).getBoundingBox();
-        for (int i = 1; i < shapes.size(); i++) {
-            bounds = bounds.union(shapes.get(i).getBoundingBox());
+        if (bounds == null) {
+            BoundsTree tree = getBoundsTree();
+            bounds = new BoundingBox(tree.getMinX(), tree.getMinY(), tree.getMaxX(), tree.getMaxY());
         }
         return bounds;
     }
@@ -139,6 +231,22 @@ public class CompositeShape implements Geometry {
             shape.translate(offset);
         }
         center = center.add(offset);
+        
+        // Children move rigidly, so shift the hierarchy instead of rebuilding it
+        if (boundsTree != null) {
+            boundsTree.translate(offset.getX(), offset.getY());
+        }
+        if (convexHull != null) {
+            convexHull.translate(offset);
+        }
+        if (bounds != null) {
+            bounds = new BoundingBox(
+                bounds.getMinX() + offset.getX(),
+                bounds.getMinY() + offset.getY(),
+                bounds.getMaxX() + offset.getX(),
+                bounds.getMaxY() + offset.getY()
+            );
+        }
     }
     
     @Override
@@ -0,0 +1,224 @@
+package engine.collision;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Convex hull of a shape's points (Andrew's monotone chain), optionally grown by a margin.
+// Used as a tighter rejection stage than bounding boxes for shapes whose detailed tests
+// are expensive, and as a convex approximation through its support function.
+public class ConvexHull {
+    private final double[] x;
+    private final double[] y;
+    // Unit outward normal and offset (vertex . normal) of the edge starting at each vertex
+    private final double[] normalX;
+    private final double[] normalY;
+    private final double[] edgeOffset;
+    private final int count;
+    private final double margin;
+    
+    public ConvexHull(List<Vector2D> points, double margin) {
+        double[] px = new double[points.size()];
+        double[] py = new double[points.size()];
+        for (int i = 0; i < px.length; i++) {
+            px[i] = points.get(i).getX();
+            py[i] = points.get(i).getY();
+        }
+        this.margin = margin;
+        
+        // Sort by x, then y
+        Integer[] order = new Integer[px.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> px[a] != px[b] ? Double.compare(px[a], px[b]) : Double.compare(py[a], py[b]));
+        
+        // Lower chain left to right, then upper chain back, dropping any point that does
+        // not make a strict left turn
+        int n = px.length;
+        double[] hx = new double[2 * n];
+        double[] hy = new double[2 * n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int p = order[i];
+            while (k >= 2 && cross(hx[k - 2], hy[k - 2], hx[k - 1], hy[k - 1], px[p], py[p]) <= 0) k--;
+            hx[k] = px[p];
+            hy[k] = py[p];
+            k++;
+        }
+        for (int i = n - 2, lowerSize = k + 1; i >= 0; i--) {
+            int p = order[i];
+            while (k >= lowerSize && cross(hx[k - 2], hy[k - 2], hx[k - 1], hy[k - 1], px[p], py[p]) <= 0) k--;
+            hx[k] = px[p];
+            hy[k] = py[p];
+            k++;
+        }
+        // The chains share their end points
+        if (n > 1) k--;
+        
+        this.count = k;
+        this.x = Arrays.copyOf(hx, count);
+        this.y = Arrays.copyOf(hy, count);
+        this.normalX = new double[count];
+        this.normalY = new double[count];
+        this.edgeOffset = new double[count];
+        updateNormals();
+    }
+    
+    private static double cross(double ax, double ay, double bx, double by, double cx, double cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+    
+    // Counter-clockwise winding (with y up), so (dy, -dx) points out of each edge
+    private void updateNormals() {
+        if (count < 2) return;
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            double dx = x[j] - x[i];
+            double dy = y[j] - y[i];
+            double length = Math.hypot(dx, dy);
+            normalX[i] = length == 0 ? 0 : dy / length;
+            normalY[i] = length == 0 ? 0 : -dx / length;
+            edgeOffset[i] = x[i] * normalX[i] + y[i] * normalY[i];
+        }
+    }
+    
+    public int getVertexCount() {
+        return count;
+    }
+    
+    public Vector2D[] getVertices() {
+        Vector2D[] vertices = new Vector2D[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new Vector2D(x[i], y[i]);
+        }
+        return vertices;
+    }
+    
+    public double getMargin() {
+        return margin;
+    }
+    
+    // Farthest point of the hull (including its margin) in the given direction
+    public Vector2D support(Vector2D direction) {
+        int best = 0;
+        double bestDot = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double dot = x[i] * direction.getX() + y[i] * direction.getY();
+            if (dot > bestDot) {
+                bestDot = dot;
+                best = i;
+            }
+        }
+        double length = direction.magnitude();
+        if (length == 0 || margin == 0) return new Vector2D(x[best], y[best]);
+        return new Vector2D(x[best] + direction.getX() / length * margin, y[best] + direction.getY() / length * margin);
+    }
+    
+    public boolean containsPoint(Vector2D point) {
+        if (count < 3) return false;
+        for (int i = 0; i < count; i++) {
+            if (point.getX() * normalX[i] + point.getY() * normalY[i] > edgeOffset[i] + margin) return false;
+        }
+        return true;
+    }
+    
+    // True when one of the hull's edges proves the other shape lies entirely outside it.
+    // Only ever errs towards false, so a false result means the detailed test must run.
+    public boolean separates(Geometry other) {
+        if (count < 2) return false;
+        ConvexHull otherHull = hullOf(other);
+        for (int i = 0; i < count; i++) {
+            if (lowestProjection(other, otherHull, normalX[i], normalY[i]) > edgeOffset[i] + margin) return true;
+        }
+        return false;
+    }
+    
+    // Smallest value of point . (nx, ny) over the other shape, or a lower bound of it
+    private static double lowestProjection(Geometry other, ConvexHull otherHull, double nx, double ny) {
+        if (otherHull != null) {
+            double lowest = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < otherHull.count; i++) {
+                lowest = Math.min(lowest, otherHull.x[i] * nx + otherHull.y[i] * ny);
+            }
+            return lowest - otherHull.margin;
+        }
+        
+        switch (other.getType()) {
+            case CIRCLE:
+                Circle circle = (Circle) other;
+                return circle.getCenter().getX() * nx + circle.getCenter().getY() * ny - circle.getRadius();
+            case POLYGON:
+                double lowest = Double.POSITIVE_INFINITY;
+                for (Vector2D vertex : ((Polygon) other).getVertices()) {
+                    lowest = Math.min(lowest, vertex.getX() * nx + vertex.getY() * ny);
+                }
+                return lowest;
+            case LINE:
+                Line line = (Line) other;
+                return Math.min(line.getStart().getX() * nx + line.getStart().getY() * ny,
+                                line.getEnd().getX() * nx + line.getEnd().getY() * ny);
+            default:
+                // Rectangles are exact here; anything else is bounded by its box
+                BoundingBox box = other.getBoundingBox();
+                return (nx >= 0 ? box.getMinX() : box.getMaxX()) * nx + (ny >= 0 ? box.getMinY() : box.getMaxY()) * ny;
+        }
+    }
+    
+    // Cached hull of the shapes that keep one, null for the rest
+    static ConvexHull hullOf(Geometry geometry) {
+        switch (geometry.getType()) {
+            case FREEFORM:
+                return ((FreeForm) geometry).getConvexHull();
+            case CURVE:
+                return ((Curve) geometry).getConvexHull();
+            case COMPOSITE:
+                return ((CompositeShape) geometry).getConvexHull();
+            default:
+                return null;
+        }
+    }
+    
+    // Points whose hull encloses the shape, for building the hull of a group of shapes
+    static void addOutline(Geometry geometry, List<Vector2D> points) {
+        ConvexHull hull = hullOf(geometry);
+        if (hull != null && hull.margin == 0) {
+            for (int i = 0; i < hull.count; i++) {
+                points.add(new Vector2D(hull.x[i], hull.y[i]));
+            }
+            return;
+        }
+        
+        switch (geometry.getType()) {
+            case POLYGON:
+                points.addAll(Arrays.asList(((Polygon) geometry).getVertices()));
+                break;
+            case LINE:
+                points.add(((Line) geometry).getStart());
+                points.add(((Line) geometry).getEnd());
+                break;
+            case CIRCLE:
+                // Circumscribed octagon
+                Circle circle = (Circle) geometry;
+                double reach = circle.getRadius() / Math.cos(Math.PI / 8);
+                for (int i = 0; i < 8; i++) {
+                    double angle = Math.PI / 8 + i * Math.PI / 4;
+                    points.add(circle.getCenter().add(new Vector2D(Math.cos(angle) * reach, Math.sin(angle) * reach)));
+                }
+                break;
+            default:
+                BoundingBox box = geometry.getBoundingBox();
+                points.add(new Vector2D(box.getMinX(), box.getMinY()));
+                points.add(new Vector2D(box.getMaxX(), box.getMinY()));
+                points.add(new Vector2D(box.getMaxX(), box.getMaxY()));
+                points.add(new Vector2D(box.getMinX(), box.getMaxY()));
+        }
+    }
+    
+    public void translate(Vector2D offset) {
+        for (int i = 0; i < count; i++) {
+            x[i] += offset.getX();
+            y[i] += offset.getY();
+        }
+        updateNormals();
+    }
+}
\ No newline at end of file
@@ -3,32 +3,34 @@ package engine.collision;
 import java.util.List;
 
 public class Curve implements Geometry {
+    private static final double CONTAINS_TOLERANCE = 2.0; // pixels
+    
     private CurveMath.BezierCurve bezierCurve;
+    // Sampled polyline, center, bounds and hull are built on first use and dropped on change
     private Vector2D center;
     private List<Vector2D> samplePoints;
+    private BoundingBox boundingBox;
+    private ConvexHull convexHull;
     private int resolution;
     
     public Curve(Vector2D[] controlPoints) {
         this.bezierCurve = new CurveMath.BezierCurve(controlPoints);
-        this.samplePoints = bezierCurve.samplePoints(50);
         this.resolution = 50;
-        this.center = calculateCenter();
     }
     
     public Curve(Vector2D[] controlPoints, int resolution) {
         this.bezierCurve = new CurveMath.BezierCurve(controlPoints);
         this.resolution = Math.max(10, resolution);
-        this.samplePoints = bezierCurve.samplePoints(this.resolution);
-        this.center = calculateCenter();
     }
     
     private Vector2D calculateCenter() {
+        List<Vector2D> points = getSamplePoints();
         double sumX = 0, sumY = 0;
-        for (Vector2D point : samplePoints) {
+        for (Vector2D point : points) {
             sumX += point.getX();
             sumY += point.getY();
         }
-        return new Vector2D(sumX / samplePoints.size(), sumY / samplePoints.size());
+        return new Vector2D(sumX / points.size(), sumY / points.size());
     }
     
     public Vector2D getPoint(double t) {
@@ -44,11 +46,22 @@ public class Curve implements Geometry {
     }
     
     public List<Vector2D> getSamplePoints() {
+        if (samplePoints == null) {
+            samplePoints = bezierCurve.samplePoints(resolution);
+        }
         return samplePoints;
     }
     
     public int getResolution() { return resolution; }
     
+    // Hull of the sampled polyline, grown by the containsPoint tolerance
+    public ConvexHull getConvexHull() {
+        if (convexHull == null) {
+            convexHull = new ConvexHull(getSamplePoints(), CONTAINS_TOLERANCE);
+        }
+        return convexHull;
+    }
+    
     @Override
     public boolean intersects(Geometry other) {
         if (other.getType() == GeometryType.CIRCLE) {
@@ -69,9 +82,10 @@ public class Curve implements Geometry {
     
     private boolean intersectsCircle(Circle circle) {
         // Sample the curve and check for intersection
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment = new Line(p1, p2);
             if (circle.intersectsLine(segment)) {
                 return true;
@@ -79,7 +93,7 @@ public class Curve implements Geometry {
         }
         
         // Also check if any control points are inside the circle
-        for (Vector2D point : samplePoints) {
+        for (Vector2D point : points) {
             if (circle.containsPoint(point)) {
                 return true;
             }
@@ -90,9 +104,10 @@ public class Curve implements Geometry {
     
     private boolean intersectsRectangle(Rectangle rectangle) {
         // Sample the curve and check each segment against rectangle
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment = new Line(p1, p2);
             if (rectangle.intersectsLine(segment)) {
                 return true;
@@ -100,7 +115,7 @@ public class Curve implements Geometry {
         }
         
         // Check if any sample points are inside rectangle
-        for (Vector2D point : samplePoints) {
+        for (Vector2D point : points) {
             if (rectangle.containsPoint(point)) {
                 return true;
             }
@@ -111,9 +126,10 @@ public class Curve implements Geometry {
     
     boolean intersectsPolygon(Polygon polygon) {
         // Sample the curve and check each segment against polygon edges
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment = new Line(p1, p2);
             if (polygon.intersectsLine(segment)) {
                 return true;
@@ -121,7 +137,7 @@ public class Curve implements Geometry {
         }
         
         // Check if any sample points are inside polygon
-        for (Vector2D point : samplePoints) {
+        for (Vector2D point : points) {
             if (polygon.containsPoint(point)) {
                 return true;
             }
@@ -131,9 +147,10 @@ public class Curve implements Geometry {
     }
     
     private boolean intersectsLine(Line line) {
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment = new Line(p1, p2);
             if (segment.intersects(line)) {
                 return true;
@@ -144,9 +161,10 @@ public class Curve implements Geometry {
     
     private boolean intersectsCurve(Curve other) {
         // Sample both curves and check for intersections
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment1 = new Line(p1, p2);
             
             List<Vector2D> otherPoints = other.getSamplePoints();
@@ -165,16 +183,17 @@ public class Curve implements Geometry {
     
     boolean intersectsEllipse(Ellipse ellipse) {
         // Sample the curve and check each point against ellipse
-        for (Vector2D point : samplePoints) {
+        List<Vector2D> points = getSamplePoints();
+        for (Vector2D point : points) {
             if (ellipse.containsPoint(point)) {
                 return true;
             }
         }
         
         // Check line segments
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             Line segment = new Line(p1, p2);
             if (ellipse.intersectsLine(segment)) {
                 return true;
@@ -187,10 +206,11 @@ public class Curve implements Geometry {
     @Override
     public boolean containsPoint(Vector2D point) {
         // For a curve, we check if the point is very close to the curve
-        double threshold = 2.0; // pixels/tolerance
-        for (int i = 0; i < samplePoints.size() - 1; i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get(i + 1);
+        List<Vector2D> points = getSamplePoints();
+        double threshold = CONTAINS_TOLERANCE;
+        for (int i = 0; i < points.size() - 1; i++) {
+            Vector2D p1 = points.get(i);
+            Vector2D p2 = points.get(i + 1);
             
             double distance = pointToLineDistance(point, p1, p2);
             if (distance <= threshold) {
@@ -214,21 +234,41 @@ public class Curve implements Geometry {
     
     @Override
     public BoundingBox getBoundingBox() {
-        return bezierCurve.getBoundingBox();
+        if (boundingBox == null) {
+            boundingBox = bezierCurve.getBoundingBox();
+        }
+        return boundingBox;
     }
     
     @Override
     public Vector2D getCenter() {
+        if (center == null) {
+            center = calculateCenter();
+        }
         return center;
     }
     
     @Override
     public void translate(Vector2D offset) {
-        center = center.add(offset);
-        // Update bezier curve control points (would need to modify BezierCurve class)
-        // For now, we'll recalculate the curve points
-        samplePoints = bezierCurve.samplePoints(resolution);
-        center = calculateCenter();
+        bezierCurve.translate(offset);
+        
+        // Derived data moves rigidly with the control points, so shift what is
+        // already built and leave the sampled polyline to be rebuilt on demand
+        samplePoints = null;
+        if (center != null) {
+            center = center.add(offset);
+        }
+        if (convexHull != null) {
+            convexHull.translate(offset);
+        }
+        if (boundingBox != null) {
+            boundingBox = new BoundingBox(
+                boundingBox.getMinX() + offset.getX(),
+                boundingBox.getMinY() + offset.getY(),
+                boundingBox.getMaxX() + offset.getX(),
+                boundingBox.getMaxY() + offset.getY()
+            );
+        }
     }
     
     @Override
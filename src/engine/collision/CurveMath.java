@@ -44,6 +44,12 @@ public class CurveMath {
             return points;
         }
         
+        public void translate(Vector2D offset) {
+            for (int i = 0; i < controlPoints.length; i++) {
+                controlPoints[i] = controlPoints[i].add(offset);
+            }
+        }
+        
         public BoundingBox getBoundingBox() {
             List<Vector2D> samples = samplePoints(20);
             double minX = Double.POSITIVE_INFINITY;
@@ -180,12 +186,15 @@ public class CurveMath {
         private double radiusX;
         private double radiusY;
         private double rotation;
+        // Cached for the rotation, which changes far less often than points are sampled
+        private double cosRot;
+        private double sinRot;
         
         public Ellipse(Vector2D center, double radiusX, double radiusY, double rotation) {
             this.center = center;
             this.radiusX = radiusX;
             this.radiusY = radiusY;
-            this.rotation = rotation;
+            setRotation(rotation);
         }
         
         public Ellipse(Vector2D center, double radiusX, double radiusY) {
@@ -193,10 +202,9 @@ public class CurveMath {
         }
         
         public Vector2D getPoint(double angle) {
-            double cosRot = Math.cos(rotation);
-            double sinRot = Math.sin(rotation);
-            double cosAngle = Math.cos(angle);
-            double sinAngle = Math.sin(angle);
+            FastTrig trig = FastTrig.getShared();
+            double cosAngle = trig.cos(angle);
+            double sinAngle = trig.sin(angle);
             
             double x = center.getX() + radiusX * cosAngle * cosRot - radiusY * sinAngle * sinRot;
             double y = center.getY() + radiusX * cosAngle * sinRot + radiusY * sinAngle * cosRot;
@@ -205,10 +213,9 @@ public class CurveMath {
         }
         
         public Vector2D getNormal(double angle) {
-            double cosRot = Math.cos(rotation);
-            double sinRot = Math.sin(rotation);
-            double cosAngle = Math.cos(angle);
-            double sinAngle = Math.sin(angle);
+            FastTrig trig = FastTrig.getShared();
+            double cosAngle = trig.cos(angle);
+            double sinAngle = trig.sin(angle);
             
             double nx = (cosAngle / radiusX) * cosRot - (sinAngle / radiusY) * sinRot;
             double ny = (cosAngle / radiusX) * sinRot + (sinAngle / radiusY) * cosRot;
@@ -218,8 +225,9 @@ public class CurveMath {
         }
         
         public double getCurvature(double angle) {
-            double cosAngle = Math.cos(angle);
-            double sinAngle = Math.sin(angle);
+            FastTrig trig = FastTrig.getShared();
+            double cosAngle = trig.cos(angle);
+            double sinAngle = trig.sin(angle);
             
             double numerator = Math.pow(radiusX * radiusY, 2);
             double denominator = Math.pow(
@@ -264,6 +272,10 @@ public class CurveMath {
         public void setCenter(Vector2D center) { this.center = center; }
         public void setRadiusX(double radiusX) { this.radiusX = radiusX; }
         public void setRadiusY(double radiusY) { this.radiusY = radiusY; }
-        public void setRotation(double rotation) { this.rotation = rotation; }
+        public void setRotation(double rotation) { 
+            this.rotation = rotation;
+            this.cosRot = Math.cos(rotation);
+            this.sinRot = Math.sin(rotation);
+        }
     }
 }
\ No newline at end of file
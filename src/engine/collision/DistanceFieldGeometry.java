@@ -0,0 +1,278 @@
+package engine.collision;
+
+// Static geometry baked into a grid of signed distances (negative inside). Points,
+// circles and penetration are a single bilinear lookup instead of walking the source
+// shape; distances are accurate to about one cell.
+public class DistanceFieldGeometry implements Geometry {
+    private static final int PADDING = 2;
+    private static final long MAX_CELLS = 16L * 1024 * 1024;
+    private static final int FAR = 1 << 14;
+    
+    private final float[] distances;
+    private final int columns;
+    private final int rows;
+    private final double cellSize;
+    private double originX;
+    private double originY;
+    private BoundingBox bounds;
+    private Vector2D center;
+    
+    public DistanceFieldGeometry(Geometry source, double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        
+        BoundingBox sourceBounds = source.getBoundingBox();
+        long columns = (long) Math.ceil(sourceBounds.getWidth() / cellSize) + 2 * PADDING;
+        long rows = (long) Math.ceil(sourceBounds.getHeight() / cellSize) + 2 * PADDING;
+        if (columns * rows > MAX_CELLS) {
+            throw new IllegalArgumentException("Distance field too large: " + columns + "x" + rows + " cells");
+        }
+        
+        this.columns = (int) columns;
+        this.rows = (int) rows;
+        this.cellSize = cellSize;
+        this.originX = sourceBounds.getMinX() - PADDING * cellSize;
+        this.originY = sourceBounds.getMinY() - PADDING * cellSize;
+        this.bounds = sourceBounds;
+        this.center = source.getCenter();
+        this.distances = new float[this.columns * this.rows];
+        
+        bake(source);
+    }
+    
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public double getCellSize() { return cellSize; }
+    
+    // Baking
+    
+    private void bake(Geometry source) {
+        boolean[] inside = new boolean[distances.length];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                inside[y * columns + x] = source.containsPoint(cellCenter(x, y));
+            }
+        }
+        
+        // Distance from each cell to the nearest cell of the opposite state; the
+        // boundary sits roughly half a cell from that cell's center
+        int[] toInside = transform(inside, true);
+        int[] toOutside = transform(inside, false);
+        for (int i = 0; i < distances.length; i++) {
+            double cells = Math.sqrt(inside[i] ? toOutside[i] : toInside[i]) - 0.5;
+            distances[i] = (float) (inside[i] ? -cells * cellSize : cells * cellSize);
+        }
+    }
+    
+    private Vector2D cellCenter(int x, int y) {
+        return new Vector2D(originX + (x + 0.5) * cellSize, originY + (y + 0.5) * cellSize);
+    }
+    
+    // Eight-point sequential Euclidean distance transform (8SSEDT); returns the squared
+    // distance in cells from every cell to the nearest seed cell
+    private int[] transform(boolean[] inside, boolean seedInside) {
+        int[] offsetX = new int[distances.length];
+        int[] offsetY = new int[distances.length];
+        for (int i = 0; i < distances.length; i++) {
+            boolean seed = inside[i] == seedInside;
+            offsetX[i] = seed ? 0 : FAR;
+            offsetY[i] = seed ? 0 : FAR;
+        }
+        
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                relax(offsetX, offsetY, x, y, -1, 0);
+                relax(offsetX, offsetY, x, y, 0, -1);
+                relax(offsetX, offsetY, x, y, -1, -1);
+                relax(offsetX, offsetY, x, y, 1, -1);
+            }
+            for (int x = columns - 1; x >= 0; x--) {
+                relax(offsetX, offsetY, x, y, 1, 0);
+            }
+        }
+        for (int y = rows - 1; y >= 0; y--) {
+            for (int x = columns - 1; x >= 0; x--) {
+                relax(offsetX, offsetY, x, y, 1, 0);
+                relax(offsetX, offsetY, x, y, 0, 1);
+                relax(offsetX, offsetY, x, y, -1, 1);
+                relax(offsetX, offsetY, x, y, 1, 1);
+            }
+            for (int x = 0; x < columns; x++) {
+                relax(offsetX, offsetY, x, y, -1, 0);
+            }
+        }
+        
+        int[] squared = new int[distances.length];
+        for (int i = 0; i < squared.length; i++) {
+            squared[i] = offsetX[i] * offsetX[i] + offsetY[i] * offsetY[i];
+        }
+        return squared;
+    }
+    
+    private void relax(int[] offsetX, int[] offsetY, int x, int y, int dx, int dy) {
+        int nx = x + dx;
+        int ny = y + dy;
+        if (nx < 0 || ny < 0 || nx >= columns || ny >= rows) return;
+        
+        int index = y * columns + x;
+        int neighbor = ny * columns + nx;
+        int candidateX = offsetX[neighbor] + dx;
+        int candidateY = offsetY[neighbor] + dy;
+        if (candidateX * candidateX + candidateY * candidateY < offsetX[index] * offsetX[index] + offsetY[index] * offsetY[index]) {
+            offsetX[index] = candidateX;
+            offsetY[index] = candidateY;
+        }
+    }
+    
+    // Lookups
+    
+    // Signed distance to the baked outline, negative inside
+    public double distance(Vector2D point) {
+        return sample(point.getX(), point.getY(), null);
+    }
+    
+    // Direction of increasing distance, i.e. the outward surface normal near the outline
+    public Vector2D normal(Vector2D point) {
+        double[] gradient = new double[2];
+        sample(point.getX(), point.getY(), gradient);
+        double length = Math.hypot(gradient[0], gradient[1]);
+        if (length == 0) return new Vector2D(0, -1);
+        return new Vector2D(gradient[0] / length, gradient[1] / length);
+    }
+    
+    private double sample(double x, double y, double[] gradient) {
+        double gx = (x - originX) / cellSize - 0.5;
+        double gy = (y - originY) / cellSize - 0.5;
+        double cx = Math.max(0, Math.min(gx, columns - 1));
+        double cy = Math.max(0, Math.min(gy, rows - 1));
+        
+        int x0 = Math.min((int) cx, columns - 2);
+        int y0 = Math.min((int) cy, rows - 2);
+        double fx = cx - x0;
+        double fy = cy - y0;
+        
+        double d00 = distances[y0 * columns + x0];
+        double d10 = distances[y0 * columns + x0 + 1];
+        double d01 = distances[(y0 + 1) * columns + x0];
+        double d11 = distances[(y0 + 1) * columns + x0 + 1];
+        double top = d00 + (d10 - d00) * fx;
+        double bottom = d01 + (d11 - d01) * fx;
+        double value = top + (bottom - top) * fy;
+        
+        // Beyond the grid, add the distance back to its edge
+        double outsideX = (gx - cx) * cellSize;
+        double outsideY = (gy - cy) * cellSize;
+        double outside = Math.hypot(outsideX, outsideY);
+        
+        if (gradient != null) {
+            if (outside > 0) {
+                gradient[0] = outsideX / outside;
+                gradient[1] = outsideY / outside;
+            } else {
+                gradient[0] = ((d10 - d00) * (1 - fy) + (d11 - d01) * fy) / cellSize;
+                gradient[1] = (bottom - top) / cellSize;
+            }
+        }
+        return value + outside;
+    }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (!bounds.intersects(other.getBoundingBox())) return false;
+        
+        if (other.getType() == GeometryType.CIRCLE) {
+            Circle circle = (Circle) other;
+            return distance(circle.getCenter()) <= circle.getRadius();
+        } else if (other.getType() == GeometryType.LINE) {
+            return intersectsLine((Line) other);
+        }
+        
+        if (containsPoint(other.getCenter())) return true;
+        if (other.getType() == GeometryType.POLYGON) {
+            for (Vector2D vertex : ((Polygon) other).getVertices()) {
+                if (containsPoint(vertex)) return true;
+            }
+        }
+        
+        // Solid cells under the other shape's bounds
+        BoundingBox box = other.getBoundingBox();
+        int minX = Math.max(0, (int) Math.floor((Math.max(box.getMinX(), bounds.getMinX()) - originX) / cellSize));
+        int minY = Math.max(0, (int) Math.floor((Math.max(box.getMinY(), bounds.getMinY()) - originY) / cellSize));
+        int maxX = Math.min(columns - 1, (int) Math.floor((Math.min(box.getMaxX(), bounds.getMaxX()) - originX) / cellSize));
+        int maxY = Math.min(rows - 1, (int) Math.floor((Math.min(box.getMaxY(), bounds.getMaxY()) - originY) / cellSize));
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                if (distances[y * columns + x] <= 0 && other.containsPoint(cellCenter(x, y))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    // Sphere tracing: the field says how far the segment can advance without a hit
+    private boolean intersectsLine(Line line) {
+        Vector2D start = line.getStart();
+        Vector2D direction = line.getEnd().subtract(start);
+        double length = direction.magnitude();
+        if (length == 0) return containsPoint(start);
+        
+        double dirX = direction.getX() / length;
+        double dirY = direction.getY() / length;
+        double minStep = cellSize * 0.25;
+        for (double t = 0; t < length; ) {
+            double d = sample(start.getX() + dirX * t, start.getY() + dirY * t, null);
+            if (d <= 0) return true;
+            t += Math.max(d, minStep);
+        }
+        return containsPoint(line.getEnd());
+    }
+    
+    // Circle contact straight from the field, used by CollisionDetector
+    CollisionResult collideCircle(Circle circle) {
+        if (!bounds.intersects(circle.getBoundingBox())) return new CollisionResult(false);
+        
+        Vector2D circleCenter = circle.getCenter();
+        double distance = distance(circleCenter);
+        double depth = circle.getRadius() - distance;
+        if (depth < 0) return new CollisionResult(false);
+        
+        Vector2D normal = normal(circleCenter);
+        Vector2D contactPoint = circleCenter.subtract(normal.multiply(distance));
+        return new CollisionResult(true, normal.multiply(depth), depth, contactPoint);
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        return distance(point) <= 0;
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return bounds;
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return center;
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        originX += offset.getX();
+        originY += offset.getY();
+        center = center.add(offset);
+        bounds = new BoundingBox(
+            bounds.getMinX() + offset.getX(),
+            bounds.getMinY() + offset.getY(),
+            bounds.getMaxX() + offset.getX(),
+            bounds.getMaxY() + offset.getY()
+        );
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.DISTANCE_FIELD;
+    }
+}
\ No newline at end of file
@@ -4,25 +4,34 @@ import java.util.List;
 
 public class Ellipse implements Geometry {
     private CurveMath.Ellipse ellipse;
+    // Sampled outline and bounds are built on first use and dropped by the setters
     private List<Vector2D> samplePoints;
+    private BoundingBox boundingBox;
     private int resolution;
     
+    // World-to-local transform: rotate by -rotation, then scale so the ellipse becomes
+    // the unit circle. Refreshed whenever the radii or rotation change.
+    private double cosRot;
+    private double sinRot;
+    private double invRadiusX;
+    private double invRadiusY;
+    
     public Ellipse(Vector2D center, double radiusX, double radiusY) {
         this.ellipse = new CurveMath.Ellipse(center, radiusX, radiusY);
         this.resolution = 64;
-        this.samplePoints = ellipse.samplePoints(this.resolution);
+        updateTransform();
     }
     
     public Ellipse(Vector2D center, double radiusX, double radiusY, double rotation) {
         this.ellipse = new CurveMath.Ellipse(center, radiusX, radiusY, rotation);
         this.resolution = 64;
-        this.samplePoints = ellipse.samplePoints(this.resolution);
+        updateTransform();
     }
     
     public Ellipse(Vector2D center, double radiusX, double radiusY, double rotation, int resolution) {
         this.ellipse = new CurveMath.Ellipse(center, radiusX, radiusY, rotation);
         this.resolution = Math.max(8, resolution);
-        this.samplePoints = ellipse.samplePoints(this.resolution);
+        updateTransform();
     }
     
     public Vector2D getPoint(double angle) {
@@ -38,9 +47,14 @@ public class Ellipse implements Geometry {
     }
     
     public List<Vector2D> getSamplePoints() {
+        if (samplePoints == null) {
+            samplePoints = ellipse.samplePoints(resolution);
+        }
         return samplePoints;
     }
     
+    public int getResolution() { return resolution; }
+    
     public Vector2D getCenter() { return ellipse.getCenter(); }
     public double getRadiusX() { return ellipse.getRadiusX(); }
     public double getRadiusY() { return ellipse.getRadiusY(); }
@@ -48,22 +62,62 @@ public class Ellipse implements Geometry {
     
     public void setCenter(Vector2D center) { 
         ellipse.setCenter(center);
-        samplePoints = ellipse.samplePoints(resolution);
+        invalidate();
     }
     
     public void setRadiusX(double radiusX) { 
         ellipse.setRadiusX(radiusX);
-        samplePoints = ellipse.samplePoints(resolution);
+        updateTransform();
+        invalidate();
     }
     
     public void setRadiusY(double radiusY) { 
         ellipse.setRadiusY(radiusY);
-        samplePoints = ellipse.samplePoints(resolution);
+        updateTransform();
+        invalidate();
     }
     
     public void setRotation(double rotation) { 
         ellipse.setRotation(rotation);
-        samplePoints = ellipse.samplePoints(resolution);
+        updateTransform();
+        invalidate();
+    }
+    
+    private void invalidate() {
+        samplePoints = null;
+        boundingBox = null;
+    }
+    
+    private void updateTransform() {
+        cosRot = Math.cos(ellipse.getRotation());
+        sinRot = Math.sin(ellipse.getRotation());
+        invRadiusX = 1.0 / ellipse.getRadiusX();
+        invRadiusY = 1.0 / ellipse.getRadiusY();
+    }
+    
+    private double toLocalX(double x, double y) {
+        Vector2D center = ellipse.getCenter();
+        return ((x - center.getX()) * cosRot + (y - center.getY()) * sinRot) * invRadiusX;
+    }
+    
+    private double toLocalY(double x, double y) {
+        Vector2D center = ellipse.getCenter();
+        return (-(x - center.getX()) * sinRot + (y - center.getY()) * cosRot) * invRadiusY;
+    }
+    
+    // The transform is affine, so the segment stays a segment and the ellipse becomes
+    // the unit circle: they touch iff the segment's closest point to the origin is within 1
+    boolean intersectsSegment(double x1, double y1, double x2, double y2) {
+        double ax = toLocalX(x1, y1);
+        double ay = toLocalY(x1, y1);
+        double dx = toLocalX(x2, y2) - ax;
+        double dy = toLocalY(x2, y2) - ay;
+        
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+        double cx = ax + dx * t;
+        double cy = ay + dy * t;
+        return cx * cx + cy * cy <= 1.0;
     }
     
     @Override
@@ -90,84 +144,76 @@ public class Ellipse implements Geometry {
     }
     
     private boolean intersectsCircle(Circle circle) {
-        // Transform circle to ellipse's local space
         Vector2D circleCenter = circle.getCenter();
-        Vector2D ellipseCenter = ellipse.getCenter();
-        Vector2D localCirclePos = circleCenter.subtract(ellipseCenter);
-        
-        // Rotate by negative ellipse rotation to align ellipse with axes
-        double cosRot = Math.cos(-ellipse.getRotation());
-        double sinRot = Math.sin(-ellipse.getRotation());
-        double localX = localCirclePos.getX() * cosRot - localCirclePos.getY() * sinRot;
-        double localY = localCirclePos.getX() * sinRot + localCirclePos.getY() * cosRot;
+        double localX = toLocalX(circleCenter.getX(), circleCenter.getY());
+        double localY = toLocalY(circleCenter.getX(), circleCenter.getY());
+        double distanceSquared = localX * localX + localY * localY;
+        if (distanceSquared <= 1) return true;
         
-        // Scale the space to make ellipse a circle
-        double scaledCircleRadiusX = circle.getRadius() / ellipse.getRadiusX();
-        double scaledCircleRadiusY = circle.getRadius() / ellipse.getRadiusY();
-        double maxScaledRadius = Math.max(scaledCircleRadiusX, scaledCircleRadiusY);
+        // Growing the unit circle by the radius over the smaller ellipse radius bounds every
+        // touching circle, so anything further away misses
+        double radius = circle.getRadius();
+        double limit = 1 + radius * Math.max(invRadiusX, invRadiusY);
+        if (distanceSquared > limit * limit) return false;
         
-        // Check distance from center
-        double distance = Math.sqrt(localX * localX / (ellipse.getRadiusX() * ellipse.getRadiusX()) + 
-                                  localY * localY / (ellipse.getRadiusY() * ellipse.getRadiusY()));
-        
-        return distance <= 1 + maxScaledRadius;
+        // Otherwise find the closest point on the ellipse, by symmetry in the first quadrant.
+        // Each step takes the point's direction (tx, ty) on the unit circle, measures the
+        // ellipse's local radius of curvature about its center of curvature (ex, ey), and
+        // moves to where the line from there towards the circle center crosses that arc. Six
+        // steps settle even a 100:1 ellipse to well under a thousandth of its size.
+        double a = ellipse.getRadiusX();
+        double b = ellipse.getRadiusY();
+        double px = Math.abs(localX) * a;
+        double py = Math.abs(localY) * b;
+        double tx = Math.sqrt(0.5);
+        double ty = tx;
+        for (int i = 0; i < 6; i++) {
+            double ex = (a * a - b * b) * tx * tx * tx / a;
+            double ey = (b * b - a * a) * ty * ty * ty / b;
+            double rx = a * tx - ex;
+            double ry = b * ty - ey;
+            double qx = px - ex;
+            double qy = py - ey;
+            double scale = Math.sqrt((rx * rx + ry * ry) / (qx * qx + qy * qy));
+            tx = Math.max(0, Math.min(1, (qx * scale + ex) / a));
+            ty = Math.max(0, Math.min(1, (qy * scale + ey) / b));
+            double length = Math.sqrt(tx * tx + ty * ty);
+            tx /= length;
+            ty /= length;
+        }
+        double dx = px - a * tx;
+        double dy = py - b * ty;
+        return dx * dx + dy * dy <= radius * radius;
     }
     
     private boolean intersectsRectangle(Rectangle rectangle) {
-        // Sample rectangle corners and edges
-        Vector2D[] corners = {
-            new Vector2D(rectangle.getLeft(), rectangle.getTop()),
-            new Vector2D(rectangle.getRight(), rectangle.getTop()),
-            new Vector2D(rectangle.getRight(), rectangle.getBottom()),
-            new Vector2D(rectangle.getLeft(), rectangle.getBottom())
-        };
-        
-        // Check if any rectangle corner is inside ellipse
-        for (Vector2D corner : corners) {
-            if (containsPoint(corner)) {
-                return true;
-            }
-        }
-        
-        // Check if ellipse center is inside rectangle
+        // Both shapes are convex: they overlap iff the rectangle holds the ellipse
+        // center or one of the rectangle edges reaches into the ellipse
         if (rectangle.containsPoint(ellipse.getCenter())) {
             return true;
         }
         
-        // Check ellipse edges against rectangle edges
-        for (int i = 0; i < samplePoints.size(); i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get((i + 1) % samplePoints.size());
-            Line ellipseEdge = new Line(p1, p2);
-            
-            if (rectangle.intersectsLine(ellipseEdge)) {
-                return true;
-            }
-        }
+        double left = rectangle.getLeft();
+        double right = rectangle.getRight();
+        double top = rectangle.getTop();
+        double bottom = rectangle.getBottom();
         
-        return false;
+        return intersectsSegment(left, top, right, top) ||
+               intersectsSegment(right, top, right, bottom) ||
+               intersectsSegment(right, bottom, left, bottom) ||
+               intersectsSegment(left, bottom, left, top);
     }
     
     private boolean intersectsPolygon(Polygon polygon) {
-        // Check if any polygon vertex is inside ellipse
-        for (Vector2D vertex : polygon.getVertices()) {
-            if (containsPoint(vertex)) {
-                return true;
-            }
-        }
-        
-        // Check if ellipse center is inside polygon
         if (polygon.containsPoint(ellipse.getCenter())) {
             return true;
         }
         
-        // Check ellipse edges against polygon edges
-        for (int i = 0; i < samplePoints.size(); i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get((i + 1) % samplePoints.size());
-            Line ellipseEdge = new Line(p1, p2);
-            
-            if (polygon.intersectsLine(ellipseEdge)) {
+        Vector2D[] vertices = polygon.getVertices();
+        for (int i = 0; i < vertices.length; i++) {
+            Vector2D v1 = vertices[i];
+            Vector2D v2 = vertices[(i + 1) % vertices.length];
+            if (intersectsSegment(v1.getX(), v1.getY(), v2.getX(), v2.getY())) {
                 return true;
             }
         }
@@ -176,28 +222,22 @@ public class Ellipse implements Geometry {
     }
     
     public boolean intersectsLine(Line line) {
-        // Check if line endpoints are inside ellipse
-        if (containsPoint(line.getStart()) || containsPoint(line.getEnd())) {
-            return true;
-        }
-        
-        // Check line against ellipse edges
-        for (int i = 0; i < samplePoints.size(); i++) {
-            Vector2D p1 = samplePoints.get(i);
-            Vector2D p2 = samplePoints.get((i + 1) % samplePoints.size());
-            Line ellipseEdge = new Line(p1, p2);
-            
-            if (ellipseEdge.intersects(line)) {
-                return true;
-            }
-        }
-        
-        return false;
+        Vector2D start = line.getStart();
+        Vector2D end = line.getEnd();
+        return intersectsSegment(start.getX(), start.getY(), end.getX(), end.getY());
     }
     
     private boolean intersectsEllipse(Ellipse other) {
+        // Settle the easy cases analytically before touching either outline
+        if (!getBoundingBox().intersects(other.getBoundingBox())) {
+            return false;
+        }
+        if (containsPoint(other.getCenter()) || other.containsPoint(getCenter())) {
+            return true;
+        }
+        
         // Approximate intersection by sampling both ellipses
-        for (Vector2D point : samplePoints) {
+        for (Vector2D point : getSamplePoints()) {
             if (other.containsPoint(point)) {
                 return true;
             }
@@ -214,25 +254,24 @@ public class Ellipse implements Geometry {
     
     @Override
     public boolean containsPoint(Vector2D point) {
-        // Transform point to ellipse's local space
-        Vector2D localPos = point.subtract(ellipse.getCenter());
-        
-        // Rotate by negative ellipse rotation to align ellipse with axes
-        double cosRot = Math.cos(-ellipse.getRotation());
-        double sinRot = Math.sin(-ellipse.getRotation());
-        double localX = localPos.getX() * cosRot - localPos.getY() * sinRot;
-        double localY = localPos.getX() * sinRot + localPos.getY() * cosRot;
-        
-        // Check if point is inside ellipse using ellipse equation
-        double value = (localX * localX) / (ellipse.getRadiusX() * ellipse.getRadiusX()) +
-                      (localY * localY) / (ellipse.getRadiusY() * ellipse.getRadiusY());
-        
-        return value <= 1.0;
+        double localX = toLocalX(point.getX(), point.getY());
+        double localY = toLocalY(point.getX(), point.getY());
+        return localX * localX + localY * localY <= 1.0;
     }
     
     @Override
     public BoundingBox getBoundingBox() {
-        return ellipse.getBoundingBox();
+        if (boundingBox == null) {
+            // Half extents of a rotated ellipse, no sampling needed
+            double rx = ellipse.getRadiusX();
+            double ry = ellipse.getRadiusY();
+            double halfWidth = Math.sqrt(rx * rx * cosRot * cosRot + ry * ry * sinRot * sinRot);
+            double halfHeight = Math.sqrt(rx * rx * sinRot * sinRot + ry * ry * cosRot * cosRot);
+            Vector2D center = ellipse.getCenter();
+            boundingBox = new BoundingBox(center.getX() - halfWidth, center.getY() - halfHeight,
+                                          center.getX() + halfWidth, center.getY() + halfHeight);
+        }
+        return boundingBox;
     }
     
     @Override
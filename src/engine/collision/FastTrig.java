@@ -0,0 +1,101 @@
+package engine.collision;
+
+// Table-based sine and cosine for the shape generators. The angle is snapped to the nearest
+// table sample and the small remaining offset f is corrected with the angle-sum formulas,
+// using sin f ~ f - f^3/6 and cos f ~ 1 - f^2/2. That costs two table loads and a few
+// multiplies, and with |f| at most half a table step the error stays tiny: about 4e-12
+// for the default 1024 entries (8 KB, so the table stays in L1).
+public final class FastTrig {
+    private static final int DEFAULT_SIZE = 1024;
+    private static final int MAX_SIZE = 1 << 24;
+    // Adding 1.5 * 2^52 rounds to the nearest integer and leaves it in the low mantissa
+    // bits, which is much cheaper than Math.rint plus a cast
+    private static final double ROUNDING_SHIFT = 0x1.8p52;
+    
+    private static FastTrig shared = new FastTrig(DEFAULT_SIZE);
+    
+    private final double[] sinTable;
+    private final int mask;
+    private final int quarter;
+    private final double samplesPerRadian;
+    private final double radiansPerSample;
+    
+    // size is the number of samples per turn and must be a power of two
+    public FastTrig(int size) {
+        if (size < 16 || size > MAX_SIZE || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Table size must be a power of two between 16 and " + MAX_SIZE + ": " + size);
+        }
+        this.sinTable = new double[size];
+        this.mask = size - 1;
+        this.quarter = size / 4;
+        this.samplesPerRadian = size / (2 * Math.PI);
+        this.radiansPerSample = 2 * Math.PI / size;
+        for (int i = 0; i < size; i++) {
+            sinTable[i] = Math.sin(i * radiansPerSample);
+        }
+    }
+    
+    // Smallest table whose error bound is within maxError
+    public static FastTrig withMaxError(double maxError) {
+        int size = 16;
+        while (errorBound(size) > maxError) {
+            if (size == MAX_SIZE) {
+                throw new IllegalArgumentException("Error bound too small for a lookup table: " + maxError);
+            }
+            size *= 2;
+        }
+        return new FastTrig(size);
+    }
+    
+    // Table used by the shape generators; replace it at startup to trade accuracy for size
+    public static FastTrig getShared() {
+        return shared;
+    }
+    
+    public static void setShared(FastTrig trig) {
+        if (trig == null) {
+            throw new IllegalArgumentException("Shared trig table must not be null");
+        }
+        shared = trig;
+    }
+    
+    public int getSize() {
+        return sinTable.length;
+    }
+    
+    // Largest difference from Math.sin / Math.cos for angles within +-1000 radians
+    public double getMaxError() {
+        return errorBound(sinTable.length);
+    }
+    
+    // The dropped series terms are at most f^4/24 (cosine) and f^5/120 (sine) for
+    // |f| <= pi / size. Rounding, mostly in reducing angles as large as 1000 radians,
+    // adds up to 5e-13.
+    private static double errorBound(int size) {
+        double f = Math.PI / size;
+        double f4 = f * f * f * f;
+        return f4 / 24 + f4 * f / 120 + 5e-13;
+    }
+    
+    public double sin(double angle) {
+        double x = angle * samplesPerRadian;
+        double shifted = x + ROUNDING_SHIFT;
+        double f = (x - (shifted - ROUNDING_SHIFT)) * radiansPerSample;
+        int i = (int) Double.doubleToRawLongBits(shifted) & mask;
+        double sinSample = sinTable[i];
+        double cosSample = sinTable[(i + quarter) & mask];
+        double f2 = f * f;
+        return sinSample * (1 - f2 / 2) + cosSample * f * (1 - f2 / 6);
+    }
+    
+    public double cos(double angle) {
+        double x = angle * samplesPerRadian;
+        double shifted = x + ROUNDING_SHIFT;
+        double f = (x - (shifted - ROUNDING_SHIFT)) * radiansPerSample;
+        int i = (int) Double.doubleToRawLongBits(shifted) & mask;
+        double sinSample = sinTable[i];
+        double cosSample = sinTable[(i + quarter) & mask];
+        double f2 = f * f;
+        return cosSample * (1 - f2 / 2) - sinSample * f * (1 - f2 / 6);
+    }
+}
\ No newline at end of file
@@ -9,6 +9,7 @@ public class FreeForm implements Geometry {
     private Vector2D center;
     private BoundingBox boundingBox;
     private boolean isSolid; // true for solid fill, false for outline only
+    private ConvexHull convexHull; // built on first use
     
     public FreeForm(List<Vector2D> points) {
         if (points.size() < 3) {
@@ -165,6 +166,14 @@ public class FreeForm implements Geometry {
     public List<Vector2D> getPoints() { return new ArrayList<>(points); }
     public List<Triangle> getTriangles() { return new ArrayList<>(triangles); }
     public boolean isSolid() { return isSolid; }
+    
+    public ConvexHull getConvexHull() {
+        if (convexHull == null) {
+            convexHull = new ConvexHull(points, 0);
+        }
+        return convexHull;
+    }
+    
     public void setSolid(boolean solid) { 
         this.isSolid = solid;
         if (solid && triangles.isEmpty()) {
@@ -416,6 +425,9 @@ public class FreeForm implements Geometry {
         }
         
         center = center.add(offset);
+        if (convexHull != null) {
+            convexHull.translate(offset);
+        }
         boundingBox = new BoundingBox(
             boundingBox.getMinX() + offset.getX(),
             boundingBox.getMinY() + offset.getY(),
@@ -450,13 +462,14 @@ public class FreeForm implements Geometry {
     }
     
     public static FreeForm createStarShape(Vector2D center, double outerRadius, double innerRadius, int points) {
+        FastTrig trig = FastTrig.getShared();
         List<Vector2D> starPoints = new ArrayList<>();
         
         for (int i = 0; i < points * 2; i++) {
             double angle = i * Math.PI / points - Math.PI / 2;
             double radius = (i % 2 == 0) ? outerRadius : innerRadius;
-            double x = center.getX() + radius * Math.cos(angle);
-            double y = center.getY() + radius * Math.sin(angle);
+            double x = center.getX() + radius * trig.cos(angle);
+            double y = center.getY() + radius * trig.sin(angle);
             starPoints.add(new Vector2D(x, y));
         }
         
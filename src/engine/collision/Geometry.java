@@ -7,4 +7,12 @@ public interface Geometry {
     Vector2D getCenter();
     void translate(Vector2D offset);
     GeometryType getType();
+    
+    // Moves the shape without allocating where the shape supports it, by updating its own
+    // vectors in place: anything still holding its center or vertices sees the move. Meant
+    // for shapes the engine owns, such as a GameObject's collider; others fall back to
+    // translate.
+    default void translateInPlace(double dx, double dy) {
+        translate(new Vector2D(dx, dy));
+    }
 }
\ No newline at end of file
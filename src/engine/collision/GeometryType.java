@@ -8,5 +8,22 @@ public enum GeometryType {
     CURVE,
     ELLIPSE,
     COMPOSITE,
-    FREEFORM
+    FREEFORM,
+    INSTANCE,
+    CAPSULE,
+    ROUNDED_RECT,
+    RING,
+    DISTANCE_FIELD,
+    BITMASK,
+    TILEMAP,
+    HEIGHTFIELD,
+    MAPPED_TILEMAP;
+    
+    // Newer shapes carry their own tests against circles, rectangles, lines and polygons,
+    // so those basic shapes hand such pairs over to them
+    boolean handlesBasicShapes() {
+        return this == CAPSULE || this == ROUNDED_RECT || this == RING ||
+               this == DISTANCE_FIELD || this == BITMASK || this == TILEMAP ||
+               this == HEIGHTFIELD || this == MAPPED_TILEMAP;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package engine.collision;
+
+// Cell walking shared by the grid-backed colliders
+final class GridTraversal {
+    interface CellTest {
+        boolean test(int column, int row);
+    }
+    
+    private GridTraversal() {}
+    
+    // Visits the cells a segment passes through in order (Amanatides & Woo) and stops at
+    // the first one the test accepts. Returns the fraction along the segment where that
+    // cell is entered, or -1 when there is no hit. The normal of the face crossed is
+    // written to normal when given; it is zero if the segment starts in the hit cell.
+    static double traceSegment(double originX, double originY, double cellSize, int columns, int rows,
+                               double x1, double y1, double x2, double y2, CellTest test, double[] normal) {
+        double gx = (x1 - originX) / cellSize;
+        double gy = (y1 - originY) / cellSize;
+        double dx = (x2 - x1) / cellSize;
+        double dy = (y2 - y1) / cellSize;
+        
+        // Clip to the grid first so far-away segments do not walk empty space
+        double tEnter = 0, tExit = 1;
+        int axis = -1;
+        if (dx == 0) {
+            if (gx < 0 || gx >= columns) return -1;
+        } else {
+            double t0 = -gx / dx, t1 = (columns - gx) / dx;
+            if (Math.min(t0, t1) > tEnter) {
+                tEnter = Math.min(t0, t1);
+                axis = 0;
+            }
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        }
+        if (dy == 0) {
+            if (gy < 0 || gy >= rows) return -1;
+        } else {
+            double t0 = -gy / dy, t1 = (rows - gy) / dy;
+            if (Math.min(t0, t1) > tEnter) {
+                tEnter = Math.min(t0, t1);
+                axis = 1;
+            }
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        }
+        if (tEnter > tExit) return -1;
+        
+        int column = Math.max(0, Math.min(columns - 1, (int) Math.floor(gx + dx * tEnter)));
+        int row = Math.max(0, Math.min(rows - 1, (int) Math.floor(gy + dy * tEnter)));
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        double tDeltaX = dx != 0 ? Math.abs(1 / dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? Math.abs(1 / dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx > 0 ? (column + 1 - gx) / dx : dx < 0 ? (column - gx) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy > 0 ? (row + 1 - gy) / dy : dy < 0 ? (row - gy) / dy : Double.POSITIVE_INFINITY;
+        
+        double t = tEnter;
+        while (t <= tExit) {
+            if (test.test(column, row)) {
+                if (normal != null) {
+                    normal[0] = axis == 0 ? -stepX : 0;
+                    normal[1] = axis == 1 ? -stepY : 0;
+                }
+                return t;
+            }
+            
+            if (tMaxX < tMaxY) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                column += stepX;
+                axis = 0;
+            } else {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                row += stepY;
+                axis = 1;
+            }
+            if (column < 0 || column >= columns || row < 0 || row >= rows) break;
+        }
+        return -1;
+    }
+}
\ No newline at end of file
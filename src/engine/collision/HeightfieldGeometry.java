@@ -0,0 +1,298 @@
+package engine.collision;
+
+// Terrain as evenly spaced surface heights above a base line. Everything between the
+// surface and the base is solid and the surface is linear between samples, so queries
+// index straight to the columns they cover instead of walking a triangulated outline.
+public class HeightfieldGeometry implements Geometry {
+    private final double[] heights;
+    private final double spacing;
+    private double originX;
+    private double baseY;
+    private double maxHeight;
+    
+    // Sample i sits at originX + i * spacing, heights[i] above baseY (towards smaller y)
+    public HeightfieldGeometry(double originX, double baseY, double spacing, double[] heights) {
+        if (heights.length < 2 || spacing <= 0) {
+            throw new IllegalArgumentException("Heightfield needs at least two samples and a positive spacing");
+        }
+        this.originX = originX;
+        this.baseY = baseY;
+        this.spacing = spacing;
+        this.heights = new double[heights.length];
+        for (int i = 0; i < heights.length; i++) {
+            setHeight(i, heights[i]);
+        }
+    }
+    
+    public int getSampleCount() { return heights.length; }
+    public double getSpacing() { return spacing; }
+    public double getOriginX() { return originX; }
+    public double getBaseY() { return baseY; }
+    public double getWidth() { return (heights.length - 1) * spacing; }
+    
+    public double getHeight(int index) {
+        return heights[index];
+    }
+    
+    public void setHeight(int index, double height) {
+        if (height < 0) {
+            throw new IllegalArgumentException("Heights must not be negative");
+        }
+        double previous = heights[index];
+        heights[index] = height;
+        if (height >= maxHeight) {
+            maxHeight = height;
+        } else if (previous == maxHeight) {
+            maxHeight = 0;
+            for (double h : heights) {
+                maxHeight = Math.max(maxHeight, h);
+            }
+        }
+    }
+    
+    // Surface y at x, clamped to the ends of the field
+    public double getSurfaceY(double x) {
+        int column = columnAt(x);
+        double f = Math.max(0, Math.min(1, (x - sampleX(column)) / spacing));
+        return sampleY(column) + (sampleY(column + 1) - sampleY(column)) * f;
+    }
+    
+    // Upward normal of the surface column under x
+    public Vector2D getSurfaceNormal(double x) {
+        int column = columnAt(x);
+        return new Vector2D(sampleY(column + 1) - sampleY(column), -spacing).normalize();
+    }
+    
+    private double sampleX(int index) {
+        return originX + index * spacing;
+    }
+    
+    private double sampleY(int index) {
+        return baseY - heights[index];
+    }
+    
+    private double endX() {
+        return originX + getWidth();
+    }
+    
+    // Column (between samples i and i + 1) under x, clamped to the field
+    private int columnAt(double x) {
+        return Math.max(0, Math.min(heights.length - 2, (int) Math.floor((x - originX) / spacing)));
+    }
+    
+    // Highest surface point (smallest y) over [minX, maxX]. The surface is linear within
+    // a column, so only the ends of the range and the samples inside it matter.
+    private double highestSurface(double minX, double maxX) {
+        double left = Math.max(minX, originX);
+        double right = Math.min(maxX, endX());
+        double highest = Math.min(getSurfaceY(left), getSurfaceY(right));
+        int first = Math.max(0, (int) Math.ceil((left - originX) / spacing));
+        int last = Math.min(heights.length - 1, (int) Math.floor((right - originX) / spacing));
+        for (int i = first; i <= last; i++) {
+            highest = Math.min(highest, sampleY(i));
+        }
+        return highest;
+    }
+    
+    // Queries
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        BoundingBox box = other.getBoundingBox();
+        if (!getBoundingBox().intersects(box)) return false;
+        
+        switch (other.getType()) {
+            case RECTANGLE:
+                return highestSurface(box.getMinX(), box.getMaxX()) <= box.getMaxY();
+            case CIRCLE:
+                Circle circle = (Circle) other;
+                return containsPoint(circle.getCenter()) ||
+                       boundaryDistance(circle.getCenter(), circle.getRadius(), null) <= circle.getRadius();
+            case LINE:
+                Line line = (Line) other;
+                return trace(line.getStart(), line.getEnd()) >= 0;
+            default:
+                if (highestSurface(box.getMinX(), box.getMaxX()) > box.getMaxY()) return false;
+                return other.intersects(slice(box.getMinX(), box.getMaxX()));
+        }
+    }
+    
+    // Distance from a point to the outline of the solid: the surface columns within reach,
+    // the two end walls and the base. The closest outline point goes into closest when given.
+    private double boundaryDistance(Vector2D point, double reach, double[] closest) {
+        double px = point.getX();
+        double py = point.getY();
+        double[] candidate = closest != null ? new double[2] : null;
+        double best = Double.POSITIVE_INFINITY;
+        
+        int first = columnAt(px - reach);
+        int last = columnAt(px + reach);
+        for (int i = first; i <= last + 3; i++) {
+            double distance;
+            if (i <= last) {
+                distance = ShapeDistance.pointSegment(px, py, sampleX(i), sampleY(i), sampleX(i + 1), sampleY(i + 1), candidate);
+            } else if (i == last + 1) {
+                distance = ShapeDistance.pointSegment(px, py, originX, sampleY(0), originX, baseY, candidate);
+            } else if (i == last + 2) {
+                distance = ShapeDistance.pointSegment(px, py, endX(), sampleY(heights.length - 1), endX(), baseY, candidate);
+            } else {
+                distance = ShapeDistance.pointSegment(px, py, originX, baseY, endX(), baseY, candidate);
+            }
+            if (distance < best) {
+                best = distance;
+                if (closest != null) {
+                    closest[0] = candidate[0];
+                    closest[1] = candidate[1];
+                }
+            }
+        }
+        return best;
+    }
+    
+    // Fraction along the segment where it first enters the solid, or -1. Walks the columns
+    // in the direction of travel; within a column the depth below the surface and the
+    // height above the base both change linearly, so the entry is solved directly.
+    private double trace(Vector2D start, Vector2D end) {
+        double x1 = start.getX();
+        double y1 = start.getY();
+        double dx = end.getX() - x1;
+        double dy = end.getY() - y1;
+        
+        // Clip to the field's x range
+        double tStart = 0, tEnd = 1;
+        if (dx == 0) {
+            if (x1 < originX || x1 > endX()) return -1;
+        } else {
+            double t0 = (originX - x1) / dx, t1 = (endX() - x1) / dx;
+            tStart = Math.max(tStart, Math.min(t0, t1));
+            tEnd = Math.min(tEnd, Math.max(t0, t1));
+            if (tStart > tEnd) return -1;
+        }
+        
+        // When moving left, a point on a column boundary belongs to the column on its left
+        double u = (x1 + dx * tStart - originX) / spacing;
+        int column = dx < 0 ? (int) Math.ceil(u) - 1 : (int) Math.floor(u);
+        column = Math.max(0, Math.min(heights.length - 2, column));
+        int step = dx > 0 ? 1 : -1;
+        
+        double t = tStart;
+        while (true) {
+            double next = tEnd;
+            if (dx != 0) {
+                next = Math.min(tEnd, (sampleX(dx > 0 ? column + 1 : column) - x1) / dx);
+            }
+            
+            // Solid where y >= surface and y <= base; both are linear in t over [t, next]
+            double slope = (sampleY(column + 1) - sampleY(column)) / spacing;
+            double surfaceDepth = y1 - (sampleY(column) + slope * (x1 - sampleX(column)));
+            double surfaceRate = dy - slope * dx;
+            double enter = t;
+            double exit = next;
+            if (surfaceRate == 0) {
+                if (surfaceDepth < 0) enter = Double.POSITIVE_INFINITY;
+            } else if (surfaceRate > 0) {
+                enter = Math.max(enter, -surfaceDepth / surfaceRate);
+            } else {
+                exit = Math.min(exit, -surfaceDepth / surfaceRate);
+            }
+            if (dy == 0) {
+                if (y1 > baseY) enter = Double.POSITIVE_INFINITY;
+            } else if (dy < 0) {
+                enter = Math.max(enter, (baseY - y1) / dy);
+            } else {
+                exit = Math.min(exit, (baseY - y1) / dy);
+            }
+            if (enter <= exit) return enter;
+            
+            if (next >= tEnd) return -1;
+            t = next;
+            column += step;
+            if (column < 0 || column > heights.length - 2) return -1;
+        }
+    }
+    
+    // First hit along a ray. The contact point is where the ray meets the terrain and the
+    // penetration vector holds the surface normal there.
+    public CollisionResult raycast(Vector2D start, Vector2D direction, double maxDistance) {
+        Vector2D end = start.add(direction.normalize().multiply(maxDistance));
+        double t = trace(start, end);
+        if (t < 0) return new CollisionResult(false);
+        
+        Vector2D hit = start.add(end.subtract(start).multiply(t));
+        return new CollisionResult(true, getSurfaceNormal(hit.getX()), 0, hit);
+    }
+    
+    // Contact used by CollisionDetector; the normal points from the terrain towards the
+    // other shape. Circles resolve against the nearest point of the outline, anything
+    // else is pushed straight up out of the highest ground under it.
+    CollisionResult collide(Geometry other) {
+        if (!intersects(other)) return new CollisionResult(false);
+        
+        if (other.getType() == GeometryType.CIRCLE) {
+            Circle circle = (Circle) other;
+            Vector2D center = circle.getCenter();
+            double[] closest = new double[2];
+            double distance = boundaryDistance(center, circle.getRadius(), closest);
+            Vector2D contactPoint = new Vector2D(closest[0], closest[1]);
+            boolean inside = containsPoint(center);
+            
+            Vector2D normal;
+            if (distance == 0) {
+                normal = getSurfaceNormal(center.getX());
+            } else if (inside) {
+                normal = contactPoint.subtract(center).normalize();
+            } else {
+                normal = center.subtract(contactPoint).normalize();
+            }
+            double depth = inside ? circle.getRadius() + distance : circle.getRadius() - distance;
+            return new CollisionResult(true, normal.multiply(depth), depth, contactPoint);
+        }
+        
+        BoundingBox box = other.getBoundingBox();
+        double depth = Math.max(0, box.getMaxY() - highestSurface(box.getMinX(), box.getMaxX()));
+        double contactX = Math.max(originX, Math.min(box.getCenter().getX(), endX()));
+        return new CollisionResult(true, new Vector2D(0, -depth), depth,
+                                   new Vector2D(contactX, getSurfaceY(contactX)));
+    }
+    
+    // The columns under [minX, maxX] as one polygon closed along the base
+    private Polygon slice(double minX, double maxX) {
+        int first = columnAt(minX);
+        int last = columnAt(maxX) + 1;
+        int count = last - first + 1;
+        Vector2D[] vertices = new Vector2D[count + 2];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new Vector2D(sampleX(first + i), sampleY(first + i));
+        }
+        vertices[count] = new Vector2D(sampleX(last), baseY);
+        vertices[count + 1] = new Vector2D(sampleX(first), baseY);
+        return new Polygon(vertices);
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        if (point.getX() < originX || point.getX() > endX()) return false;
+        return point.getY() <= baseY && point.getY() >= getSurfaceY(point.getX());
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(originX, baseY - maxHeight, endX(), baseY);
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return new Vector2D(originX + getWidth() / 2, baseY - maxHeight / 2);
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        originX += offset.getX();
+        baseY += offset.getY();
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.HEIGHTFIELD;
+    }
+}
\ No newline at end of file
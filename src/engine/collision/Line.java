@@ -29,6 +29,8 @@ public class Line implements Geometry {
             return intersectsPolygon((Polygon) other);
         } else if (other.getType() == GeometryType.LINE) {
             return intersects((Line) other);
+        } else if (other.getType().handlesBasicShapes()) {
+            return other.intersects(this);
         }
         return false;
     }
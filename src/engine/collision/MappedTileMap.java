@@ -0,0 +1,502 @@
+package engine.collision;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only tile map queried straight from a memory-mapped file, so huge static levels
+// load after one pass over the chunk directory (8 bytes per 4096 tiles) and only the pages
+// a query touches are ever read in.
+//
+// File layout (little endian):
+//   header     magic, version, columns, rows (ints), originX, originY, tileSize (doubles)
+//   directory  one long per 64x64 chunk, row-major: 0 = empty, -1 = solid, otherwise
+//              the file offset of the chunk's bits
+//   chunks     64 longs per chunk, one per row; bit c is the chunk's column c
+public class MappedTileMap implements Geometry {
+    private static final int MAGIC = 0x50414D54; // "TMAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final long EMPTY_CHUNK = 0;
+    private static final long SOLID_CHUNK = -1;
+    
+    private final ByteBuffer data;
+    private final int columns;
+    private final int rows;
+    private final int chunkColumns;
+    private final double tileSize;
+    private Vector2D origin;
+    private BoundingBox bounds;
+    
+    private MappedTileMap(ByteBuffer data) {
+        this.data = data;
+        this.columns = data.getInt(8);
+        this.rows = data.getInt(12);
+        this.chunkColumns = (columns + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        this.origin = new Vector2D(data.getDouble(16), data.getDouble(24));
+        this.tileSize = data.getDouble(32);
+        updateBounds();
+    }
+    
+    public static MappedTileMap open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Collision map too large to map: " + file);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (size < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw new IOException("Not a collision map: " + file);
+            }
+            
+            MappedTileMap map = new MappedTileMap(data);
+            long chunks = (long) map.chunkColumns * ((map.rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+            long directoryEnd = HEADER_SIZE + chunks * 8;
+            if (map.columns <= 0 || map.rows <= 0 || directoryEnd > size ||
+                !(map.tileSize > 0) || Double.isInfinite(map.tileSize) ||
+                !Double.isFinite(map.origin.getX()) || !Double.isFinite(map.origin.getY())) {
+                throw new IOException("Corrupt collision map: " + file);
+            }
+            // Chunk bits must lie whole, and aligned, between the directory and the end of the
+            // file, so lookups never read past it
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long entry = data.getLong((int) (HEADER_SIZE + chunk * 8));
+                if (entry != EMPTY_CHUNK && entry != SOLID_CHUNK &&
+                    (entry < directoryEnd || (entry & 7) != 0 || entry > size - CHUNK_SIZE * 8)) {
+                    throw new IOException("Corrupt collision map: " + file + " (chunk " + chunk + " at " + entry + ")");
+                }
+            }
+            return map;
+        }
+    }
+    
+    // Writing
+    
+    public static void write(Path file, TileMapGeometry map) throws IOException {
+        write(file, map.getOrigin(), map.getColumns(), map.getRows(), map.getTileSize(), map::isSolid);
+    }
+    
+    public static void write(Path file, BitmaskGeometry mask) throws IOException {
+        write(file, mask.getOrigin(), mask.getWidth(), mask.getHeight(), mask.getPixelSize(), mask::isSet);
+    }
+    
+    // Chunks are streamed out one at a time; only the directory is held in memory
+    static void write(Path file, Vector2D origin, int columns, int rows, double tileSize,
+                      GridTraversal.CellTest solid) throws IOException {
+        if (columns <= 0 || rows <= 0 || !(tileSize > 0) || Double.isInfinite(tileSize)) {
+            throw new IllegalArgumentException("Tile map size and tile size must be positive and finite");
+        }
+        int chunkColumns = (columns + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        int chunkRows = (rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        long directorySize = (long) chunkColumns * chunkRows * 8;
+        if (directorySize > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Tile map too large: " + columns + "x" + rows);
+        }
+        ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE * 8).order(ByteOrder.LITTLE_ENDIAN);
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = HEADER_SIZE + directory.capacity();
+            for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+                for (int chunkColumn = 0; chunkColumn < chunkColumns; chunkColumn++) {
+                    int setRows = 0;
+                    int fullRows = 0;
+                    chunk.clear();
+                    for (int r = 0; r < CHUNK_SIZE; r++) {
+                        long bits = 0;
+                        for (int c = 0; c < CHUNK_SIZE; c++) {
+                            int column = (chunkColumn << CHUNK_SHIFT) + c;
+                            int row = (chunkRow << CHUNK_SHIFT) + r;
+                            if (column < columns && row < rows && solid.test(column, row)) {
+                                bits |= 1L << c;
+                            }
+                        }
+                        chunk.putLong(bits);
+                        if (bits != 0) setRows++;
+                        if (bits == -1L) fullRows++;
+                    }
+                    
+                    // Chunks reaching past the map edge are never stored as solid
+                    long entry;
+                    if (setRows == 0) {
+                        entry = EMPTY_CHUNK;
+                    } else if (fullRows == CHUNK_SIZE) {
+                        entry = SOLID_CHUNK;
+                    } else {
+                        entry = offset;
+                        chunk.flip();
+                        while (chunk.hasRemaining()) {
+                            offset += channel.write(chunk, offset);
+                        }
+                    }
+                    directory.putLong(entry);
+                }
+            }
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(columns).putInt(rows);
+            header.putDouble(origin.getX()).putDouble(origin.getY()).putDouble(tileSize);
+            header.flip();
+            directory.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+            while (directory.hasRemaining()) {
+                position += channel.write(directory, position);
+            }
+        }
+    }
+    
+    // Lookups
+    
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public double getTileSize() { return tileSize; }
+    public Vector2D getOrigin() { return origin; }
+    
+    public boolean isSolid(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) return false;
+        return (rowBits(column >>> CHUNK_SHIFT, row) & (1L << column)) != 0;
+    }
+    
+    // The 64 tiles of a row within one chunk
+    private long rowBits(int chunkColumn, int row) {
+        int chunk = (row >>> CHUNK_SHIFT) * chunkColumns + chunkColumn;
+        long entry = data.getLong(HEADER_SIZE + chunk * 8);
+        if (entry == EMPTY_CHUNK || entry == SOLID_CHUNK) return entry;
+        return data.getLong((int) entry + (row & (CHUNK_SIZE - 1)) * 8);
+    }
+    
+    private void updateBounds() {
+        bounds = new BoundingBox(origin.getX(), origin.getY(),
+                                 origin.getX() + columns * tileSize, origin.getY() + rows * tileSize);
+    }
+    
+    private int columnAt(double x) {
+        return (int) Math.floor((x - origin.getX()) / tileSize);
+    }
+    
+    private int rowAt(double y) {
+        return (int) Math.floor((y - origin.getY()) / tileSize);
+    }
+    
+    // Queries
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        BoundingBox box = other.getBoundingBox();
+        if (!bounds.intersects(box)) return false;
+        
+        switch (other.getType()) {
+            case RECTANGLE:
+                return intersectsBox(box);
+            case CIRCLE:
+                return intersectsCircle((Circle) other);
+            case LINE:
+                Line line = (Line) other;
+                return trace(line.getStart(), line.getEnd(), null) >= 0;
+            default:
+                return intersectsBox(box) && intersectsSpans(other, box);
+        }
+    }
+    
+    private boolean intersectsBox(BoundingBox box) {
+        int firstColumn = Math.max(0, columnAt(box.getMinX()));
+        int lastColumn = Math.min(columns - 1, columnAt(box.getMaxX()));
+        int firstRow = Math.max(0, rowAt(box.getMinY()));
+        int lastRow = Math.min(rows - 1, rowAt(box.getMaxY()));
+        if (firstColumn > lastColumn) return false;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (anySolid(row, firstColumn, lastColumn)) return true;
+        }
+        return false;
+    }
+    
+    // Whether any tile from firstColumn to lastColumn of the row is solid, a chunk at a time
+    private boolean anySolid(int row, int firstColumn, int lastColumn) {
+        for (int c = firstColumn >>> CHUNK_SHIFT; c <= lastColumn >>> CHUNK_SHIFT; c++) {
+            int low = Math.max(firstColumn, c << CHUNK_SHIFT) - (c << CHUNK_SHIFT);
+            int high = Math.min(lastColumn, (c << CHUNK_SHIFT) + CHUNK_SIZE - 1) - (c << CHUNK_SHIFT);
+            long span = (-1L >>> (63 - high)) & (-1L << low);
+            if ((rowBits(c, row) & span) != 0) return true;
+        }
+        return false;
+    }
+    
+    // In each row the circle reaches halfWidth either side of its center, at the row's
+    // nearest point to it. The tiles strictly inside that reach are tested as one span of
+    // bits; the two either end, which may only just touch, are tested exactly as in
+    // TileMapGeometry.
+    private boolean intersectsCircle(Circle circle) {
+        double cx = circle.getCenter().getX();
+        double cy = circle.getCenter().getY();
+        double radius = circle.getRadius();
+        int firstColumn = Math.max(0, columnAt(cx - radius));
+        int lastColumn = Math.min(columns - 1, columnAt(cx + radius));
+        int firstRow = Math.max(0, rowAt(cy - radius));
+        int lastRow = Math.min(rows - 1, rowAt(cy + radius));
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            double top = origin.getY() + row * tileSize;
+            double dy = cy - Math.max(top, Math.min(cy, top + tileSize));
+            if (dy * dy > radius * radius) continue;
+            
+            double halfWidth = Math.sqrt(radius * radius - dy * dy);
+            int low = columnAt(cx - halfWidth) + 1;
+            int high = columnAt(cx + halfWidth) - 1;
+            int start = Math.max(firstColumn, low - 2);
+            int end = Math.min(lastColumn, high + 2);
+            if (low > high) {
+                for (int column = start; column <= end; column++) {
+                    if (tileTouches(column, row, cx, dy, radius)) return true;
+                }
+                continue;
+            }
+            
+            if (Math.max(low, firstColumn) <= Math.min(high, lastColumn) &&
+                anySolid(row, Math.max(low, firstColumn), Math.min(high, lastColumn))) {
+                return true;
+            }
+            for (int column = start; column < Math.min(low, end + 1); column++) {
+                if (tileTouches(column, row, cx, dy, radius)) return true;
+            }
+            for (int column = Math.max(high + 1, start); column <= end; column++) {
+                if (tileTouches(column, row, cx, dy, radius)) return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean tileTouches(int column, int row, double cx, double dy, double radius) {
+        if (!isSolid(column, row)) return false;
+        double left = origin.getX() + column * tileSize;
+        double dx = cx - Math.max(left, Math.min(cx, left + tileSize));
+        return dx * dx + dy * dy <= radius * radius;
+    }
+    
+    // Other shapes are tested against each run of solid tiles in the rows under them
+    private boolean intersectsSpans(Geometry other, BoundingBox box) {
+        int firstColumn = Math.max(0, columnAt(box.getMinX()));
+        int lastColumn = Math.min(columns - 1, columnAt(box.getMaxX()));
+        int firstRow = Math.max(0, rowAt(box.getMinY()));
+        int lastRow = Math.min(rows - 1, rowAt(box.getMaxY()));
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int column = firstColumn;
+            while (column <= lastColumn) {
+                if (!isSolid(column, row)) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column <= lastColumn && isSolid(column, row)) {
+                    column++;
+                }
+                double width = (column - start) * tileSize;
+                Vector2D center = new Vector2D(origin.getX() + start * tileSize + width / 2,
+                                               origin.getY() + (row + 0.5) * tileSize);
+                if (other.intersects(new Rectangle(center, width, tileSize))) return true;
+            }
+        }
+        return false;
+    }
+    
+    // First column from `from` to `to` whose tile is (or, with solid false, is not) solid,
+    // a chunk at a time; to + 1 when there is none
+    private int nextTile(int row, int from, int to, boolean solid) {
+        for (int column = from; column <= to; ) {
+            int chunk = column >>> CHUNK_SHIFT;
+            long bits = solid ? rowBits(chunk, row) : ~rowBits(chunk, row);
+            bits &= -1L << column;
+            if (bits != 0) {
+                return Math.min(to + 1, (chunk << CHUNK_SHIFT) + Long.numberOfTrailingZeros(bits));
+            }
+            column = (chunk + 1) << CHUNK_SHIFT;
+        }
+        return to + 1;
+    }
+    
+    // The same searching leftwards from `from` down to `to`; to - 1 when there is none
+    private int previousTile(int row, int from, int to, boolean solid) {
+        for (int column = from; column >= to; ) {
+            int chunk = column >>> CHUNK_SHIFT;
+            long bits = solid ? rowBits(chunk, row) : ~rowBits(chunk, row);
+            bits &= -1L >>> (63 - (column & (CHUNK_SIZE - 1)));
+            if (bits != 0) {
+                return Math.max(to - 1, (chunk << CHUNK_SHIFT) + 63 - Long.numberOfLeadingZeros(bits));
+            }
+            column = (chunk << CHUNK_SHIFT) - 1;
+        }
+        return to - 1;
+    }
+    
+    // Whether start..end is a whole run of solid tiles in the row, counting the edges of
+    // the columns firstColumn..lastColumn as its ends
+    private boolean isRun(int row, int start, int end, int firstColumn, int lastColumn) {
+        return nextTile(row, start, end, false) > end &&
+               (start == firstColumn || !isSolid(start - 1, row)) &&
+               (end == lastColumn || !isSolid(end + 1, row));
+    }
+    
+    private double trace(Vector2D start, Vector2D end, double[] normal) {
+        return GridTraversal.traceSegment(origin.getX(), origin.getY(), tileSize, columns, rows,
+            start.getX(), start.getY(), end.getX(), end.getY(), this::isSolid, normal);
+    }
+    
+    // First solid tile along a ray, reported the same way as TileMapGeometry.raycast
+    public CollisionResult raycast(Vector2D start, Vector2D direction, double maxDistance) {
+        Vector2D end = start.add(direction.normalize().multiply(maxDistance));
+        double[] normal = new double[2];
+        double t = trace(start, end, normal);
+        if (t < 0) return new CollisionResult(false);
+        
+        Vector2D hit = start.add(end.subtract(start).multiply(t));
+        return new CollisionResult(true, new Vector2D(normal[0], normal[1]), 0, hit);
+    }
+    
+    // Contact used by CollisionDetector; the normal points from the map towards the other
+    // shape. Runs of solid tiles are merged downwards while the rows below repeat them and
+    // each span is scored as in TileMapGeometry.collide, straight from the chunk rows. Spans
+    // are followed one shape size past the bounds, so they are not cut short where the
+    // shape could be pushed out through them.
+    CollisionResult collide(Geometry other) {
+        if (!intersects(other)) return new CollisionResult(false);
+        
+        BoundingBox box = other.getBoundingBox();
+        int margin = (int) Math.ceil(Math.max(box.getWidth(), box.getHeight()) / tileSize);
+        int minColumn = Math.max(0, columnAt(box.getMinX()) - margin);
+        int maxColumn = Math.min(columns - 1, columnAt(box.getMaxX()) + margin);
+        int minRow = Math.max(0, rowAt(box.getMinY()) - margin);
+        int maxRow = Math.min(rows - 1, rowAt(box.getMaxY()) + margin);
+        // Spans that only touch the bounds from above or the left count too
+        int firstColumn = Math.max(minColumn, columnAt(box.getMinX()) - 1);
+        int lastColumn = Math.min(maxColumn, columnAt(box.getMaxX()));
+        int firstRow = Math.max(minRow, rowAt(box.getMinY()) - 1);
+        int lastRow = Math.min(maxRow, rowAt(box.getMaxY()));
+        
+        boolean circle = other.getType() == GeometryType.CIRCLE;
+        boolean filter = !circle && other.getType() != GeometryType.RECTANGLE;
+        double bestDepth = -1;
+        double normalX = 0, normalY = 0, contactX = 0, contactY = 0;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int first = isSolid(firstColumn, row)
+                ? previousTile(row, firstColumn, minColumn, false) + 1
+                : nextTile(row, firstColumn, lastColumn, true);
+            for (int start = first, end; start <= lastColumn; start = nextTile(row, end + 1, lastColumn, true)) {
+                end = nextTile(row, start, maxColumn, false) - 1;
+                // A span carried down from the row above was scored there
+                if (row > firstRow && isRun(row - 1, start, end, minColumn, maxColumn)) continue;
+                int top = row;
+                while (top > minRow && isRun(top - 1, start, end, minColumn, maxColumn)) {
+                    top--;
+                }
+                int bottom = row;
+                while (bottom < maxRow && isRun(bottom + 1, start, end, minColumn, maxColumn)) {
+                    bottom++;
+                }
+                
+                double left = origin.getX() + start * tileSize;
+                double right = origin.getX() + (end + 1) * tileSize;
+                double spanTop = origin.getY() + top * tileSize;
+                double spanBottom = origin.getY() + (bottom + 1) * tileSize;
+                if (right < box.getMinX() || left > box.getMaxX() ||
+                    spanBottom < box.getMinY() || spanTop > box.getMaxY()) continue;
+                if (filter && !other.intersects(new Rectangle(
+                        new Vector2D((left + right) / 2, (spanTop + spanBottom) / 2),
+                        right - left, spanBottom - spanTop))) continue;
+                
+                double depth;
+                double nx, ny, px, py;
+                if (circle) {
+                    Circle c = (Circle) other;
+                    double cx = c.getCenter().getX();
+                    double cy = c.getCenter().getY();
+                    px = Math.max(left, Math.min(cx, right));
+                    py = Math.max(spanTop, Math.min(cy, spanBottom));
+                    double distance = Math.sqrt((cx - px) * (cx - px) + (cy - py) * (cy - py));
+                    if (distance > 0) {
+                        depth = c.getRadius() - distance;
+                        nx = (cx - px) / distance;
+                        ny = (cy - py) / distance;
+                    } else {
+                        // Center inside the span: leave through the nearest side
+                        double toLeft = cx - left, toRight = right - cx;
+                        double toTop = cy - spanTop, toBottom = spanBottom - cy;
+                        double nearest = Math.min(Math.min(toLeft, toRight), Math.min(toTop, toBottom));
+                        depth = c.getRadius() + nearest;
+                        nx = nearest == toLeft ? -1 : nearest == toRight ? 1 : 0;
+                        ny = nx != 0 ? 0 : nearest == toTop ? -1 : 1;
+                        px = cx;
+                        py = cy;
+                    }
+                    if (depth < 0) continue;
+                } else {
+                    double overlapX = Math.min(box.getMaxX(), right) - Math.max(box.getMinX(), left);
+                    double overlapY = Math.min(box.getMaxY(), spanBottom) - Math.max(box.getMinY(), spanTop);
+                    if (overlapX < 0 || overlapY < 0) continue;
+                    px = (box.getMinX() + box.getMaxX()) / 2;
+                    py = (box.getMinY() + box.getMaxY()) / 2;
+                    if (overlapX < overlapY) {
+                        depth = overlapX;
+                        nx = px < (left + right) / 2 ? -1 : 1;
+                        ny = 0;
+                    } else {
+                        depth = overlapY;
+                        nx = 0;
+                        ny = py < (spanTop + spanBottom) / 2 ? -1 : 1;
+                    }
+                }
+                
+                if (depth > bestDepth) {
+                    bestDepth = depth;
+                    normalX = nx;
+                    normalY = ny;
+                    contactX = px;
+                    contactY = py;
+                }
+            }
+        }
+        
+        if (bestDepth < 0) {
+            // Touching only: report the contact without a push
+            return new CollisionResult(true, new Vector2D(0, 0), 0, other.getCenter());
+        }
+        return new CollisionResult(true, new Vector2D(normalX * bestDepth, normalY * bestDepth), bestDepth,
+                                   new Vector2D(contactX, contactY));
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        return isSolid(columnAt(point.getX()), rowAt(point.getY()));
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return bounds;
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return bounds.getCenter();
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        origin = origin.add(offset);
+        updateBounds();
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.MAPPED_TILEMAP;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package engine.collision;
+
+import java.util.Arrays;
+
+// Growable column of numbers for struct-of-arrays stores, backed by a double[] or, at
+// Precision.FLOAT, by a float[]. Values cross the API as doubles; the float column rounds
+// them on the way in.
+public final class NumericColumn {
+    private double[] doubles;
+    private float[] floats;
+    
+    public NumericColumn(Precision precision, int capacity) {
+        if (precision == Precision.FLOAT) {
+            floats = new float[capacity];
+        } else {
+            doubles = new double[capacity];
+        }
+    }
+    
+    public Precision getPrecision() {
+        return floats != null ? Precision.FLOAT : Precision.DOUBLE;
+    }
+    
+    public int capacity() {
+        return floats != null ? floats.length : doubles.length;
+    }
+    
+    public double get(int index) {
+        return floats != null ? floats[index] : doubles[index];
+    }
+    
+    public void set(int index, double value) {
+        if (floats != null) {
+            floats[index] = (float) value;
+        } else {
+            doubles[index] = value;
+        }
+    }
+    
+    // Lower and upper bounds are rounded outwards, so a float box still encloses the
+    // exact one and broadphase tests never miss because of rounding
+    public void setLower(int index, double value) {
+        if (floats != null) {
+            floats[index] = roundDown(value);
+        } else {
+            doubles[index] = value;
+        }
+    }
+    
+    public void setUpper(int index, double value) {
+        if (floats != null) {
+            floats[index] = roundUp(value);
+        } else {
+            doubles[index] = value;
+        }
+    }
+    
+    static float roundDown(double value) {
+        float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+    
+    static float roundUp(double value) {
+        float rounded = (float) value;
+        return rounded < value ? Math.nextUp(rounded) : rounded;
+    }
+    
+    public void swap(int a, int b) {
+        if (floats != null) {
+            float value = floats[a];
+            floats[a] = floats[b];
+            floats[b] = value;
+        } else {
+            double value = doubles[a];
+            doubles[a] = doubles[b];
+            doubles[b] = value;
+        }
+    }
+    
+    // Copies the first count values of a column with the same precision
+    public void copyFrom(NumericColumn source, int count) {
+        if (floats != null) {
+            System.arraycopy(source.floats, 0, floats, 0, count);
+        } else {
+            System.arraycopy(source.doubles, 0, doubles, 0, count);
+        }
+    }
+    
+    public void grow(int capacity) {
+        if (floats != null) {
+            floats = Arrays.copyOf(floats, capacity);
+        } else {
+            doubles = Arrays.copyOf(doubles, capacity);
+        }
+    }
+    
+    // The backing array for batch kernels: exactly one of these is non-null. Both are
+    // replaced when the column grows.
+    public double[] doubles() {
+        return doubles;
+    }
+    
+    public float[] floats() {
+        return floats;
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package engine.collision;
 public class Polygon implements Geometry {
     private Vector2D[] vertices;
     private Vector2D center;
+    private boolean ownsVertices; // whether the vertices are copies of our own, safe to move in place
     
     public Polygon(Vector2D[] vertices) {
         if (vertices.length < 3) {
@@ -20,6 +21,7 @@ public class Polygon implements Geometry {
         }
         this.vertices = vertices.clone();
         this.center = calculateCenter();
+        ownsVertices = false;
     }
     
     private Vector2D calculateCenter() {
@@ -41,6 +43,8 @@ public class Polygon implements Geometry {
             return intersectsPolygon((Polygon) other);
         } else if (other.getType() == GeometryType.LINE) {
             return intersectsLine((Line) other);
+        } else if (other.getType().handlesBasicShapes()) {
+            return other.intersects(this);
         }
         return false;
     }
@@ -122,6 +126,22 @@ public class Polygon implements Geometry {
         center = center.add(offset);
     }
     
+    // The caller's vertices are copied on the first move and moved in place from then on
+    @Override
+    public void translateInPlace(double dx, double dy) {
+        if (!ownsVertices) {
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = new Vector2D(vertices[i].getX(), vertices[i].getY());
+            }
+            center = new Vector2D(center.getX(), center.getY());
+            ownsVertices = true;
+        }
+        for (Vector2D vertex : vertices) {
+            vertex.set(vertex.getX() + dx, vertex.getY() + dy);
+        }
+        center.set(center.getX() + dx, center.getY() + dy);
+    }
+    
     @Override
     public GeometryType getType() {
         return GeometryType.POLYGON;
@@ -136,13 +156,14 @@ public class Polygon implements Geometry {
             throw new IllegalArgumentException("Regular polygon must have at least 3 sides");
         }
         
+        FastTrig trig = FastTrig.getShared();
         Vector2D[] vertices = new Vector2D[sides];
         double angleStep = 2 * Math.PI / sides;
         
         for (int i = 0; i < sides; i++) {
             double angle = i * angleStep;
-            double x = center.getX() + radius * Math.cos(angle);
-            double y = center.getY() + radius * Math.sin(angle);
+            double x = center.getX() + radius * trig.cos(angle);
+            double y = center.getY() + radius * trig.sin(angle);
             vertices[i] = new Vector2D(x, y);
         }
         
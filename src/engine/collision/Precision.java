@@ -0,0 +1,10 @@
+package engine.collision;
+
+// Storage precision of the struct-of-arrays stores (ColliderArena, engine.TransformStore).
+// FLOAT halves their memory and cache footprint. Values are still passed in and out as
+// doubles; floats keep about seven significant digits, i.e. roughly 0.001 units of
+// precision at coordinates around 10000.
+public enum Precision {
+    DOUBLE,
+    FLOAT
+}
\ No newline at end of file
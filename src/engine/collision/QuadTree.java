@@ -11,6 +11,8 @@ public class QuadTree {
     private List<Geometry> objects;
     private BoundingBox bounds;
     private QuadTree[] nodes;
+    // Narrow-phase tests made by the last checkCollisions, this node and its children
+    private int lastPairsTested;
     
     public QuadTree(int level, BoundingBox bounds) {
         this.level = level;
@@ -116,6 +118,7 @@ public class QuadTree {
     public List<CollisionResult> checkCollisions() {
         List<CollisionResult> collisions = new ArrayList<>();
         List<Geometry> checkObjects = new ArrayList<>();
+        lastPairsTested = 0;
         
         for (int i = 0; i < objects.size(); i++) {
             checkObjects.clear();
@@ -123,6 +126,7 @@ public class QuadTree {
             
             for (Geometry other : checkObjects) {
                 if (objects.get(i) != other) {
+                    lastPairsTested++;
                     CollisionResult result = CollisionDetector.checkCollision(objects.get(i), other);
                     if (result.isColliding()) {
                         collisions.add(result);
@@ -135,10 +139,15 @@ public class QuadTree {
             for (QuadTree node : nodes) {
                 if (node != null) {
                     collisions.addAll(node.checkCollisions());
+                    lastPairsTested += node.lastPairsTested;
                 }
             }
         }
         
         return collisions;
     }
+    
+    int getLastPairsTested() {
+        return lastPairsTested;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package engine.collision;
 
 public class Rectangle implements Geometry {
     private Vector2D center;
+    private boolean ownsCenter; // whether center is a copy of our own, safe to move in place
     private double width;
     private double height;
     
@@ -15,7 +16,10 @@ public class Rectangle implements Geometry {
     public double getWidth() { return width; }
     public double getHeight() { return height; }
     
-    public void setCenter(Vector2D center) { this.center = center; }
+    public void setCenter(Vector2D center) {
+        this.center = center;
+        ownsCenter = false;
+    }
     public void setWidth(double width) { this.width = width; }
     public void setHeight(double height) { this.height = height; }
     
@@ -34,6 +38,8 @@ public class Rectangle implements Geometry {
             return intersectsPolygon((Polygon) other);
         } else if (other.getType() == GeometryType.LINE) {
             return intersectsLine((Line) other);
+        } else if (other.getType().handlesBasicShapes()) {
+            return other.intersects(this);
         }
         return false;
     }
@@ -90,6 +96,16 @@ public class Rectangle implements Geometry {
         center = center.add(offset);
     }
     
+    // The caller's center is copied on the first move and moved in place from then on
+    @Override
+    public void translateInPlace(double dx, double dy) {
+        if (!ownsCenter) {
+            center = new Vector2D(center.getX(), center.getY());
+            ownsCenter = true;
+        }
+        center.set(center.getX() + dx, center.getY() + dy);
+    }
+    
     @Override
     public GeometryType getType() {
         return GeometryType.RECTANGLE;
@@ -0,0 +1,88 @@
+package engine.collision;
+
+// Annulus between two radii. A connected shape touches the ring exactly when its
+// nearest point is within the outer radius and its farthest point reaches the inner one.
+public class Ring implements Geometry {
+    private Vector2D center;
+    private double outerRadius;
+    private double innerRadius;
+    
+    public Ring(Vector2D center, double outerRadius, double innerRadius) {
+        if (innerRadius < 0 || innerRadius > outerRadius) {
+            throw new IllegalArgumentException("Inner radius must be between 0 and the outer radius");
+        }
+        this.center = center;
+        this.outerRadius = outerRadius;
+        this.innerRadius = innerRadius;
+    }
+    
+    public Vector2D getCenter() { return center; }
+    public double getOuterRadius() { return outerRadius; }
+    public double getInnerRadius() { return innerRadius; }
+    
+    public void setCenter(Vector2D center) { this.center = center; }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (other.getType() == GeometryType.CIRCLE) {
+            Circle circle = (Circle) other;
+            double distance = center.distanceTo(circle.getCenter());
+            return distance <= outerRadius + circle.getRadius() && distance + circle.getRadius() >= innerRadius;
+        } else if (other.getType() == GeometryType.RING) {
+            Ring ring = (Ring) other;
+            double distance = center.distanceTo(ring.center);
+            return distance <= outerRadius + ring.outerRadius &&
+                   distance + ring.outerRadius >= innerRadius &&
+                   distance + outerRadius >= ring.innerRadius;
+        } else if (other.getType() == GeometryType.POLYGON) {
+            Polygon polygon = (Polygon) other;
+            double nearest = ShapeDistance.polygonDistance(
+                new double[] {ShapeDistance.SEGMENT, center.getX(), center.getY(), center.getX(), center.getY(), 0}, polygon);
+            if (nearest > outerRadius) return false;
+            for (Vector2D vertex : polygon.getVertices()) {
+                if (center.distanceTo(vertex) >= innerRadius) return true;
+            }
+            return false;
+        }
+        
+        double[] core = ShapeDistance.core(other);
+        if (core != null) {
+            double nearest = ShapeDistance.pointDistance(core, center.getX(), center.getY(), null);
+            double farthest = ShapeDistance.farthestDistance(core, center.getX(), center.getY());
+            return nearest <= outerRadius + core[5] && farthest + core[5] >= innerRadius;
+        }
+        
+        // Other shapes: touch the outer disc without fitting entirely inside the hole
+        BoundingBox box = other.getBoundingBox();
+        double dx = Math.max(Math.abs(box.getMinX() - center.getX()), Math.abs(box.getMaxX() - center.getX()));
+        double dy = Math.max(Math.abs(box.getMinY() - center.getY()), Math.abs(box.getMaxY() - center.getY()));
+        if (Math.hypot(dx, dy) < innerRadius) return false;
+        return other.intersects(new Circle(center, outerRadius));
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        double distance = center.distanceTo(point);
+        return distance <= outerRadius && distance >= innerRadius;
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(
+            center.getX() - outerRadius,
+            center.getY() - outerRadius,
+            center.getX() + outerRadius,
+            center.getY() + outerRadius
+        );
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        center = center.add(offset);
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.RING;
+    }
+}
\ No newline at end of file
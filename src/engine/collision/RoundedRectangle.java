@@ -0,0 +1,99 @@
+package engine.collision;
+
+// An axis-aligned box shrunk by the corner radius and swept by it again, so every test
+// is a box distance against the other shape's core.
+public class RoundedRectangle implements Geometry {
+    private Vector2D center;
+    private double width;
+    private double height;
+    private double cornerRadius;
+    
+    public RoundedRectangle(Vector2D center, double width, double height, double cornerRadius) {
+        if (cornerRadius < 0 || cornerRadius * 2 > Math.min(width, height)) {
+            throw new IllegalArgumentException("Corner radius must be between 0 and half the shorter side");
+        }
+        this.center = center;
+        this.width = width;
+        this.height = height;
+        this.cornerRadius = cornerRadius;
+    }
+    
+    public Vector2D getCenter() { return center; }
+    public double getWidth() { return width; }
+    public double getHeight() { return height; }
+    public double getCornerRadius() { return cornerRadius; }
+    
+    public void setCenter(Vector2D center) { this.center = center; }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (other.getType() == GeometryType.CIRCLE) {
+            Circle circle = (Circle) other;
+            Vector2D c = circle.getCenter();
+            double halfWidth = width / 2 - cornerRadius;
+            double halfHeight = height / 2 - cornerRadius;
+            double dx = Math.max(Math.abs(c.getX() - center.getX()) - halfWidth, 0);
+            double dy = Math.max(Math.abs(c.getY() - center.getY()) - halfHeight, 0);
+            double reach = cornerRadius + circle.getRadius();
+            return dx * dx + dy * dy <= reach * reach;
+        } else if (other.getType() == GeometryType.POLYGON) {
+            return ShapeDistance.polygonDistance(ShapeDistance.core(this), (Polygon) other) <= cornerRadius;
+        } else if (other.getType() == GeometryType.RING) {
+            return other.intersects(this);
+        }
+        
+        double[] core = ShapeDistance.core(other);
+        if (core != null) {
+            return ShapeDistance.distance(ShapeDistance.core(this), core, null) <= cornerRadius + core[5];
+        }
+        
+        if (!getBoundingBox().intersects(other.getBoundingBox())) return false;
+        return other.intersects(toPolygon(4));
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        double dx = Math.max(Math.abs(point.getX() - center.getX()) - (width / 2 - cornerRadius), 0);
+        double dy = Math.max(Math.abs(point.getY() - center.getY()) - (height / 2 - cornerRadius), 0);
+        return dx * dx + dy * dy <= cornerRadius * cornerRadius;
+    }
+    
+    // Outline with each corner split into the given number of segments
+    public Polygon toPolygon(int segmentsPerCorner) {
+        double halfWidth = width / 2 - cornerRadius;
+        double halfHeight = height / 2 - cornerRadius;
+        double[] cornerX = {halfWidth, -halfWidth, -halfWidth, halfWidth};
+        double[] cornerY = {halfHeight, halfHeight, -halfHeight, -halfHeight};
+        
+        Vector2D[] vertices = new Vector2D[(segmentsPerCorner + 1) * 4];
+        for (int corner = 0; corner < 4; corner++) {
+            for (int i = 0; i <= segmentsPerCorner; i++) {
+                double a = Math.PI / 2 * (corner + (double) i / segmentsPerCorner);
+                vertices[corner * (segmentsPerCorner + 1) + i] = new Vector2D(
+                    center.getX() + cornerX[corner] + cornerRadius * Math.cos(a),
+                    center.getY() + cornerY[corner] + cornerRadius * Math.sin(a));
+            }
+        }
+        return new Polygon(vertices);
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(
+            center.getX() - width / 2,
+            center.getY() - height / 2,
+            center.getX() + width / 2,
+            center.getY() + height / 2
+        );
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        center = center.add(offset);
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.ROUNDED_RECT;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,782 @@
+package engine.collision;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Bakes arbitrary geometry into a small set of convex polygons. Outlines are sampled,
+// simplified with Douglas-Peucker, triangulated, merged back into convex pieces
+// (Hertel-Mehlhorn) and finally merged across pieces wherever the convex hull of two
+// pieces stays within the remaining tolerance.
+public class ShapeBaker {
+    // Shares of the tolerance spent on sampling curved outlines and on simplification;
+    // whatever is left over is the budget for hull merging
+    private static final double OUTLINE_SHARE = 0.25;
+    private static final double SIMPLIFY_SHARE = 0.25;
+    // Hull deviations are found to within this share of the merge budget, halving the
+    // uncovered parts of a hull at most MAX_MERGE_SPLITS times
+    private static final double MERGE_PRECISION = 0.05;
+    private static final int MAX_MERGE_SPLITS = 256;
+    private static final int MAX_ARC_SEGMENTS = 1024;
+    private static final double EPSILON = 1e-9;
+    
+    private double tolerance;
+    private List<double[]> pieces;
+    private double outlineError;
+    private double simplifyError;
+    private double mergeError;
+    
+    private ShapeBaker(double tolerance) {
+        this.tolerance = tolerance;
+        this.pieces = new ArrayList<>();
+    }
+    
+    public static BakedShape bake(Geometry source, double tolerance) {
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("Bake tolerance must be positive");
+        }
+        
+        ShapeBaker baker = new ShapeBaker(tolerance);
+        baker.addGeometry(source);
+        baker.mergeHulls();
+        
+        List<Polygon> polygons = new ArrayList<>();
+        for (double[] piece : baker.pieces) {
+            Vector2D[] vertices = new Vector2D[piece.length / 2];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = new Vector2D(piece[2 * i], piece[2 * i + 1]);
+            }
+            polygons.add(new Polygon(vertices));
+        }
+        
+        double errorBound = baker.outlineError + baker.simplifyError + baker.mergeError;
+        return new BakedShape(polygons, tolerance, errorBound);
+    }
+    
+    // Outline extraction
+    
+    private void addGeometry(Geometry geom) {
+        switch (geom.getType()) {
+            case CIRCLE:
+                addCircle((Circle) geom);
+                break;
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) geom;
+                addRing(new double[] {
+                    rect.getLeft(), rect.getTop(), rect.getRight(), rect.getTop(),
+                    rect.getRight(), rect.getBottom(), rect.getLeft(), rect.getBottom()
+                });
+                break;
+            case POLYGON:
+                addRing(toCoordinates(Arrays.asList(((Polygon) geom).getVertices())));
+                break;
+            case ELLIPSE:
+                addEllipse((Ellipse) geom);
+                break;
+            case FREEFORM:
+                FreeForm freeForm = (FreeForm) geom;
+                if (freeForm.isSolid()) {
+                    addRing(toCoordinates(freeForm.getPoints()));
+                } else {
+                    addPolyline(toCoordinates(freeForm.getPoints()), true);
+                }
+                break;
+            case CURVE:
+                addPolyline(toCoordinates(((Curve) geom).getSamplePoints()), false);
+                break;
+            case LINE:
+                Line line = (Line) geom;
+                addPolyline(new double[] {
+                    line.getStart().getX(), line.getStart().getY(),
+                    line.getEnd().getX(), line.getEnd().getY()
+                }, false);
+                break;
+            case COMPOSITE:
+                CompositeShape composite = (CompositeShape) geom;
+                if (!composite.isUnionMode()) {
+                    throw new IllegalArgumentException("Only union composites can be baked");
+                }
+                for (Geometry child : composite.getShapes()) {
+                    addGeometry(child);
+                }
+                break;
+            case CAPSULE:
+                addCapsule((Capsule) geom);
+                break;
+            case ROUNDED_RECT:
+                addRoundedRectangle((RoundedRectangle) geom);
+                break;
+            case RING:
+                addAnnulus((Ring) geom);
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot bake geometry of type " + geom.getType());
+        }
+    }
+    
+    private void addCircle(Circle circle) {
+        double radius = circle.getRadius();
+        int segments = arcSegments(radius);
+        Vector2D center = circle.getCenter();
+        
+        double[] ring = new double[segments * 2];
+        for (int i = 0; i < segments; i++) {
+            double angle = 2 * Math.PI * i / segments;
+            ring[2 * i] = center.getX() + radius * Math.cos(angle);
+            ring[2 * i + 1] = center.getY() + radius * Math.sin(angle);
+        }
+        
+        // Sagitta of each chord is the exact deviation of an inscribed polygon
+        outlineError = Math.max(outlineError, radius * (1 - Math.cos(Math.PI / segments)));
+        addRing(ring);
+    }
+    
+    private void addEllipse(Ellipse ellipse) {
+        // Size the segments for the tightest curvature, where the radius is a^2/b
+        double major = Math.max(ellipse.getRadiusX(), ellipse.getRadiusY());
+        double minor = Math.min(ellipse.getRadiusX(), ellipse.getRadiusY());
+        int segments = arcSegments(major * major / Math.max(minor, EPSILON));
+        
+        double[] ring = new double[segments * 2];
+        for (int i = 0; i < segments; i++) {
+            Vector2D point = ellipse.getPoint(2 * Math.PI * i / segments);
+            ring[2 * i] = point.getX();
+            ring[2 * i + 1] = point.getY();
+        }
+        
+        // Measure the real chord deviation at the middle of each arc
+        double error = 0;
+        for (int i = 0; i < segments; i++) {
+            int next = (i + 1) % segments;
+            Vector2D mid = ellipse.getPoint(2 * Math.PI * (i + 0.5) / segments);
+            error = Math.max(error, pointSegmentDistance(mid.getX(), mid.getY(),
+                ring[2 * i], ring[2 * i + 1], ring[2 * next], ring[2 * next + 1]));
+        }
+        outlineError = Math.max(outlineError, error);
+        addRing(ring);
+    }
+    
+    private void addCapsule(Capsule capsule) {
+        double radius = capsule.getRadius();
+        int segments = arcSegments(radius);
+        int perCap = (segments + 1) / 2;
+        
+        double[] ring = toCoordinates(Arrays.asList(capsule.toPolygon(perCap).getVertices()));
+        outlineError = Math.max(outlineError, radius * (1 - Math.cos(Math.PI / (2 * perCap))));
+        addRing(ring);
+    }
+    
+    private void addRoundedRectangle(RoundedRectangle rounded) {
+        double radius = rounded.getCornerRadius();
+        int perCorner = Math.max(1, (arcSegments(radius) + 3) / 4);
+        
+        double[] ring = toCoordinates(Arrays.asList(rounded.toPolygon(perCorner).getVertices()));
+        outlineError = Math.max(outlineError, radius * (1 - Math.cos(Math.PI / (4 * perCorner))));
+        addRing(ring);
+    }
+    
+    // The hole cannot be ear clipped as one outline, so the band is cut into quads
+    private void addAnnulus(Ring annulus) {
+        double outer = annulus.getOuterRadius();
+        double inner = annulus.getInnerRadius();
+        int segments = arcSegments(outer);
+        Vector2D center = annulus.getCenter();
+        
+        for (int i = 0; i < segments; i++) {
+            double a0 = 2 * Math.PI * i / segments;
+            double a1 = 2 * Math.PI * (i + 1) / segments;
+            addRing(new double[] {
+                center.getX() + outer * Math.cos(a0), center.getY() + outer * Math.sin(a0),
+                center.getX() + outer * Math.cos(a1), center.getY() + outer * Math.sin(a1),
+                center.getX() + inner * Math.cos(a1), center.getY() + inner * Math.sin(a1),
+                center.getX() + inner * Math.cos(a0), center.getY() + inner * Math.sin(a0)
+            });
+        }
+        
+        // Inscribed chords cut into the band on the outside and widen it into the hole
+        outlineError = Math.max(outlineError, outer * (1 - Math.cos(Math.PI / segments)));
+    }
+    
+    private int arcSegments(double radius) {
+        double allowed = tolerance * OUTLINE_SHARE;
+        if (allowed >= radius) return 8;
+        int segments = (int) Math.ceil(Math.PI / Math.acos(1 - allowed / radius));
+        return Math.max(8, Math.min(MAX_ARC_SEGMENTS, segments));
+    }
+    
+    private static double[] toCoordinates(List<Vector2D> points) {
+        double[] coords = new double[points.size() * 2];
+        for (int i = 0; i < points.size(); i++) {
+            coords[2 * i] = points.get(i).getX();
+            coords[2 * i + 1] = points.get(i).getY();
+        }
+        return coords;
+    }
+    
+    // Solid outlines
+    
+    private void addRing(double[] ring) {
+        if (signedArea(ring) < 0) {
+            ring = reverse(ring);
+        }
+        
+        int[] kept = simplifyRing(ring);
+        if (kept.length < 3) return;
+        
+        double[] simplified = new double[kept.length * 2];
+        for (int i = 0; i < kept.length; i++) {
+            simplified[2 * i] = ring[2 * kept[i]];
+            simplified[2 * i + 1] = ring[2 * kept[i] + 1];
+        }
+        if (Math.abs(signedArea(simplified)) < EPSILON) return;
+        
+        List<List<Integer>> convex = mergeTriangles(simplified, triangulate(simplified));
+        for (List<Integer> polygon : convex) {
+            double[] piece = new double[polygon.size() * 2];
+            for (int i = 0; i < polygon.size(); i++) {
+                piece[2 * i] = simplified[2 * polygon.get(i)];
+                piece[2 * i + 1] = simplified[2 * polygon.get(i) + 1];
+            }
+            pieces.add(piece);
+        }
+    }
+    
+    // Outline-only shapes become a chain of thin convex strips around each segment
+    private void addPolyline(double[] points, boolean closed) {
+        int count = points.length / 2;
+        if (count < 2) return;
+        
+        int[] kept;
+        if (closed) {
+            kept = count < 3 ? new int[] {0, 1} : simplifyRing(points);
+        } else {
+            boolean[] keep = new boolean[count];
+            keep[0] = true;
+            keep[count - 1] = true;
+            simplifyRange(points, 0, count - 1, keep);
+            kept = keptIndices(keep);
+        }
+        
+        double halfWidth = tolerance * OUTLINE_SHARE;
+        outlineError = Math.max(outlineError, halfWidth);
+        
+        int segments = closed ? kept.length : kept.length - 1;
+        for (int i = 0; i < segments; i++) {
+            int a = kept[i];
+            int b = kept[(i + 1) % kept.length];
+            double ax = points[2 * a], ay = points[2 * a + 1];
+            double bx = points[2 * b], by = points[2 * b + 1];
+            double length = Math.hypot(bx - ax, by - ay);
+            if (length < EPSILON) continue;
+            
+            double nx = -(by - ay) / length * halfWidth;
+            double ny = (bx - ax) / length * halfWidth;
+            pieces.add(new double[] {
+                ax - nx, ay - ny, bx - nx, by - ny, bx + nx, by + ny, ax + nx, ay + ny
+            });
+        }
+    }
+    
+    // Douglas-Peucker
+    
+    private int[] simplifyRing(double[] ring) {
+        int count = ring.length / 2;
+        
+        // Split the ring at the vertex farthest from vertex 0 and simplify both halves
+        int far = 0;
+        double farDistance = -1;
+        for (int i = 1; i < count; i++) {
+            double d = Math.hypot(ring[2 * i] - ring[0], ring[2 * i + 1] - ring[1]);
+            if (d > farDistance) {
+                farDistance = d;
+                far = i;
+            }
+        }
+        
+        double[] closed = Arrays.copyOf(ring, ring.length + 2);
+        closed[ring.length] = ring[0];
+        closed[ring.length + 1] = ring[1];
+        
+        boolean[] keep = new boolean[count + 1];
+        keep[0] = true;
+        keep[far] = true;
+        simplifyRange(closed, 0, far, keep);
+        simplifyRange(closed, far, count, keep);
+        
+        return keptIndices(Arrays.copyOf(keep, count));
+    }
+    
+    private void simplifyRange(double[] points, int first, int last, boolean[] keep) {
+        if (last - first < 2) return;
+        
+        double ax = points[2 * first], ay = points[2 * first + 1];
+        double bx = points[2 * last], by = points[2 * last + 1];
+        
+        int index = -1;
+        double maxDistance = 0;
+        for (int i = first + 1; i < last; i++) {
+            double d = pointSegmentDistance(points[2 * i], points[2 * i + 1], ax, ay, bx, by);
+            if (d > maxDistance) {
+                maxDistance = d;
+                index = i;
+            }
+        }
+        
+        if (maxDistance > tolerance * SIMPLIFY_SHARE) {
+            keep[index] = true;
+            simplifyRange(points, first, index, keep);
+            simplifyRange(points, index, last, keep);
+        } else {
+            simplifyError = Math.max(simplifyError, maxDistance);
+        }
+    }
+    
+    private static int[] keptIndices(boolean[] keep) {
+        int count = 0;
+        for (boolean k : keep) {
+            if (k) count++;
+        }
+        int[] indices = new int[count];
+        int n = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) indices[n++] = i;
+        }
+        return indices;
+    }
+    
+    // Triangulation and convex decomposition
+    
+    // Ear clipping over a counter-clockwise ring; returns index triples
+    private static List<int[]> triangulate(double[] ring) {
+        List<int[]> triangles = new ArrayList<>();
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < ring.length / 2; i++) {
+            remaining.add(i);
+        }
+        
+        while (remaining.size() > 3) {
+            int size = remaining.size();
+            int ear = -1;
+            double bestCross = -1;
+            
+            for (int i = 0; i < size; i++) {
+                int a = remaining.get((i - 1 + size) % size);
+                int b = remaining.get(i);
+                int c = remaining.get((i + 1) % size);
+                double cross = cross(ring, a, b, c);
+                if (cross <= EPSILON) continue;
+                
+                if (!anyPointInTriangle(ring, remaining, a, b, c)) {
+                    ear = i;
+                    break;
+                }
+                if (cross > bestCross) {
+                    bestCross = cross;
+                    ear = -2 - i;
+                }
+            }
+            
+            // Self-touching outlines may have no clean ear; clip the most convex corner
+            if (ear == -1) ear = 0;
+            if (ear < -1) ear = -2 - ear;
+            
+            triangles.add(new int[] {
+                remaining.get((ear - 1 + size) % size), remaining.get(ear), remaining.get((ear + 1) % size)
+            });
+            remaining.remove(ear);
+        }
+        
+        triangles.add(new int[] {remaining.get(0), remaining.get(1), remaining.get(2)});
+        return triangles;
+    }
+    
+    private static boolean anyPointInTriangle(double[] ring, List<Integer> candidates, int a, int b, int c) {
+        for (int p : candidates) {
+            if (p == a || p == b || p == c) continue;
+            if (cross(ring, a, b, p) >= 0 && cross(ring, b, c, p) >= 0 && cross(ring, c, a, p) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Hertel-Mehlhorn: drop diagonals between neighbouring pieces while the union stays convex
+    private static List<List<Integer>> mergeTriangles(double[] ring, List<int[]> triangles) {
+        List<List<Integer>> polygons = new ArrayList<>();
+        for (int[] triangle : triangles) {
+            if (Math.abs(cross(ring, triangle[0], triangle[1], triangle[2])) < EPSILON) continue;
+            List<Integer> polygon = new ArrayList<>();
+            for (int index : triangle) {
+                polygon.add(index);
+            }
+            polygons.add(polygon);
+        }
+        
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < polygons.size() && !merged; i++) {
+                for (int j = i + 1; j < polygons.size() && !merged; j++) {
+                    List<Integer> union = joinAcrossSharedEdge(ring, polygons.get(i), polygons.get(j));
+                    if (union != null) {
+                        polygons.set(i, union);
+                        polygons.remove(j);
+                        merged = true;
+                    }
+                }
+            }
+        }
+        
+        return polygons;
+    }
+    
+    private static List<Integer> joinAcrossSharedEdge(double[] ring, List<Integer> first, List<Integer> second) {
+        int n = first.size();
+        int m = second.size();
+        
+        for (int i = 0; i < n; i++) {
+            int u = first.get(i);
+            int v = first.get((i + 1) % n);
+            for (int j = 0; j < m; j++) {
+                if (second.get(j) != v || second.get((j + 1) % m) != u) continue;
+                
+                // Walk the first polygon from v round to u, then the second from after u to before v
+                List<Integer> union = new ArrayList<>();
+                for (int k = 0; k < n; k++) {
+                    union.add(first.get((i + 1 + k) % n));
+                }
+                for (int k = 2; k < m; k++) {
+                    union.add(second.get((j + k) % m));
+                }
+                return isConvex(ring, union) ? union : null;
+            }
+        }
+        
+        return null;
+    }
+    
+    private static boolean isConvex(double[] ring, List<Integer> polygon) {
+        int size = polygon.size();
+        for (int i = 0; i < size; i++) {
+            if (cross(ring, polygon.get(i), polygon.get((i + 1) % size), polygon.get((i + 2) % size)) < -EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Hull merging
+    
+    // A piece while merging: its outline, bounds, and how far it strays from the original
+    // pieces it was merged from
+    private static final class MergePiece {
+        final double[] ring;
+        final double[] box;
+        final double error;
+        boolean merged;
+        
+        MergePiece(double[] ring, double error) {
+            this.ring = ring;
+            this.box = bounds(ring);
+            this.error = error;
+        }
+    }
+    
+    // A convex part of a hull not covered by the two pieces it joins, and an upper bound on
+    // how far it reaches from them
+    private static final class Pocket {
+        final double[] ring;
+        final double bound;
+        
+        Pocket(double[] ring, double bound) {
+            this.ring = ring;
+            this.bound = bound;
+        }
+    }
+    
+    private void mergeHulls() {
+        double budget = tolerance - outlineError - simplifyError;
+        if (budget <= 0 || pieces.size() < 2) return;
+        double precision = budget * MERGE_PRECISION;
+        
+        // Sorted by the left edge of their bounds, so the pieces within reach of one along x
+        // are a run of neighbours rather than the whole list
+        List<MergePiece> sorted = new ArrayList<>();
+        double widest = 0;
+        for (double[] piece : pieces) {
+            MergePiece mergePiece = new MergePiece(piece, 0);
+            sorted.add(mergePiece);
+            widest = Math.max(widest, mergePiece.box[2] - mergePiece.box[0]);
+        }
+        sorted.sort((p, q) -> Double.compare(p.box[0], q.box[0]));
+        
+        // Every piece is tried once, and every merged piece again
+        ArrayDeque<MergePiece> pending = new ArrayDeque<>(sorted);
+        while (!pending.isEmpty()) {
+            MergePiece piece = pending.poll();
+            if (piece.merged) continue;
+            
+            MergePiece best = null;
+            double bestError = budget;
+            double[] bestHull = null;
+            
+            for (int k = firstFrom(sorted, piece.box[0] - widest - budget); k < sorted.size(); k++) {
+                MergePiece other = sorted.get(k);
+                if (other.box[0] > piece.box[2] + budget) break;
+                if (other == piece || !boundsWithin(piece.box, other.box, budget)) continue;
+                
+                if (Math.max(piece.error, other.error) > bestError) continue;
+                
+                double[] hull = convexHull(piece.ring, other.ring);
+                double error = hullDeviation(hull, piece.ring, piece.error, other.ring, other.error, bestError, precision);
+                if (error <= bestError) {
+                    best = other;
+                    bestError = error;
+                    bestHull = hull;
+                }
+            }
+            
+            if (best != null) {
+                piece.merged = true;
+                best.merged = true;
+                sorted.remove(piece);
+                sorted.remove(best);
+                MergePiece merged = new MergePiece(bestHull, bestError);
+                sorted.add(firstFrom(sorted, merged.box[0]), merged);
+                widest = Math.max(widest, merged.box[2] - merged.box[0]);
+                mergeError = Math.max(mergeError, bestError);
+                pending.add(merged);
+            }
+        }
+        
+        pieces.clear();
+        for (MergePiece piece : sorted) {
+            pieces.add(piece.ring);
+        }
+    }
+    
+    // Index of the first piece whose left edge is at or past x
+    private static int firstFrom(List<MergePiece> sorted, double x) {
+        int low = 0, high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid).box[0] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static boolean boundsWithin(double[] boundsA, double[] boundsB, double gap) {
+        return boundsA[2] + gap >= boundsB[0] && boundsB[2] + gap >= boundsA[0] &&
+               boundsA[3] + gap >= boundsB[1] && boundsB[3] + gap >= boundsA[1];
+    }
+    
+    private static double[] bounds(double[] piece) {
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < piece.length; i += 2) {
+            box[0] = Math.min(box[0], piece[i]);
+            box[1] = Math.min(box[1], piece[i + 1]);
+            box[2] = Math.max(box[2], piece[i]);
+            box[3] = Math.max(box[3], piece[i + 1]);
+        }
+        return box;
+    }
+    
+    // Upper bound on how far any point of the hull lies from the original pieces, given that
+    // a and b stray from them by at most errorA and errorB. The hull minus a and b is cut
+    // into convex pockets. The distance to a convex piece is convex, so over a pocket it is
+    // largest at a vertex, and the smaller of the two largest values (plus the piece's own
+    // error) bounds the pocket. The pocket with the highest bound is halved until that bound
+    // is within precision of a value actually reached, or the value reached is over limit.
+    private static double hullDeviation(double[] hull, double[] a, double errorA, double[] b, double errorB,
+                                        double limit, double precision) {
+        PriorityQueue<Pocket> pockets = new PriorityQueue<>((p, q) -> Double.compare(q.bound, p.bound));
+        List<double[]> uncovered = new ArrayList<>();
+        uncovered.add(hull);
+        double[] errors = {errorA, errorB};
+        // Points inside a or b are within that piece's error
+        double reached = Math.max(errorA, errorB);
+        for (double[] ring : subtract(subtract(uncovered, a), b)) {
+            reached = Math.max(reached, addPocket(pockets, ring, a, b, errors));
+        }
+        
+        for (int splits = 0; !pockets.isEmpty(); splits++) {
+            Pocket top = pockets.peek();
+            if (top.bound <= reached + precision || reached > limit || splits == MAX_MERGE_SPLITS) {
+                return Math.max(top.bound, reached);
+            }
+            pockets.poll();
+            
+            // Halve it across its longer side
+            double[] box = bounds(top.ring);
+            boolean vertical = box[2] - box[0] >= box[3] - box[1];
+            double middle = vertical ? (box[0] + box[2]) / 2 : (box[1] + box[3]) / 2;
+            double nx = vertical ? 1 : 0;
+            double ny = vertical ? 0 : 1;
+            reached = Math.max(reached, addPocket(pockets, clip(top.ring, nx, ny, middle), a, b, errors));
+            reached = Math.max(reached, addPocket(pockets, clip(top.ring, -nx, -ny, -middle), a, b, errors));
+        }
+        return reached;
+    }
+    
+    // Queues the pocket and returns the largest bound at any one of its vertices
+    private static double addPocket(PriorityQueue<Pocket> pockets, double[] ring, double[] a, double[] b,
+                                    double[] errors) {
+        if (ring.length < 6) return 0;
+        
+        double farthestA = 0, farthestB = 0, reached = 0;
+        for (int i = 0; i < ring.length; i += 2) {
+            double distanceA = convexDistance(a, ring[i], ring[i + 1]) + errors[0];
+            double distanceB = convexDistance(b, ring[i], ring[i + 1]) + errors[1];
+            farthestA = Math.max(farthestA, distanceA);
+            farthestB = Math.max(farthestB, distanceB);
+            reached = Math.max(reached, Math.min(distanceA, distanceB));
+        }
+        pockets.add(new Pocket(ring, Math.min(farthestA, farthestB)));
+        return reached;
+    }
+    
+    // The parts of the convex polygons that lie outside the counter-clockwise convex piece,
+    // as convex polygons: outside its first edge, then inside that and outside the second...
+    private static List<double[]> subtract(List<double[]> polygons, double[] piece) {
+        List<double[]> result = new ArrayList<>();
+        int count = piece.length / 2;
+        for (double[] polygon : polygons) {
+            double[] remaining = polygon;
+            for (int i = 0; i < count && remaining.length >= 6; i++) {
+                int next = (i + 1) % count;
+                // Inside the edge is nx * x + ny * y <= c
+                double nx = piece[2 * next + 1] - piece[2 * i + 1];
+                double ny = piece[2 * i] - piece[2 * next];
+                double c = nx * piece[2 * i] + ny * piece[2 * i + 1];
+                double[] outside = clip(remaining, -nx, -ny, -c);
+                if (outside.length >= 6) {
+                    result.add(outside);
+                }
+                remaining = clip(remaining, nx, ny, c);
+            }
+        }
+        return result;
+    }
+    
+    // The part of a convex polygon where nx * x + ny * y <= c (Sutherland-Hodgman)
+    private static double[] clip(double[] ring, double nx, double ny, double c) {
+        int count = ring.length / 2;
+        double[] result = new double[4 * count];
+        int size = 0;
+        
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            double x = ring[2 * i], y = ring[2 * i + 1];
+            double nextX = ring[2 * next], nextY = ring[2 * next + 1];
+            double side = nx * x + ny * y - c;
+            double nextSide = nx * nextX + ny * nextY - c;
+            
+            if (side <= 0) {
+                result[size++] = x;
+                result[size++] = y;
+            }
+            if ((side < 0 && nextSide > 0) || (side > 0 && nextSide < 0)) {
+                double t = side / (side - nextSide);
+                result[size++] = x + (nextX - x) * t;
+                result[size++] = y + (nextY - y) * t;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+    
+    // Distance from a point to a counter-clockwise convex piece, zero inside it
+    private static double convexDistance(double[] piece, double x, double y) {
+        int count = piece.length / 2;
+        boolean inside = true;
+        double distance = Double.POSITIVE_INFINITY;
+        
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            double ax = piece[2 * i], ay = piece[2 * i + 1];
+            double bx = piece[2 * next], by = piece[2 * next + 1];
+            if ((bx - ax) * (y - ay) - (by - ay) * (x - ax) < 0) {
+                inside = false;
+            }
+            distance = Math.min(distance, pointSegmentDistance(x, y, ax, ay, bx, by));
+        }
+        
+        return inside ? 0 : distance;
+    }
+    
+    // Andrew's monotone chain over the vertices of both pieces, counter-clockwise
+    private static double[] convexHull(double[] a, double[] b) {
+        int count = (a.length + b.length) / 2;
+        double[][] points = new double[count][];
+        for (int i = 0; i < a.length / 2; i++) {
+            points[i] = new double[] {a[2 * i], a[2 * i + 1]};
+        }
+        for (int i = 0; i < b.length / 2; i++) {
+            points[a.length / 2 + i] = new double[] {b[2 * i], b[2 * i + 1]};
+        }
+        Arrays.sort(points, (p, q) -> p[0] != q[0] ? Double.compare(p[0], q[0]) : Double.compare(p[1], q[1]));
+        
+        double[][] hull = new double[2 * count][];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            while (size >= 2 && turn(hull[size - 2], hull[size - 1], points[i]) <= 0) size--;
+            hull[size++] = points[i];
+        }
+        for (int i = count - 2, lower = size + 1; i >= 0; i--) {
+            while (size >= lower && turn(hull[size - 2], hull[size - 1], points[i]) <= 0) size--;
+            hull[size++] = points[i];
+        }
+        
+        double[] result = new double[(size - 1) * 2];
+        for (int i = 0; i < size - 1; i++) {
+            result[2 * i] = hull[i][0];
+            result[2 * i + 1] = hull[i][1];
+        }
+        return result;
+    }
+    
+    // Geometry helpers
+    
+    private static double turn(double[] o, double[] a, double[] b) {
+        return (a[0] - o[0]) * (b[1] - o[1]) - (a[1] - o[1]) * (b[0] - o[0]);
+    }
+    
+    private static double cross(double[] ring, int o, int a, int b) {
+        return (ring[2 * a] - ring[2 * o]) * (ring[2 * b + 1] - ring[2 * o + 1]) -
+               (ring[2 * a + 1] - ring[2 * o + 1]) * (ring[2 * b] - ring[2 * o]);
+    }
+    
+    private static double signedArea(double[] ring) {
+        double area = 0;
+        int count = ring.length / 2;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            area += ring[2 * i] * ring[2 * next + 1] - ring[2 * next] * ring[2 * i + 1];
+        }
+        return area / 2;
+    }
+    
+    private static double[] reverse(double[] ring) {
+        int count = ring.length / 2;
+        double[] reversed = new double[ring.length];
+        for (int i = 0; i < count; i++) {
+            reversed[2 * i] = ring[2 * (count - 1 - i)];
+            reversed[2 * i + 1] = ring[2 * (count - 1 - i) + 1];
+        }
+        return reversed;
+    }
+    
+    private static double pointSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + dx * t), py - (ay + dy * t));
+    }
+}
\ No newline at end of file
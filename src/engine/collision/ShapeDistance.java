@@ -0,0 +1,271 @@
+package engine.collision;
+
+// Closed-form distances for shapes that are a core (a segment or an axis-aligned box)
+// swept by a radius: circles, capsules, rounded rectangles, plain rectangles and lines.
+// Closest points are written as {ax, ay, bx, by} when a buffer is given.
+final class ShapeDistance {
+    static final int SEGMENT = 0;
+    static final int BOX = 1;
+    
+    private static final double EPSILON = 1e-12;
+    
+    private ShapeDistance() {}
+    
+    // Returns {kind, x1, y1, x2, y2, radius}, or null when the shape has no core form
+    static double[] core(Geometry geom) {
+        switch (geom.getType()) {
+            case CIRCLE:
+                Circle circle = (Circle) geom;
+                Vector2D center = circle.getCenter();
+                return new double[] {SEGMENT, center.getX(), center.getY(), center.getX(), center.getY(), circle.getRadius()};
+            case CAPSULE:
+                Capsule capsule = (Capsule) geom;
+                return new double[] {SEGMENT, capsule.getStart().getX(), capsule.getStart().getY(),
+                                     capsule.getEnd().getX(), capsule.getEnd().getY(), capsule.getRadius()};
+            case LINE:
+                Line line = (Line) geom;
+                return new double[] {SEGMENT, line.getStart().getX(), line.getStart().getY(),
+                                     line.getEnd().getX(), line.getEnd().getY(), 0};
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) geom;
+                return new double[] {BOX, rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom(), 0};
+            case ROUNDED_RECT:
+                RoundedRectangle rounded = (RoundedRectangle) geom;
+                double halfWidth = rounded.getWidth() / 2 - rounded.getCornerRadius();
+                double halfHeight = rounded.getHeight() / 2 - rounded.getCornerRadius();
+                Vector2D c = rounded.getCenter();
+                return new double[] {BOX, c.getX() - halfWidth, c.getY() - halfHeight,
+                                     c.getX() + halfWidth, c.getY() + halfHeight, rounded.getCornerRadius()};
+            default:
+                return null;
+        }
+    }
+    
+    static double distance(double[] a, double[] b, double[] closest) {
+        if (a[0] == SEGMENT && b[0] == SEGMENT) {
+            return segmentSegment(a[1], a[2], a[3], a[4], b[1], b[2], b[3], b[4], closest);
+        } else if (a[0] == SEGMENT) {
+            return segmentBox(a[1], a[2], a[3], a[4], b[1], b[2], b[3], b[4], closest);
+        } else if (b[0] == SEGMENT) {
+            double distance = segmentBox(b[1], b[2], b[3], b[4], a[1], a[2], a[3], a[4], closest);
+            if (closest != null) {
+                swap(closest);
+            }
+            return distance;
+        }
+        return boxBox(a[1], a[2], a[3], a[4], b[1], b[2], b[3], b[4], closest);
+    }
+    
+    // Distance from a point to a core; the closest core point goes to closest[0..1]
+    static double pointDistance(double[] core, double px, double py, double[] closest) {
+        if (core[0] == SEGMENT) {
+            return pointSegment(px, py, core[1], core[2], core[3], core[4], closest);
+        }
+        double qx = Math.max(core[1], Math.min(px, core[3]));
+        double qy = Math.max(core[2], Math.min(py, core[4]));
+        if (closest != null) {
+            closest[0] = qx;
+            closest[1] = qy;
+        }
+        return Math.hypot(px - qx, py - qy);
+    }
+    
+    static double farthestDistance(double[] core, double px, double py) {
+        if (core[0] == SEGMENT) {
+            return Math.max(Math.hypot(px - core[1], py - core[2]), Math.hypot(px - core[3], py - core[4]));
+        }
+        double dx = Math.max(Math.abs(px - core[1]), Math.abs(px - core[3]));
+        double dy = Math.max(Math.abs(py - core[2]), Math.abs(py - core[4]));
+        return Math.hypot(dx, dy);
+    }
+    
+    // Zero when the core touches or lies inside the polygon
+    static double polygonDistance(double[] core, Polygon polygon) {
+        if (polygon.containsPoint(new Vector2D(core[1], core[2]))) return 0;
+        
+        Vector2D[] vertices = polygon.getVertices();
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < vertices.length; i++) {
+            Vector2D v1 = vertices[i];
+            Vector2D v2 = vertices[(i + 1) % vertices.length];
+            double distance = core[0] == SEGMENT
+                ? segmentSegment(core[1], core[2], core[3], core[4], v1.getX(), v1.getY(), v2.getX(), v2.getY(), null)
+                : segmentBox(v1.getX(), v1.getY(), v2.getX(), v2.getY(), core[1], core[2], core[3], core[4], null);
+            best = Math.min(best, distance);
+            if (best == 0) break;
+        }
+        return best;
+    }
+    
+    static double pointSegment(double px, double py, double ax, double ay, double bx, double by, double[] closest) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared <= EPSILON ? 0 : clamp(((px - ax) * dx + (py - ay) * dy) / lengthSquared);
+        double qx = ax + dx * t;
+        double qy = ay + dy * t;
+        if (closest != null) {
+            closest[0] = qx;
+            closest[1] = qy;
+        }
+        return Math.hypot(px - qx, py - qy);
+    }
+    
+    // Closest points between two segments (Ericson, Real-Time Collision Detection 5.1.9)
+    static double segmentSegment(double p1x, double p1y, double q1x, double q1y,
+                                 double p2x, double p2y, double q2x, double q2y, double[] closest) {
+        double d1x = q1x - p1x, d1y = q1y - p1y;
+        double d2x = q2x - p2x, d2y = q2y - p2y;
+        double rx = p1x - p2x, ry = p1y - p2y;
+        double a = d1x * d1x + d1y * d1y;
+        double e = d2x * d2x + d2y * d2y;
+        double f = d2x * rx + d2y * ry;
+        
+        double s, t;
+        if (a <= EPSILON && e <= EPSILON) {
+            s = 0;
+            t = 0;
+        } else if (a <= EPSILON) {
+            s = 0;
+            t = clamp(f / e);
+        } else {
+            double c = d1x * rx + d1y * ry;
+            if (e <= EPSILON) {
+                t = 0;
+                s = clamp(-c / a);
+            } else {
+                double b = d1x * d2x + d1y * d2y;
+                double denom = a * e - b * b;
+                s = denom > EPSILON ? clamp((b * f - c * e) / denom) : 0;
+                t = (b * s + f) / e;
+                if (t < 0) {
+                    t = 0;
+                    s = clamp(-c / a);
+                } else if (t > 1) {
+                    t = 1;
+                    s = clamp((b - c) / a);
+                }
+            }
+        }
+        
+        double ax = p1x + d1x * s, ay = p1y + d1y * s;
+        double bx = p2x + d2x * t, by = p2y + d2y * t;
+        if (closest != null) {
+            closest[0] = ax;
+            closest[1] = ay;
+            closest[2] = bx;
+            closest[3] = by;
+        }
+        return Math.hypot(ax - bx, ay - by);
+    }
+    
+    static double segmentBox(double sx1, double sy1, double sx2, double sy2,
+                             double minX, double minY, double maxX, double maxY, double[] closest) {
+        // Slab clip: any overlap means distance zero
+        double t0 = 0, t1 = 1;
+        double dx = sx2 - sx1, dy = sy2 - sy1;
+        boolean hit = true;
+        if (Math.abs(dx) <= EPSILON) {
+            hit = sx1 >= minX && sx1 <= maxX;
+        } else {
+            double ta = (minX - sx1) / dx, tb = (maxX - sx1) / dx;
+            t0 = Math.max(t0, Math.min(ta, tb));
+            t1 = Math.min(t1, Math.max(ta, tb));
+        }
+        if (hit && Math.abs(dy) <= EPSILON) {
+            hit = sy1 >= minY && sy1 <= maxY;
+        } else if (hit) {
+            double ta = (minY - sy1) / dy, tb = (maxY - sy1) / dy;
+            t0 = Math.max(t0, Math.min(ta, tb));
+            t1 = Math.min(t1, Math.max(ta, tb));
+        }
+        if (hit && t0 <= t1) {
+            if (closest != null) {
+                closest[0] = closest[2] = sx1 + dx * t0;
+                closest[1] = closest[3] = sy1 + dy * t0;
+            }
+            return 0;
+        }
+        
+        // Disjoint convex shapes: the closest pair involves a vertex of one of them
+        double best = Double.POSITIVE_INFINITY;
+        double ax = 0, ay = 0, bx = 0, by = 0;
+        double[] endpoints = {sx1, sy1, sx2, sy2};
+        for (int i = 0; i < 2; i++) {
+            double px = endpoints[2 * i], py = endpoints[2 * i + 1];
+            double qx = Math.max(minX, Math.min(px, maxX));
+            double qy = Math.max(minY, Math.min(py, maxY));
+            double d = Math.hypot(px - qx, py - qy);
+            if (d < best) {
+                best = d;
+                ax = px;
+                ay = py;
+                bx = qx;
+                by = qy;
+            }
+        }
+        double[] point = new double[2];
+        double[] corners = {minX, minY, maxX, minY, maxX, maxY, minX, maxY};
+        for (int i = 0; i < 4; i++) {
+            double d = pointSegment(corners[2 * i], corners[2 * i + 1], sx1, sy1, sx2, sy2, point);
+            if (d < best) {
+                best = d;
+                ax = point[0];
+                ay = point[1];
+                bx = corners[2 * i];
+                by = corners[2 * i + 1];
+            }
+        }
+        
+        if (closest != null) {
+            closest[0] = ax;
+            closest[1] = ay;
+            closest[2] = bx;
+            closest[3] = by;
+        }
+        return best;
+    }
+    
+    static double boxBox(double aMinX, double aMinY, double aMaxX, double aMaxY,
+                         double bMinX, double bMinY, double bMaxX, double bMaxY, double[] closest) {
+        double ax, bx, ay, by;
+        if (aMaxX < bMinX) {
+            ax = aMaxX;
+            bx = bMinX;
+        } else if (bMaxX < aMinX) {
+            ax = aMinX;
+            bx = bMaxX;
+        } else {
+            ax = bx = (Math.max(aMinX, bMinX) + Math.min(aMaxX, bMaxX)) / 2;
+        }
+        if (aMaxY < bMinY) {
+            ay = aMaxY;
+            by = bMinY;
+        } else if (bMaxY < aMinY) {
+            ay = aMinY;
+            by = bMaxY;
+        } else {
+            ay = by = (Math.max(aMinY, bMinY) + Math.min(aMaxY, bMaxY)) / 2;
+        }
+        
+        if (closest != null) {
+            closest[0] = ax;
+            closest[1] = ay;
+            closest[2] = bx;
+            closest[3] = by;
+        }
+        return Math.hypot(ax - bx, ay - by);
+    }
+    
+    private static double clamp(double t) {
+        return Math.max(0, Math.min(1, t));
+    }
+    
+    private static void swap(double[] closest) {
+        double x = closest[0], y = closest[1];
+        closest[0] = closest[2];
+        closest[1] = closest[3];
+        closest[2] = x;
+        closest[3] = y;
+    }
+}
\ No newline at end of file
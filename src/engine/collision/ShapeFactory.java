@@ -51,6 +51,7 @@ public class ShapeFactory {
     }
     
     public static Curve createWave(Vector2D start, Vector2D end, double amplitude, double frequency) {
+        FastTrig trig = FastTrig.getShared();
         Vector2D direction = end.subtract(start);
         double length = direction.magnitude();
         Vector2D unitDir = direction.normalize();
@@ -62,7 +63,7 @@ public class ShapeFactory {
         for (int i = 0; i <= numPoints; i++) {
             double t = (double) i / numPoints;
             Vector2D basePoint = start.add(unitDir.multiply(length * t));
-            double offset = amplitude * Math.sin(frequency * 2 * Math.PI * t);
+            double offset = amplitude * trig.sin(frequency * 2 * Math.PI * t);
             points.add(basePoint.add(perp.multiply(offset)));
         }
         
@@ -110,6 +111,7 @@ public class ShapeFactory {
     }
     
     public static FreeForm createCloud(Vector2D center, double size, int numCircles) {
+        FastTrig trig = FastTrig.getShared();
         List<Vector2D> cloudPoints = new ArrayList<>();
         Random random = new Random();
         
@@ -118,16 +120,16 @@ public class ShapeFactory {
             double angle = 2 * Math.PI * i / numCircles;
             double radius = size * (0.3 + random.nextDouble() * 0.7);
             double distance = size * 0.3;
-            double x = center.getX() + Math.cos(angle) * distance;
-            double y = center.getY() + Math.sin(angle) * distance;
+            double x = center.getX() + trig.cos(angle) * distance;
+            double y = center.getY() + trig.sin(angle) * distance;
             
             Vector2D circleCenter = new Vector2D(x, y);
             int pointsPerCircle = 16;
             
             for (int j = 0; j < pointsPerCircle; j++) {
                 double circleAngle = 2 * Math.PI * j / pointsPerCircle;
-                double px = x + radius * Math.cos(circleAngle);
-                double py = y + radius * Math.sin(circleAngle);
+                double px = x + radius * trig.cos(circleAngle);
+                double py = y + radius * trig.sin(circleAngle);
                 cloudPoints.add(new Vector2D(px, py));
             }
         }
@@ -135,7 +137,21 @@ public class ShapeFactory {
         return new FreeForm(cloudPoints, true);
     }
     
+    // Rounded Shapes
+    public static Capsule createCapsuleShape(Vector2D start, Vector2D end, double radius) {
+        return new Capsule(start, end, radius);
+    }
+    
+    public static RoundedRectangle createRoundedRectangleShape(Vector2D center, double width, double height, double cornerRadius) {
+        return new RoundedRectangle(center, width, height, cornerRadius);
+    }
+    
+    public static Ring createRing(Vector2D center, double outerRadius, double innerRadius) {
+        return new Ring(center, outerRadius, innerRadius);
+    }
+    
     // Composite Shapes
+    // The rounded shapes built from circles and rectangles; the native ones above are cheaper to test
     public static CompositeShape createCapsule(Vector2D start, Vector2D end, double radius) {
         return CompositeShape.createCapsule(start, end, radius);
     }
@@ -149,6 +165,7 @@ public class ShapeFactory {
     }
     
     public static CompositeShape createGear(Vector2D center, double outerRadius, double innerRadius, int teeth, double toothHeight) {
+        FastTrig trig = FastTrig.getShared();
         CompositeShape gear = new CompositeShape(true);
         
         // Main body circle
@@ -159,8 +176,8 @@ public class ShapeFactory {
         double anglePerTooth = 2 * Math.PI / teeth;
         for (int i = 0; i < teeth; i++) {
             double angle = i * anglePerTooth;
-            double toothX = center.getX() + Math.cos(angle) * (innerRadius + toothHeight/2);
-            double toothY = center.getY() + Math.sin(angle) * (innerRadius + toothHeight/2);
+            double toothX = center.getX() + trig.cos(angle) * (innerRadius + toothHeight/2);
+            double toothY = center.getY() + trig.sin(angle) * (innerRadius + toothHeight/2);
             
             Rectangle tooth = new Rectangle(
                 new Vector2D(toothX, toothY),
@@ -176,13 +193,33 @@ public class ShapeFactory {
     // Procedural Shapes
     public static FreeForm createTerrain(Vector2D start, Vector2D end, int segments, double maxHeight) {
         List<Vector2D> terrainPoints = new ArrayList<>();
-        Random random = new Random();
         
         Vector2D direction = end.subtract(start);
         double length = direction.magnitude();
         Vector2D unitDir = direction.normalize();
         
-        // Generate terrain heights using simple noise
+        double[] heights = generateTerrainHeights(segments, maxHeight);
+        
+        // Create terrain points
+        for (int i = 0; i <= segments; i++) {
+            double t = (double) i / segments;
+            Vector2D basePoint = start.add(unitDir.multiply(length * t));
+            double height = heights[i];
+            terrainPoints.add(new Vector2D(basePoint.getX(), basePoint.getY() - height));
+        }
+        
+        return new FreeForm(terrainPoints, false); // Outline only
+    }
+    
+    // Solid terrain from start.x to start.x + width, rising up to maxHeight above start.y
+    public static HeightfieldGeometry createHeightfield(Vector2D start, double width, int segments, double maxHeight) {
+        return new HeightfieldGeometry(start.getX(), start.getY(), width / segments,
+                                       generateTerrainHeights(segments, maxHeight));
+    }
+    
+    // Simple noise smoothed a few times
+    private static double[] generateTerrainHeights(int segments, double maxHeight) {
+        Random random = new Random();
         double[] heights = new double[segments + 1];
         for (int i = 0; i <= segments; i++) {
             heights[i] = random.nextDouble() * maxHeight;
@@ -201,26 +238,19 @@ public class ShapeFactory {
             heights = smoothed;
         }
         
-        // Create terrain points
-        for (int i = 0; i <= segments; i++) {
-            double t = (double) i / segments;
-            Vector2D basePoint = start.add(unitDir.multiply(length * t));
-            double height = heights[i];
-            terrainPoints.add(new Vector2D(basePoint.getX(), basePoint.getY() - height));
-        }
-        
-        return new FreeForm(terrainPoints, false); // Outline only
+        return heights;
     }
     
     public static CompositeShape createAsteroid(Vector2D center, double baseRadius, int vertices, double variation) {
+        FastTrig trig = FastTrig.getShared();
         List<Vector2D> asteroidPoints = new ArrayList<>();
         Random random = new Random();
         
         for (int i = 0; i < vertices; i++) {
             double angle = 2 * Math.PI * i / vertices;
             double radius = baseRadius * (1 + (random.nextDouble() - 0.5) * variation);
-            double x = center.getX() + radius * Math.cos(angle);
-            double y = center.getY() + radius * Math.sin(angle);
+            double x = center.getX() + radius * trig.cos(angle);
+            double y = center.getY() + radius * trig.sin(angle);
             asteroidPoints.add(new Vector2D(x, y));
         }
         
@@ -232,8 +262,68 @@ public class ShapeFactory {
         return asteroid;
     }
     
+    // Instanced Shapes
+    // Asteroid outlines are generated around the origin so one template can back many
+    // instances; use a fixed seed to get the same outline every time
+    public static ShapeTemplate createAsteroidTemplate(double baseRadius, int vertices, double variation, long seed) {
+        Vector2D[] asteroidPoints = new Vector2D[vertices];
+        Random random = new Random(seed);
+        
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = baseRadius * (1 + (random.nextDouble() - 0.5) * variation);
+            asteroidPoints[i] = new Vector2D(radius * Math.cos(angle), radius * Math.sin(angle));
+        }
+        
+        return ShapeTemplate.fromOutline(asteroidPoints);
+    }
+    
+    public static ShapeInstance createInstance(ShapeTemplate template, Vector2D center) {
+        return template.createInstance(center);
+    }
+    
+    public static ShapeInstance createInstance(ShapeTemplate template, Vector2D center, double rotation, double scale) {
+        return template.createInstance(center, rotation, scale);
+    }
+    
+    // Baked Shapes
+    public static CompositeShape createBaked(Geometry source, double tolerance) {
+        return ShapeBaker.bake(source, tolerance).toCompositeShape();
+    }
+    
+    // Distance Fields
+    public static DistanceFieldGeometry createDistanceField(Geometry source, double cellSize) {
+        return new DistanceFieldGeometry(source, cellSize);
+    }
+    
+    // Bitmasks
+    public static BitmaskGeometry createBitmask(Geometry source, double pixelSize) {
+        return BitmaskGeometry.fromGeometry(source, pixelSize);
+    }
+    
+    // Tile Maps
+    // One string per row; '.' and ' ' are empty, any other character is a solid tile
+    public static TileMapGeometry createTileMap(Vector2D origin, String[] rows, double tileSize) {
+        int columns = 0;
+        for (String row : rows) {
+            columns = Math.max(columns, row.length());
+        }
+        
+        TileMapGeometry tileMap = new TileMapGeometry(origin, Math.max(1, columns), Math.max(1, rows.length), tileSize);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                char c = rows[y].charAt(x);
+                if (c != '.' && c != ' ') {
+                    tileMap.setTile(x, y, (byte) 1);
+                }
+            }
+        }
+        return tileMap;
+    }
+    
     // Utility methods
     private static Vector2D[] generateSineWavePoints(Vector2D start, Vector2D end, double amplitude, int cycles) {
+        FastTrig trig = FastTrig.getShared();
         Vector2D direction = end.subtract(start);
         double length = direction.magnitude();
         Vector2D unitDir = direction.normalize();
@@ -245,7 +335,7 @@ public class ShapeFactory {
         for (int i = 0; i <= numPoints; i++) {
             double t = (double) i / numPoints;
             Vector2D basePoint = start.add(unitDir.multiply(length * t));
-            double offset = amplitude * Math.sin(cycles * 2 * Math.PI * t);
+            double offset = amplitude * trig.sin(cycles * 2 * Math.PI * t);
             points.add(basePoint.add(perp.multiply(offset)));
         }
         
@@ -253,6 +343,7 @@ public class ShapeFactory {
     }
     
     private static Vector2D[] generateSpiralPoints(Vector2D center, double startRadius, double endRadius, int turns) {
+        FastTrig trig = FastTrig.getShared();
         List<Vector2D> points = new ArrayList<>();
         int numPoints = 200;
         
@@ -261,8 +352,8 @@ public class ShapeFactory {
             double angle = turns * 2 * Math.PI * t;
             double radius = startRadius + (endRadius - startRadius) * t;
             
-            double x = center.getX() + radius * Math.cos(angle);
-            double y = center.getY() + radius * Math.sin(angle);
+            double x = center.getX() + radius * trig.cos(angle);
+            double y = center.getY() + radius * trig.sin(angle);
             
             points.add(new Vector2D(x, y));
         }
@@ -302,8 +393,9 @@ public class ShapeFactory {
     }
     
     private static Vector2D rotate(Vector2D vector, double angle) {
-        double cos = Math.cos(angle);
-        double sin = Math.sin(angle);
+        FastTrig trig = FastTrig.getShared();
+        double cos = trig.cos(angle);
+        double sin = trig.sin(angle);
         return new Vector2D(
             vector.getX() * cos - vector.getY() * sin,
             vector.getX() * sin + vector.getY() * cos
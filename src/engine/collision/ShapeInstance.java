@@ -0,0 +1,344 @@
+package engine.collision;
+
+// A placement of a shared ShapeTemplate: position, rotation, uniform scale and a cached
+// world bounding box. Queries are mapped into template space instead of moving vertices.
+public class ShapeInstance implements Geometry {
+    private final ShapeTemplate template;
+    private Vector2D position;
+    private double rotation;
+    private double scale;
+    private double cosRot;
+    private double sinRot;
+    private BoundingBox boundingBox;
+    // Piece indices from the template's hierarchy, per instance so that instances of one
+    // template can be queried on different threads
+    private final int[] candidates;
+    
+    public ShapeInstance(ShapeTemplate template, Vector2D position, double rotation, double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Instance scale must be positive");
+        }
+        this.template = template;
+        this.position = position;
+        this.rotation = rotation;
+        this.scale = scale;
+        this.cosRot = Math.cos(rotation);
+        this.sinRot = Math.sin(rotation);
+        this.candidates = new int[template.getPieceCount()];
+    }
+    
+    public ShapeTemplate getTemplate() { return template; }
+    public double getRotation() { return rotation; }
+    public double getScale() { return scale; }
+    
+    public void setPosition(Vector2D position) {
+        this.position = position;
+        boundingBox = null;
+    }
+    
+    public void setRotation(double rotation) {
+        this.rotation = rotation;
+        this.cosRot = Math.cos(rotation);
+        this.sinRot = Math.sin(rotation);
+        boundingBox = null;
+    }
+    
+    public void setScale(double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Instance scale must be positive");
+        }
+        this.scale = scale;
+        boundingBox = null;
+    }
+    
+    // Transforms between world and template space
+    
+    private double toLocalX(double x, double y) {
+        return ((x - position.getX()) * cosRot + (y - position.getY()) * sinRot) / scale;
+    }
+    
+    private double toLocalY(double x, double y) {
+        return (-(x - position.getX()) * sinRot + (y - position.getY()) * cosRot) / scale;
+    }
+    
+    private double toWorldX(double x, double y) {
+        return position.getX() + (x * cosRot - y * sinRot) * scale;
+    }
+    
+    private double toWorldY(double x, double y) {
+        return position.getY() + (x * sinRot + y * cosRot) * scale;
+    }
+    
+    private double[] toLocal(Vector2D[] points) {
+        double[] local = new double[points.length * 2];
+        for (int i = 0; i < points.length; i++) {
+            local[2 * i] = toLocalX(points[i].getX(), points[i].getY());
+            local[2 * i + 1] = toLocalY(points[i].getX(), points[i].getY());
+        }
+        return local;
+    }
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (!getBoundingBox().intersects(other.getBoundingBox())) {
+            return false;
+        }
+        
+        switch (other.getType()) {
+            case CIRCLE:
+                return intersectsCircle((Circle) other);
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) other;
+                return intersectsConvex(toLocal(new Vector2D[] {
+                    new Vector2D(rect.getLeft(), rect.getTop()),
+                    new Vector2D(rect.getRight(), rect.getTop()),
+                    new Vector2D(rect.getRight(), rect.getBottom()),
+                    new Vector2D(rect.getLeft(), rect.getBottom())
+                }), 4);
+            case LINE:
+                Line line = (Line) other;
+                return intersectsConvex(toLocal(new Vector2D[] {line.getStart(), line.getEnd()}), 2);
+            case POLYGON:
+                return intersectsPolygon((Polygon) other);
+            case INSTANCE:
+                return intersectsInstance((ShapeInstance) other);
+            default:
+                return intersectsWorldPieces(other);
+        }
+    }
+    
+    private boolean intersectsCircle(Circle circle) {
+        Vector2D center = circle.getCenter();
+        double cx = toLocalX(center.getX(), center.getY());
+        double cy = toLocalY(center.getX(), center.getY());
+        double r = circle.getRadius() / scale;
+        
+        int count = template.queryPieces(cx - r, cy - r, cx + r, cy + r, candidates);
+        for (int i = 0; i < count; i++) {
+            double[] piece = template.getPiece(candidates[i]);
+            if (ShapeTemplate.pieceContains(piece, cx, cy) ||
+                ShapeTemplate.distanceToPieceEdges(piece, cx, cy) <= r) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean intersectsConvex(double[] local, int pointCount) {
+        BoundingBox box = ShapeTemplate.bounds(local, pointCount);
+        int count = template.queryPieces(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), candidates);
+        for (int i = 0; i < count; i++) {
+            double[] piece = template.getPiece(candidates[i]);
+            if (ShapeTemplate.convexOverlap(piece, piece.length / 2, local, pointCount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Polygons may be concave: test containment both ways and then edge crossings
+    private boolean intersectsPolygon(Polygon polygon) {
+        Vector2D[] vertices = polygon.getVertices();
+        double[] local = toLocal(vertices);
+        int n = vertices.length;
+        BoundingBox box = ShapeTemplate.bounds(local, n);
+        
+        int count = template.queryPieces(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), candidates);
+        for (int c = 0; c < count; c++) {
+            double[] piece = template.getPiece(candidates[c]);
+            if (polygonContains(local, n, piece[0], piece[1])) return true;
+            
+            for (int i = 0; i < n; i++) {
+                int next = (i + 1) % n;
+                double[] edge = {local[2 * i], local[2 * i + 1], local[2 * next], local[2 * next + 1]};
+                if (ShapeTemplate.convexOverlap(piece, piece.length / 2, edge, 2)) return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean polygonContains(double[] polygon, int n, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = polygon[2 * i], yi = polygon[2 * i + 1];
+            double xj = polygon[2 * j], yj = polygon[2 * j + 1];
+            if (((yi > y) != (yj > y)) && (x < (xj - xi) * (y - yi) / (yj - yi) + xi)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+    
+    private boolean intersectsInstance(ShapeInstance other) {
+        // Bring each of the other instance's pieces into this instance's template space
+        double[] local = new double[other.template.getMaxPieceVertices() * 2];
+        for (int p = 0; p < other.template.getPieceCount(); p++) {
+            double[] piece = other.template.getPiece(p);
+            int n = piece.length / 2;
+            for (int i = 0; i < n; i++) {
+                double wx = other.toWorldX(piece[2 * i], piece[2 * i + 1]);
+                double wy = other.toWorldY(piece[2 * i], piece[2 * i + 1]);
+                local[2 * i] = toLocalX(wx, wy);
+                local[2 * i + 1] = toLocalY(wx, wy);
+            }
+            if (intersectsConvex(local, n)) return true;
+        }
+        return false;
+    }
+    
+    // Shapes without a local-space routine are tested against world-space copies of the
+    // candidate pieces
+    private boolean intersectsWorldPieces(Geometry other) {
+        BoundingBox box = other.getBoundingBox();
+        double[] corners = toLocal(new Vector2D[] {
+            new Vector2D(box.getMinX(), box.getMinY()), new Vector2D(box.getMaxX(), box.getMinY()),
+            new Vector2D(box.getMaxX(), box.getMaxY()), new Vector2D(box.getMinX(), box.getMaxY())
+        });
+        BoundingBox localBox = ShapeTemplate.bounds(corners, 4);
+        
+        int count = template.queryPieces(localBox.getMinX(), localBox.getMinY(), localBox.getMaxX(), localBox.getMaxY(),
+                                         candidates);
+        for (int i = 0; i < count; i++) {
+            if (other.intersects(worldPiece(candidates[i]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Polygon worldPiece(int index) {
+        double[] piece = template.getPiece(index);
+        Vector2D[] vertices = new Vector2D[piece.length / 2];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vector2D(toWorldX(piece[2 * i], piece[2 * i + 1]),
+                                       toWorldY(piece[2 * i], piece[2 * i + 1]));
+        }
+        return new Polygon(vertices);
+    }
+    
+    // Circle contact with a real penetration depth, used by CollisionDetector. The circle is
+    // pushed out through the nearest point of the shape's outline, never through an edge
+    // between two of its pieces.
+    CollisionResult collideCircle(Circle circle) {
+        Vector2D center = circle.getCenter();
+        double cx = toLocalX(center.getX(), center.getY());
+        double cy = toLocalY(center.getX(), center.getY());
+        double r = circle.getRadius() / scale;
+        
+        boolean inside = false;
+        double reach = r;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        double px = 0, py = 0;
+        while (true) {
+            int count = template.queryPieces(cx - reach, cy - reach, cx + reach, cy + reach, candidates);
+            for (int c = 0; c < count; c++) {
+                int index = candidates[c];
+                if (!inside && ShapeTemplate.pieceContains(template.getPiece(index), cx, cy)) {
+                    inside = true;
+                }
+                
+                double[] outline = template.getOutline(index);
+                for (int i = 0; i < outline.length; i += 4) {
+                    double ax = outline[i], ay = outline[i + 1];
+                    double dx = outline[i + 2] - ax, dy = outline[i + 3] - ay;
+                    double lengthSquared = dx * dx + dy * dy;
+                    double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((cx - ax) * dx + (cy - ay) * dy) / lengthSquared));
+                    double qx = ax + dx * t, qy = ay + dy * t;
+                    double d = Math.hypot(cx - qx, cy - qy);
+                    if (d < closestDistance) {
+                        closestDistance = d;
+                        px = qx;
+                        py = qy;
+                    }
+                }
+            }
+            
+            // Outside, only outline within the radius matters. Inside, the way out may be
+            // further off than the pieces found so far: search again out to the nearest
+            // outline seen, or the whole template if none was.
+            if (!inside || closestDistance <= reach) break;
+            double further = closestDistance < Double.POSITIVE_INFINITY ? closestDistance : farthestCorner(cx, cy);
+            if (further <= reach) break;
+            reach = further;
+        }
+        
+        if (!inside && closestDistance > r) return new CollisionResult(false);
+        
+        double nx = inside ? px - cx : cx - px;
+        double ny = inside ? py - cy : cy - py;
+        double length = Math.hypot(nx, ny);
+        double normalX = length == 0 ? 1 : nx / length;
+        double normalY = length == 0 ? 0 : ny / length;
+        double localDepth = inside ? r + closestDistance : r - closestDistance;
+        
+        // Normal points from the instance towards the circle, as for circle/rectangle
+        Vector2D normal = new Vector2D(normalX * cosRot - normalY * sinRot, normalX * sinRot + normalY * cosRot);
+        double depth = localDepth * scale;
+        Vector2D contact = new Vector2D(toWorldX(px, py), toWorldY(px, py));
+        return new CollisionResult(true, normal.multiply(depth), depth, contact);
+    }
+    
+    // Distance from a local point to the far corner of the template's bounds
+    private double farthestCorner(double x, double y) {
+        BoundingBox local = template.getLocalBounds();
+        double dx = Math.max(Math.abs(x - local.getMinX()), Math.abs(x - local.getMaxX()));
+        double dy = Math.max(Math.abs(y - local.getMinY()), Math.abs(y - local.getMaxY()));
+        return Math.hypot(dx, dy);
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        double x = toLocalX(point.getX(), point.getY());
+        double y = toLocalY(point.getX(), point.getY());
+        
+        int count = template.queryPieces(x, y, x, y, candidates);
+        for (int i = 0; i < count; i++) {
+            if (ShapeTemplate.pieceContains(template.getPiece(candidates[i]), x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (boundingBox == null) {
+            // Rotate the template's local box; slightly loose for rotated instances
+            BoundingBox local = template.getLocalBounds();
+            double[] corners = {
+                local.getMinX(), local.getMinY(), local.getMaxX(), local.getMinY(),
+                local.getMaxX(), local.getMaxY(), local.getMinX(), local.getMaxY()
+            };
+            double[] world = new double[8];
+            for (int i = 0; i < 4; i++) {
+                world[2 * i] = toWorldX(corners[2 * i], corners[2 * i + 1]);
+                world[2 * i + 1] = toWorldY(corners[2 * i], corners[2 * i + 1]);
+            }
+            boundingBox = ShapeTemplate.bounds(world, 4);
+        }
+        return boundingBox;
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return position;
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        position = position.add(offset);
+        if (boundingBox != null) {
+            boundingBox = new BoundingBox(
+                boundingBox.getMinX() + offset.getX(),
+                boundingBox.getMinY() + offset.getY(),
+                boundingBox.getMaxX() + offset.getX(),
+                boundingBox.getMaxY() + offset.getY()
+            );
+        }
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.INSTANCE;
+    }
+}
\ No newline at end of file
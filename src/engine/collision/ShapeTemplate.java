@@ -0,0 +1,264 @@
+package engine.collision;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable shape data shared by any number of ShapeInstances, on any number of threads.
+// The source geometry is baked once into convex pieces stored in local space around the
+// source center, with a bounds hierarchy over the pieces; instances only add a transform
+// and bring their own query buffer.
+public class ShapeTemplate {
+    // Edges are nudged outwards by this fraction of the template size to find the
+    // neighbouring pieces that cover them
+    private static final double OUTLINE_OFFSET = 1e-9;
+    
+    private final double[][] pieces;
+    // Per piece, the parts of its edges on the outline of the whole shape, as x1, y1, x2, y2
+    // runs; edges between pieces are left out
+    private final double[][] outlines;
+    private final BoundsTree tree;
+    private final BoundingBox localBounds;
+    private final double errorBound;
+    private final int maxPieceVertices;
+    
+    public ShapeTemplate(Geometry source, double tolerance) {
+        BakedShape baked = ShapeBaker.bake(source, tolerance);
+        Vector2D origin = source.getCenter();
+        List<Polygon> polygons = baked.getPieces();
+        
+        this.pieces = new double[polygons.size()][];
+        BoundingBox[] pieceBounds = new BoundingBox[polygons.size()];
+        int maxVertices = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            Vector2D[] vertices = polygons.get(i).getVertices();
+            double[] piece = new double[vertices.length * 2];
+            for (int j = 0; j < vertices.length; j++) {
+                piece[2 * j] = vertices[j].getX() - origin.getX();
+                piece[2 * j + 1] = vertices[j].getY() - origin.getY();
+            }
+            pieces[i] = piece;
+            pieceBounds[i] = bounds(piece, piece.length / 2);
+            maxVertices = Math.max(maxVertices, vertices.length);
+        }
+        
+        this.tree = new BoundsTree(pieceBounds);
+        this.localBounds = tree.isEmpty() ? new BoundingBox(0, 0, 0, 0)
+            : new BoundingBox(tree.getMinX(), tree.getMinY(), tree.getMaxX(), tree.getMaxY());
+        this.errorBound = baked.getErrorBound();
+        this.maxPieceVertices = maxVertices;
+        
+        this.outlines = new double[pieces.length][];
+        int[] neighbours = new int[pieces.length];
+        double offset = OUTLINE_OFFSET * Math.max(1, Math.max(localBounds.getWidth(), localBounds.getHeight()));
+        for (int i = 0; i < pieces.length; i++) {
+            outlines[i] = outlineOf(i, neighbours, offset);
+        }
+    }
+    
+    // The parts of a piece's edges no other piece covers. Each edge is moved out by offset
+    // and clipped against the pieces around it; on an edge shared with a neighbour, or one
+    // running inside it, the moved copy lands inside the neighbour.
+    private double[] outlineOf(int index, int[] neighbours, double offset) {
+        double[] piece = pieces[index];
+        int n = piece.length / 2;
+        double[] outline = new double[4 * n];
+        int length = 0;
+        double[] from = new double[pieces.length];
+        double[] to = new double[pieces.length];
+        
+        for (int i = 0; i < n; i++) {
+            int next = (i + 1) % n;
+            double ax = piece[2 * i], ay = piece[2 * i + 1];
+            double ex = piece[2 * next] - ax, ey = piece[2 * next + 1] - ay;
+            double edgeLength = Math.hypot(ex, ey);
+            if (edgeLength == 0) continue;
+            
+            // Interior is on the left of each edge, so outwards is to the right
+            double sx = ax + ey / edgeLength * offset, sy = ay - ex / edgeLength * offset;
+            int count = tree.query(Math.min(sx, sx + ex), Math.min(sy, sy + ey),
+                                   Math.max(sx, sx + ex), Math.max(sy, sy + ey), neighbours);
+            int covered = 0;
+            for (int c = 0; c < count; c++) {
+                if (neighbours[c] == index) continue;
+                
+                double[] other = pieces[neighbours[c]];
+                int m = other.length / 2;
+                double lo = 0, hi = 1;
+                for (int k = 0; k < m && lo < hi; k++) {
+                    int kNext = (k + 1) % m;
+                    double kx = other[2 * k], ky = other[2 * k + 1];
+                    double fx = other[2 * kNext] - kx, fy = other[2 * kNext + 1] - ky;
+                    double start = fx * (sy - ky) - fy * (sx - kx);
+                    double end = fx * (sy + ey - ky) - fy * (sx + ex - kx);
+                    if (start < 0 && end < 0) {
+                        hi = lo;
+                    } else if (start < 0) {
+                        lo = Math.max(lo, start / (start - end));
+                    } else if (end < 0) {
+                        hi = Math.min(hi, start / (start - end));
+                    }
+                }
+                if (lo < hi) {
+                    from[covered] = lo;
+                    to[covered] = hi;
+                    covered++;
+                }
+            }
+            
+            // What is left of [0, 1] once the covered intervals are taken out
+            sortIntervals(from, to, covered);
+            double t = 0;
+            for (int c = 0; c <= covered; c++) {
+                double gapEnd = c < covered ? from[c] : 1;
+                if ((gapEnd - t) * edgeLength > offset) {
+                    outline[length++] = ax + ex * t;
+                    outline[length++] = ay + ey * t;
+                    outline[length++] = ax + ex * gapEnd;
+                    outline[length++] = ay + ey * gapEnd;
+                    if (length == outline.length) {
+                        outline = Arrays.copyOf(outline, 2 * length);
+                    }
+                }
+                if (c < covered) {
+                    t = Math.max(t, to[c]);
+                }
+            }
+        }
+        return Arrays.copyOf(outline, length);
+    }
+    
+    // Insertion sort by start; a piece has only a handful of neighbours along one edge
+    private static void sortIntervals(double[] from, double[] to, int count) {
+        for (int i = 1; i < count; i++) {
+            double f = from[i], g = to[i];
+            int j = i - 1;
+            while (j >= 0 && from[j] > f) {
+                from[j + 1] = from[j];
+                to[j + 1] = to[j];
+                j--;
+            }
+            from[j + 1] = f;
+            to[j + 1] = g;
+        }
+    }
+    
+    // Exact template for a plain outline; only collinear vertices are dropped
+    public static ShapeTemplate fromOutline(Vector2D[] outline) {
+        return new ShapeTemplate(new Polygon(outline), 1e-9);
+    }
+    
+    public ShapeInstance createInstance(Vector2D position) {
+        return new ShapeInstance(this, position, 0, 1);
+    }
+    
+    public ShapeInstance createInstance(Vector2D position, double rotation) {
+        return new ShapeInstance(this, position, rotation, 1);
+    }
+    
+    public ShapeInstance createInstance(Vector2D position, double rotation, double scale) {
+        return new ShapeInstance(this, position, rotation, scale);
+    }
+    
+    public int getPieceCount() { return pieces.length; }
+    public BoundingBox getLocalBounds() { return localBounds; }
+    public double getErrorBound() { return errorBound; }
+    
+    public int getVertexCount() {
+        int count = 0;
+        for (double[] piece : pieces) {
+            count += piece.length / 2;
+        }
+        return count;
+    }
+    
+    // Local-space queries used by ShapeInstance
+    
+    double[] getPiece(int index) { return pieces[index]; }
+    double[] getOutline(int index) { return outlines[index]; }
+    int getMaxPieceVertices() { return maxPieceVertices; }
+    
+    // Writes the indices of the pieces overlapping the box to candidates, which must hold
+    // one slot per piece, and returns how many were written
+    int queryPieces(double minX, double minY, double maxX, double maxY, int[] candidates) {
+        return tree.query(minX, minY, maxX, maxY, candidates);
+    }
+    
+    static BoundingBox bounds(double[] points, int count) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, points[2 * i]);
+            minY = Math.min(minY, points[2 * i + 1]);
+            maxX = Math.max(maxX, points[2 * i]);
+            maxY = Math.max(maxY, points[2 * i + 1]);
+        }
+        return new BoundingBox(minX, minY, maxX, maxY);
+    }
+    
+    // Pieces are convex with positive signed area, so a point is inside when it is on
+    // the inner side of every edge
+    static boolean pieceContains(double[] piece, double x, double y) {
+        int count = piece.length / 2;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            double ex = piece[2 * next] - piece[2 * i];
+            double ey = piece[2 * next + 1] - piece[2 * i + 1];
+            if (ex * (y - piece[2 * i + 1]) - ey * (x - piece[2 * i]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static double distanceToPieceEdges(double[] piece, double x, double y) {
+        int count = piece.length / 2;
+        double distance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            distance = Math.min(distance, pointSegmentDistance(x, y,
+                piece[2 * i], piece[2 * i + 1], piece[2 * next], piece[2 * next + 1]));
+        }
+        return distance;
+    }
+    
+    // Separating axis test between two convex point sets; segments work as two-point sets
+    static boolean convexOverlap(double[] a, int aCount, double[] b, int bCount) {
+        return !hasSeparatingAxis(a, aCount, b, bCount) && !hasSeparatingAxis(b, bCount, a, aCount);
+    }
+    
+    private static boolean hasSeparatingAxis(double[] a, int aCount, double[] b, int bCount) {
+        for (int i = 0; i < aCount; i++) {
+            int next = (i + 1) % aCount;
+            double axisX = -(a[2 * next + 1] - a[2 * i + 1]);
+            double axisY = a[2 * next] - a[2 * i];
+            
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < aCount; j++) {
+                double p = a[2 * j] * axisX + a[2 * j + 1] * axisY;
+                minA = Math.min(minA, p);
+                maxA = Math.max(maxA, p);
+            }
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < bCount; j++) {
+                double p = b[2 * j] * axisX + b[2 * j + 1] * axisY;
+                minB = Math.min(minB, p);
+                maxB = Math.max(maxB, p);
+            }
+            
+            if (maxA < minB || maxB < minA) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static double pointSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double cx = ax + dx * t - px;
+        double cy = ay + dy * t - py;
+        return Math.sqrt(cx * cx + cy * cy);
+    }
+}
\ No newline at end of file
@@ -9,6 +9,8 @@ public class SpatialHashGrid {
     private List<Geometry> objects;
     private int width;
     private int height;
+    // Narrow-phase tests made by the last checkAllCollisions
+    private int lastPairsTested;
     
     public SpatialHashGrid(double cellSize, int gridWidth, int gridHeight) {
         this.cellSize = cellSize;
@@ -79,10 +81,12 @@ public class SpatialHashGrid {
     public List<CollisionResult> checkAllCollisions() {
         List<CollisionResult> collisions = new ArrayList<>();
         update();
+        lastPairsTested = 0;
         
         for (int i = 0; i < objects.size(); i++) {
             Geometry obj1 = objects.get(i);
             List<Geometry> potentials = getPotentialCollisions(obj1);
+            lastPairsTested += potentials.size();
             
             for (Geometry obj2 : potentials) {
                 CollisionResult result = CollisionDetector.checkCollision(obj1, obj2);
@@ -94,4 +98,8 @@ public class SpatialHashGrid {
         
         return collisions;
     }
+    
+    int getLastPairsTested() {
+        return lastPairsTested;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,345 @@
+package engine.collision;
+
+import java.util.Arrays;
+
+// A whole tile grid as one collider. Overlap queries only visit the cells under the
+// other shape; contacts are resolved against solid tiles merged into rectangles (spans)
+// so shapes sliding along a wall or floor do not catch on the seams between tiles.
+public class TileMapGeometry implements Geometry {
+    public static final byte EMPTY = 0;
+    
+    private final byte[] tiles;
+    private final int columns;
+    private final int rows;
+    private final double tileSize;
+    private Vector2D origin;
+    private BoundingBox bounds;
+    
+    // Spans as {minColumn, minRow, maxColumn, maxRow}, rebuilt lazily after edits
+    private int[] spans;
+    private int spanCount;
+    private BoundsTree spanTree;
+    private int[] spanHits;
+    
+    public TileMapGeometry(Vector2D origin, int columns, int rows, double tileSize) {
+        if (columns <= 0 || rows <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Tile map size and tile size must be positive");
+        }
+        this.origin = origin;
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.tiles = new byte[columns * rows];
+        updateBounds();
+    }
+    
+    // Row-major tile ids; any non-zero id is solid
+    public TileMapGeometry(Vector2D origin, byte[] tiles, int columns, double tileSize) {
+        this(origin, columns, tiles.length / columns, tileSize);
+        System.arraycopy(tiles, 0, this.tiles, 0, columns * rows);
+    }
+    
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public double getTileSize() { return tileSize; }
+    public Vector2D getOrigin() { return origin; }
+    
+    public byte getTile(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) return EMPTY;
+        return tiles[row * columns + column];
+    }
+    
+    public void setTile(int column, int row, byte tile) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            throw new IllegalArgumentException("Tile out of range: " + column + ", " + row);
+        }
+        if (tiles[row * columns + column] != tile) {
+            tiles[row * columns + column] = tile;
+            spanTree = null;
+        }
+    }
+    
+    public boolean isSolid(int column, int row) {
+        return getTile(column, row) != EMPTY;
+    }
+    
+    public int getSpanCount() {
+        getSpanTree();
+        return spanCount;
+    }
+    
+    private void updateBounds() {
+        bounds = new BoundingBox(origin.getX(), origin.getY(),
+                                 origin.getX() + columns * tileSize, origin.getY() + rows * tileSize);
+    }
+    
+    private int columnAt(double x) {
+        return (int) Math.floor((x - origin.getX()) / tileSize);
+    }
+    
+    private int rowAt(double y) {
+        return (int) Math.floor((y - origin.getY()) / tileSize);
+    }
+    
+    // Span merging
+    
+    private BoundsTree getSpanTree() {
+        if (spanTree == null) {
+            buildSpans();
+            BoundingBox[] boxes = new BoundingBox[spanCount];
+            for (int i = 0; i < spanCount; i++) {
+                boxes[i] = new BoundingBox(spans[4 * i], spans[4 * i + 1], spans[4 * i + 2] + 1, spans[4 * i + 3] + 1);
+            }
+            spanTree = new BoundsTree(boxes);
+            spanHits = new int[spanCount];
+        }
+        return spanTree;
+    }
+    
+    // Runs of solid tiles in each row, extended downwards while the row below has a run
+    // with exactly the same columns
+    private void buildSpans() {
+        spans = new int[64];
+        spanCount = 0;
+        int[] open = new int[columns];
+        int[] next = new int[columns];
+        int openCount = 0;
+        
+        for (int row = 0; row < rows; row++) {
+            int nextCount = 0;
+            int o = 0;
+            int column = 0;
+            while (column < columns) {
+                if (tiles[row * columns + column] == EMPTY) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < columns && tiles[row * columns + column] != EMPTY) {
+                    column++;
+                }
+                int end = column - 1;
+                
+                // Open spans are sorted by start column, as are the runs of this row
+                while (o < openCount && spans[4 * open[o]] < start) {
+                    o++;
+                }
+                int span;
+                if (o < openCount && spans[4 * open[o]] == start && spans[4 * open[o] + 2] == end) {
+                    span = open[o++];
+                    spans[4 * span + 3] = row;
+                } else {
+                    span = addSpan(start, row, end, row);
+                }
+                next[nextCount++] = span;
+            }
+            
+            int[] swap = open;
+            open = next;
+            next = swap;
+            openCount = nextCount;
+        }
+    }
+    
+    private int addSpan(int minColumn, int minRow, int maxColumn, int maxRow) {
+        if (4 * spanCount == spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+        }
+        spans[4 * spanCount] = minColumn;
+        spans[4 * spanCount + 1] = minRow;
+        spans[4 * spanCount + 2] = maxColumn;
+        spans[4 * spanCount + 3] = maxRow;
+        return spanCount++;
+    }
+    
+    private Rectangle spanRectangle(int span) {
+        double left = origin.getX() + spans[4 * span] * tileSize;
+        double top = origin.getY() + spans[4 * span + 1] * tileSize;
+        double right = origin.getX() + (spans[4 * span + 2] + 1) * tileSize;
+        double bottom = origin.getY() + (spans[4 * span + 3] + 1) * tileSize;
+        return new Rectangle(new Vector2D((left + right) / 2, (top + bottom) / 2), right - left, bottom - top);
+    }
+    
+    // Spans overlapping a world-space box; results stay in spanHits until the next query
+    private int querySpans(BoundingBox box) {
+        BoundsTree tree = getSpanTree();
+        return tree.query((box.getMinX() - origin.getX()) / tileSize, (box.getMinY() - origin.getY()) / tileSize,
+                          (box.getMaxX() - origin.getX()) / tileSize, (box.getMaxY() - origin.getY()) / tileSize,
+                          spanHits);
+    }
+    
+    // Queries
+    
+    @Override
+    public boolean intersects(Geometry other) {
+        if (!bounds.intersects(other.getBoundingBox())) return false;
+        
+        switch (other.getType()) {
+            case RECTANGLE:
+                Rectangle rect = (Rectangle) other;
+                return intersectsBox(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            case CIRCLE:
+                return intersectsCircle((Circle) other);
+            case LINE:
+                Line line = (Line) other;
+                return trace(line.getStart(), line.getEnd(), null) >= 0;
+            default:
+                int count = querySpans(other.getBoundingBox());
+                int[] hits = Arrays.copyOf(spanHits, count);
+                for (int span : hits) {
+                    if (other.intersects(spanRectangle(span))) return true;
+                }
+                return false;
+        }
+    }
+    
+    private boolean intersectsBox(double left, double top, double right, double bottom) {
+        int firstColumn = Math.max(0, columnAt(left));
+        int lastColumn = Math.min(columns - 1, columnAt(right));
+        int firstRow = Math.max(0, rowAt(top));
+        int lastRow = Math.min(rows - 1, rowAt(bottom));
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (tiles[row * columns + column] != EMPTY) return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean intersectsCircle(Circle circle) {
+        double cx = circle.getCenter().getX();
+        double cy = circle.getCenter().getY();
+        double radius = circle.getRadius();
+        int firstColumn = Math.max(0, columnAt(cx - radius));
+        int lastColumn = Math.min(columns - 1, columnAt(cx + radius));
+        int firstRow = Math.max(0, rowAt(cy - radius));
+        int lastRow = Math.min(rows - 1, rowAt(cy + radius));
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            double top = origin.getY() + row * tileSize;
+            double dy = cy - Math.max(top, Math.min(cy, top + tileSize));
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (tiles[row * columns + column] == EMPTY) continue;
+                double left = origin.getX() + column * tileSize;
+                double dx = cx - Math.max(left, Math.min(cx, left + tileSize));
+                if (dx * dx + dy * dy <= radius * radius) return true;
+            }
+        }
+        return false;
+    }
+    
+    private double trace(Vector2D start, Vector2D end, double[] normal) {
+        return GridTraversal.traceSegment(origin.getX(), origin.getY(), tileSize, columns, rows,
+            start.getX(), start.getY(), end.getX(), end.getY(), this::isSolid, normal);
+    }
+    
+    // First solid tile along a ray. The contact point is where the ray enters the tile and
+    // the penetration vector holds the normal of the face it crossed.
+    public CollisionResult raycast(Vector2D start, Vector2D direction, double maxDistance) {
+        Vector2D end = start.add(direction.normalize().multiply(maxDistance));
+        double[] normal = new double[2];
+        double t = trace(start, end, normal);
+        if (t < 0) return new CollisionResult(false);
+        
+        Vector2D hit = start.add(end.subtract(start).multiply(t));
+        return new CollisionResult(true, new Vector2D(normal[0], normal[1]), 0, hit);
+    }
+    
+    // Deepest contact against the merged spans, used by CollisionDetector. The normal
+    // points from the map towards the other shape.
+    CollisionResult collide(Geometry other) {
+        if (!intersects(other)) return new CollisionResult(false);
+        
+        BoundingBox box = other.getBoundingBox();
+        boolean circle = other.getType() == GeometryType.CIRCLE;
+        double bestDepth = -1;
+        Vector2D bestNormal = null;
+        Vector2D bestContact = null;
+        
+        int count = querySpans(box);
+        int[] hits = Arrays.copyOf(spanHits, count);
+        for (int span : hits) {
+            Rectangle rect = spanRectangle(span);
+            if (!circle && other.getType() != GeometryType.RECTANGLE && !other.intersects(rect)) continue;
+            
+            double depth;
+            Vector2D normal;
+            Vector2D contact;
+            if (circle) {
+                Circle c = (Circle) other;
+                Vector2D center = c.getCenter();
+                double closestX = Math.max(rect.getLeft(), Math.min(center.getX(), rect.getRight()));
+                double closestY = Math.max(rect.getTop(), Math.min(center.getY(), rect.getBottom()));
+                Vector2D offset = new Vector2D(center.getX() - closestX, center.getY() - closestY);
+                double distance = offset.magnitude();
+                if (distance > 0) {
+                    depth = c.getRadius() - distance;
+                    normal = offset.multiply(1 / distance);
+                    contact = new Vector2D(closestX, closestY);
+                } else {
+                    // Center inside the span: leave through the nearest side
+                    double toLeft = center.getX() - rect.getLeft(), toRight = rect.getRight() - center.getX();
+                    double toTop = center.getY() - rect.getTop(), toBottom = rect.getBottom() - center.getY();
+                    double nearest = Math.min(Math.min(toLeft, toRight), Math.min(toTop, toBottom));
+                    depth = c.getRadius() + nearest;
+                    normal = nearest == toLeft ? new Vector2D(-1, 0) : nearest == toRight ? new Vector2D(1, 0)
+                           : nearest == toTop ? new Vector2D(0, -1) : new Vector2D(0, 1);
+                    contact = center;
+                }
+                if (depth < 0) continue;
+            } else {
+                double overlapX = Math.min(box.getMaxX(), rect.getRight()) - Math.max(box.getMinX(), rect.getLeft());
+                double overlapY = Math.min(box.getMaxY(), rect.getBottom()) - Math.max(box.getMinY(), rect.getTop());
+                if (overlapX < 0 || overlapY < 0) continue;
+                Vector2D diff = box.getCenter().subtract(rect.getCenter());
+                if (overlapX < overlapY) {
+                    depth = overlapX;
+                    normal = new Vector2D(diff.getX() < 0 ? -1 : 1, 0);
+                } else {
+                    depth = overlapY;
+                    normal = new Vector2D(0, diff.getY() < 0 ? -1 : 1);
+                }
+                contact = box.getCenter();
+            }
+            
+            if (depth > bestDepth) {
+                bestDepth = depth;
+                bestNormal = normal;
+                bestContact = contact;
+            }
+        }
+        
+        if (bestNormal == null) {
+            // Touching only: report the contact without a push
+            return new CollisionResult(true, new Vector2D(0, 0), 0, other.getCenter());
+        }
+        return new CollisionResult(true, bestNormal.multiply(bestDepth), bestDepth, bestContact);
+    }
+    
+    @Override
+    public boolean containsPoint(Vector2D point) {
+        return isSolid(columnAt(point.getX()), rowAt(point.getY()));
+    }
+    
+    @Override
+    public BoundingBox getBoundingBox() {
+        return bounds;
+    }
+    
+    @Override
+    public Vector2D getCenter() {
+        return bounds.getCenter();
+    }
+    
+    @Override
+    public void translate(Vector2D offset) {
+        origin = origin.add(offset);
+        updateBounds();
+    }
+    
+    @Override
+    public GeometryType getType() {
+        return GeometryType.TILEMAP;
+    }
+}
\ No newline at end of file
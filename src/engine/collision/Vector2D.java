@@ -19,6 +19,41 @@ public class Vector2D {
     public void setX(double x) { this.x = x; }
     public void setY(double y) { this.y = y; }
     
+    // In-place variants for hot paths: they modify and return this vector instead of
+    // allocating. Only use them on vectors the caller owns, not on ones shared with shapes.
+    public Vector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+    
+    public Vector2D set(Vector2D other) {
+        return set(other.x, other.y);
+    }
+    
+    public Vector2D addLocal(Vector2D other) {
+        return set(x + other.x, y + other.y);
+    }
+    
+    public Vector2D subtractLocal(Vector2D other) {
+        return set(x - other.x, y - other.y);
+    }
+    
+    public Vector2D multiplyLocal(double scalar) {
+        return set(x * scalar, y * scalar);
+    }
+    
+    // this += other * scalar
+    public Vector2D scaleAddLocal(Vector2D other, double scalar) {
+        return set(x + other.x * scalar, y + other.y * scalar);
+    }
+    
+    public Vector2D normalizeLocal() {
+        double mag = magnitude();
+        if (mag == 0) return set(0, 0);
+        return set(x / mag, y / mag);
+    }
+    
     public Vector2D add(Vector2D other) {
         return new Vector2D(x + other.x, y + other.y);
     }
@@ -50,7 +85,9 @@ public class Vector2D {
     }
     
     public double distanceTo(Vector2D other) {
-        return subtract(other).magnitude();
+        double dx = x - other.x;
+        double dy = y - other.y;
+        return Math.sqrt(dx * dx + dy * dy);
     }
     
     @Override
@@ -2,6 +2,7 @@ package engine.input;
 
 import engine.Component;
 import engine.GameObject;
+import engine.TransformVector;
 import engine.collision.Vector2D;
 
 public class InputComponent extends Component implements InputEventListener {
@@ -73,29 +74,28 @@ public class InputComponent extends Component implements InputEventListener {
     }
     
     private void handleMovement(double deltaTime) {
-        Vector2D velocity = new Vector2D(0, 0);
+        double moveX = 0;
+        double moveY = 0;
         Keyboard keyboard = inputManager.getKeyboard();
         
         // Arrow keys or WASD movement
         if (keyboard.isUp() || keyboard.isW()) {
-            velocity = velocity.add(new Vector2D(0, -1));
+            moveY -= 1;
         }
         if (keyboard.isDown() || keyboard.isS()) {
-            velocity = velocity.add(new Vector2D(0, 1));
+            moveY += 1;
         }
         if (keyboard.isLeft() || keyboard.isA()) {
-            velocity = velocity.add(new Vector2D(-1, 0));
+            moveX -= 1;
         }
         if (keyboard.isRight() || keyboard.isD()) {
-            velocity = velocity.add(new Vector2D(1, 0));
+            moveX += 1;
         }
         
-        // Apply speed and normalize
+        // Apply speed and normalize, writing into the object's own velocity
+        TransformVector velocity = gameObject.getVelocity().set(moveX, moveY);
         if (velocity.magnitude() > 0) {
-            velocity = velocity.normalize().multiply(moveSpeed);
-            gameObject.setVelocity(velocity);
-        } else {
-            gameObject.setVelocity(new Vector2D(0, 0));
+            velocity.normalizeLocal().multiplyLocal(moveSpeed);
         }
     }
     
@@ -1,5 +1,6 @@
 package engine.input;
 
+import engine.jfr.InputDispatchEvent;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -41,6 +42,8 @@ public class InputEventDispatcher {
             return;
         }
         
+        InputDispatchEvent dispatch = new InputDispatchEvent();
+        dispatch.begin();
         for (InputEventListener listener : listeners) {
             if (event.isConsumed()) {
                 break;
@@ -55,6 +58,13 @@ public class InputEventDispatcher {
                 }
             }
         }
+        dispatch.end();
+        if (dispatch.shouldCommit()) {
+            dispatch.eventType = event.getType().name();
+            dispatch.listenerCount = listeners.size();
+            dispatch.consumed = event.isConsumed();
+            dispatch.commit();
+        }
     }
     
     public void dispatchKeyEvent(KeyEvent event) {
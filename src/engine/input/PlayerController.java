@@ -1,5 +1,6 @@
 package engine.input;
 
+import engine.TransformVector;
 import engine.collision.Vector2D;
 
 public class PlayerController extends InputComponent {
@@ -42,15 +43,13 @@ public class PlayerController extends InputComponent {
         
         // Jump
         if (event.is(KeyEvent.KeyCode.SPACE) && canJump && isGrounded) {
-            Vector2D currentVelocity = gameObject.getVelocity();
-            currentVelocity = new Vector2D(currentVelocity.getX(), -jumpForce);
-            gameObject.setVelocity(currentVelocity);
+            gameObject.getVelocity().setY(-jumpForce);
             onJump();
         }
         
         // Dash
         if (event.is(KeyEvent.KeyCode.SHIFT)) {
-            Vector2D currentVelocity = gameObject.getVelocity();
+            TransformVector currentVelocity = gameObject.getVelocity();
             double dashMultiplier = 2.0;
             gameObject.setVelocity(currentVelocity.multiply(dashMultiplier));
             onDash();
@@ -65,7 +64,7 @@ public class PlayerController extends InputComponent {
     private void handleKeyReleased(KeyEvent event) {
         if (event.is(KeyEvent.KeyCode.SHIFT)) {
             // End dash - return to normal speed
-            Vector2D currentVelocity = gameObject.getVelocity();
+            TransformVector currentVelocity = gameObject.getVelocity();
             double normalMultiplier = 0.5;
             gameObject.setVelocity(currentVelocity.multiply(normalMultiplier));
         }
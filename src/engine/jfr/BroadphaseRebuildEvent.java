@@ -0,0 +1,20 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Rebuilding a CollisionManager's spatial index from its objects
+@Name("engine.BroadphaseRebuild")
+@Label("Broadphase Rebuild")
+@Category({"Game Engine", "Collision"})
+@StackTrace(false)
+public class BroadphaseRebuildEvent extends Event {
+    @Label("Indexing Method")
+    public String indexingMethod;
+    
+    @Label("Object Count")
+    public int objectCount;
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One Game.update. Like the other engine events it is enabled by default, so any recording
+// picks it up; with no recording running, begin/end/shouldCommit compile down to nothing.
+// Individual events can be switched off in a .jfc file or on the command line, e.g.
+// -XX:StartFlightRecording:engine.Frame#enabled=false
+@Name("engine.Frame")
+@Label("Frame")
+@Category({"Game Engine", "Frame"})
+@Description("One update of the game: input, then one or more scene updates")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame Number")
+    public long frameNumber;
+    
+    @Label("Scene")
+    public String scene;
+    
+    @Label("Scene Updates")
+    @Description("Scene updates run in this frame; more than one when a fixed step catches up")
+    public int sceneUpdates;
+}
\ No newline at end of file
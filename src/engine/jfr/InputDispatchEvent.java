@@ -0,0 +1,22 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("engine.InputDispatch")
+@Label("Input Dispatch")
+@Category({"Game Engine", "Input"})
+@StackTrace(false)
+public class InputDispatchEvent extends Event {
+    @Label("Event Type")
+    public String eventType;
+    
+    @Label("Listener Count")
+    public int listenerCount;
+    
+    @Label("Consumed")
+    public boolean consumed;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One CollisionManager.checkAllCollisions pass over the candidate pairs
+@Name("engine.Narrowphase")
+@Label("Narrowphase")
+@Category({"Game Engine", "Collision"})
+@StackTrace(false)
+public class NarrowphaseEvent extends Event {
+    @Label("Indexing Method")
+    public String indexingMethod;
+    
+    @Label("Object Count")
+    public int objectCount;
+    
+    @Label("Pairs Tested")
+    public long pairsTested;
+    
+    @Label("Collision Count")
+    public int collisionCount;
+}
\ No newline at end of file
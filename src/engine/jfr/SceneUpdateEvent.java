@@ -0,0 +1,25 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("engine.SceneUpdate")
+@Label("Scene Update")
+@Category({"Game Engine", "Frame"})
+@StackTrace(false)
+public class SceneUpdateEvent extends Event {
+    @Label("Scene")
+    public String scene;
+    
+    @Label("Object Count")
+    public int objectCount;
+    
+    @Label("Pairs Tested")
+    public long pairsTested;
+    
+    @Label("Collisions Found")
+    public long collisionsFound;
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package engine.jmx;
+
+import engine.Game;
+import engine.collision.CollisionManager;
+
+public class CollisionMonitor implements CollisionMonitorMBean {
+    private final Game game;
+    private final CollisionManager collisionManager;
+    
+    // Changes go through game's update thread
+    public CollisionMonitor(Game game, CollisionManager collisionManager) {
+        this.game = game;
+        this.collisionManager = collisionManager;
+    }
+    
+    @Override
+    public int getObjectCount() {
+        return collisionManager.getObjectCount();
+    }
+    
+    @Override
+    public String getIndexingMethod() {
+        return collisionManager.getSpatialIndexingMethod().name();
+    }
+    
+    @Override
+    public void setIndexingMethod(String method) {
+        CollisionManager.SpatialIndexingMethod indexingMethod;
+        try {
+            indexingMethod = CollisionManager.SpatialIndexingMethod.valueOf(method);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown spatial indexing method: " + method);
+        }
+        game.runOnUpdate(() -> collisionManager.setIndexingMethod(indexingMethod));
+    }
+    
+    @Override
+    public long getCheckCount() {
+        return collisionManager.getCheckCount();
+    }
+    
+    @Override
+    public long getLastPairsTested() {
+        return collisionManager.getLastPairsTested();
+    }
+    
+    @Override
+    public int getLastCollisionsFound() {
+        return collisionManager.getLastCollisionsFound();
+    }
+    
+    @Override
+    public long getTotalPairsTested() {
+        return collisionManager.getTotalPairsTested();
+    }
+    
+    @Override
+    public long getTotalCollisionsFound() {
+        return collisionManager.getTotalCollisionsFound();
+    }
+    
+    @Override
+    public void resetStatistics() {
+        game.runOnUpdate(collisionManager::resetStatistics);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package engine.jmx;
+
+// Pair statistics of one scene's CollisionManager, from its checkAllCollisions passes
+public interface CollisionMonitorMBean {
+    int getObjectCount();
+    
+    // One of CollisionManager.SpatialIndexingMethod; setting it rebuilds the index
+    String getIndexingMethod();
+    void setIndexingMethod(String method);
+    
+    long getCheckCount();
+    long getLastPairsTested();
+    int getLastCollisionsFound();
+    long getTotalPairsTested();
+    long getTotalCollisionsFound();
+    
+    void resetStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package engine.jmx;
+
+import engine.Engine;
+import engine.FrameProfiler;
+import engine.Game;
+import engine.Scene;
+
+// Reads whichever game is current in the engine at the time, so it survives games being
+// swapped. Attributes read 0 (or "") when there is no game. Scenes and objects are read
+// from the game's snapshots, never its live lists, and changes are handed to the game's
+// update thread through Game.runOnUpdate.
+public class GameMonitor implements GameMonitorMBean {
+    private final Engine engine;
+    
+    public GameMonitor(Engine engine) {
+        this.engine = engine;
+    }
+    
+    @Override
+    public String getTitle() {
+        Game game = engine.getCurrentGame();
+        return game == null ? "" : game.getTitle();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        Game game = engine.getCurrentGame();
+        return game != null && game.isRunning();
+    }
+    
+    @Override
+    public double getTargetFPS() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getTargetFPS();
+    }
+    
+    @Override
+    public void setTargetFPS(double targetFPS) {
+        if (targetFPS <= 0) {
+            throw new IllegalArgumentException("Target FPS must be positive");
+        }
+        Game game = engine.getCurrentGame();
+        if (game != null) {
+            game.runOnUpdate(() -> game.setTargetFPS(targetFPS));
+        }
+    }
+    
+    @Override
+    public double getFramesPerSecond() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getProfiler().getFramesPerSecond();
+    }
+    
+    @Override
+    public long getFrameCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getProfiler().getFrameCount();
+    }
+    
+    @Override
+    public double getFrameTimeP50() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getProfiler().getP50(FrameProfiler.Phase.FRAME) / 1e6;
+    }
+    
+    @Override
+    public double getFrameTimeP99() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getProfiler().getP99(FrameProfiler.Phase.FRAME) / 1e6;
+    }
+    
+    @Override
+    public double getFrameTimeMax() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getProfiler().getMax(FrameProfiler.Phase.FRAME) / 1e6;
+    }
+    
+    @Override
+    public double getMeanFrameJitter() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getFramePacer().getMeanJitterNanos() / 1e6;
+    }
+    
+    @Override
+    public long getLateFrameCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getFramePacer().getLateCount();
+    }
+    
+    @Override
+    public long getFrameOverrunCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getFramePacer().getOverrunCount();
+    }
+    
+    @Override
+    public String getCurrentScene() {
+        Game game = engine.getCurrentGame();
+        Scene scene = game == null ? null : game.getCurrentScene();
+        return scene == null ? "" : scene.getName();
+    }
+    
+    @Override
+    public void setCurrentScene(String name) {
+        Game game = engine.getCurrentGame();
+        if (game == null || !hasScene(game, name)) {
+            throw new IllegalArgumentException("No scene named " + name);
+        }
+        game.runOnUpdate(() -> game.setCurrentScene(name));
+    }
+    
+    private static boolean hasScene(Game game, String name) {
+        for (Scene scene : game.getSceneSnapshot()) {
+            if (scene.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public int getSceneCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getSceneSnapshot().size();
+    }
+    
+    @Override
+    public int getTotalGameObjectCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getGameObjectCountSnapshot();
+    }
+    
+    @Override
+    public int getInputListenerCount() {
+        Game game = engine.getCurrentGame();
+        return game == null ? 0 : game.getInputManager().getListenerCount();
+    }
+    
+    @Override
+    public void resetStatistics() {
+        Game game = engine.getCurrentGame();
+        if (game != null) {
+            game.runOnUpdate(() -> {
+                game.getProfiler().reset();
+                game.getFramePacer().resetStatistics();
+            });
+        }
+    }
+}
\ No newline at end of file
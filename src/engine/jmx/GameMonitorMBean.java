@@ -0,0 +1,26 @@
+package engine.jmx;
+
+// Live metrics of the engine's current game. Times are in milliseconds.
+public interface GameMonitorMBean {
+    String getTitle();
+    boolean isRunning();
+    
+    double getTargetFPS();
+    void setTargetFPS(double targetFPS);
+    double getFramesPerSecond();
+    long getFrameCount();
+    double getFrameTimeP50();
+    double getFrameTimeP99();
+    double getFrameTimeMax();
+    double getMeanFrameJitter();
+    long getLateFrameCount();
+    long getFrameOverrunCount();
+    
+    String getCurrentScene();
+    void setCurrentScene(String name);
+    int getSceneCount();
+    int getTotalGameObjectCount();
+    int getInputListenerCount();
+    
+    void resetStatistics();
+}
\ No newline at end of file